@@ -0,0 +1,208 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.config.ServerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete request and response round trips over loopback, on persistent connections,
+ * for the small dynamic routes and the images of the webroot. Each benchmark thread owns one connection.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EndToEndBenchmark {
+
+    /**
+     * The server under test, started once per fork with the routes of the example application.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"BLOCKING", "NIO"})
+        public String engine;
+        int port;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            try (ServerSocket probe = new ServerSocket(0)) {
+                port = probe.getLocalPort();
+            }
+            HTTPServerImpl.get("/hello", (request, response) -> {
+                response.setBody("Hello " + request.getValue("name"));
+                return response;
+            });
+            HTTPServerImpl.get("/pi", (request, response) -> {
+                response.setBody("Pi is approximately " + Math.PI);
+                return response;
+            });
+            HTTPServerImpl.staticFiles("/webroot");
+            HTTPServerImpl.keepAlive(Integer.MAX_VALUE, 60_000);
+            Thread server = new Thread(() -> HTTPServerImpl.start(port, ServerEngine.valueOf(engine)), "benchmark-server");
+            server.setDaemon(true);
+            server.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (true) {
+                try (Socket socket = new Socket()) {
+                    socket.connect(new InetSocketAddress("localhost", port), 200);
+                    return;
+                } catch (IOException e) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new IllegalStateException("Server did not start on port " + port, e);
+                    }
+                    Thread.sleep(20);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            HTTPServerImpl.stop();
+        }
+    }
+
+    /**
+     * A keep-alive connection that sends GET requests and reads their responses by Content-Length.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private final byte[] buffer = new byte[64 * 1024];
+        private Socket socket;
+        private InputStream in;
+        private OutputStream out;
+        private int start;
+        private int end;
+
+        @Setup(Level.Trial)
+        public void connect(Server server) throws IOException {
+            socket = new Socket("localhost", server.port);
+            socket.setTcpNoDelay(true);
+            in = socket.getInputStream();
+            out = socket.getOutputStream();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        long get(byte[] request) throws IOException {
+            out.write(request);
+            out.flush();
+            int headEnd = readHead();
+            long length = contentLength(headEnd);
+            start = headEnd;
+            long remaining = length;
+            while (remaining > 0) {
+                if (start == end) {
+                    fill();
+                }
+                int taken = (int) Math.min(remaining, end - start);
+                start += taken;
+                remaining -= taken;
+            }
+            return length;
+        }
+
+        private int readHead() throws IOException {
+            if (start == end) {
+                start = 0;
+                end = 0;
+            } else if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+            int scanned = 0;
+            while (true) {
+                for (int i = Math.max(scanned, 3); i < end; i++) {
+                    if (buffer[i] == '\n' && buffer[i - 1] == '\r' && buffer[i - 2] == '\n' && buffer[i - 3] == '\r') {
+                        return i + 1;
+                    }
+                }
+                scanned = end;
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    throw new EOFException("Connection closed by the server");
+                }
+                end += read;
+            }
+        }
+
+        private long contentLength(int headEnd) {
+            String head = new String(buffer, 0, headEnd, StandardCharsets.ISO_8859_1);
+            int name = head.indexOf("Content-Length: ");
+            if (name < 0) {
+                return 0;
+            }
+            int value = name + "Content-Length: ".length();
+            return Long.parseLong(head.substring(value, head.indexOf('\r', value)));
+        }
+
+        private void fill() throws IOException {
+            int read = in.read(buffer, 0, buffer.length);
+            if (read < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+            start = 0;
+            end = read;
+        }
+    }
+
+    private static final byte[] HELLO = request("/hello?name=Pedro");
+    private static final byte[] PI = request("/pi");
+    private static final byte[] SMALL_IMAGE = request("/images/img.png");
+    private static final byte[] LARGE_IMAGE = request("/images/img_7.png");
+
+    @Benchmark
+    public long hello(Client client) throws IOException {
+        return client.get(HELLO);
+    }
+
+    @Benchmark
+    public long pi(Client client) throws IOException {
+        return client.get(PI);
+    }
+
+    @Benchmark
+    public long smallImage(Client client) throws IOException {
+        return client.get(SMALL_IMAGE);
+    }
+
+    @Benchmark
+    public long largeImage(Client client) throws IOException {
+        return client.get(LARGE_IMAGE);
+    }
+
+    private static byte[] request(String target) {
+        return ("GET " + target + " HTTP/1.1\r\nHost: localhost\r\nUser-Agent: jmh\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,88 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the request head parser and the lazy query string decoding of {@link HTTPFrameworkRequest}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestParsingBenchmark {
+    private static final byte[] BROWSER_HEAD = ("GET /images/img.png HTTP/1.1\r\n"
+            + "Host: localhost:8080\r\n"
+            + "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0\r\n"
+            + "Accept: image/avif,image/webp,*/*\r\n"
+            + "Accept-Language: en-US,en;q=0.5\r\n"
+            + "Accept-Encoding: gzip, deflate, br\r\n"
+            + "Connection: keep-alive\r\n"
+            + "Referer: http://localhost:8080/\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CURL_HEAD = ("GET /hello?name=Pedro HTTP/1.1\r\n"
+            + "Host: localhost:8080\r\n"
+            + "User-Agent: curl/8.5.0\r\n"
+            + "Accept: */*\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    private HttpRequestParser parser;
+    private ByteBuffer browser;
+    private ByteBuffer curl;
+
+    @Setup
+    public void setup() {
+        parser = new HTTPServer().newParser(false);
+        browser = ByteBuffer.wrap(BROWSER_HEAD);
+        curl = ByteBuffer.wrap(CURL_HEAD);
+    }
+
+    @Benchmark
+    public HTTPFrameworkRequest parseBrowserHead() {
+        return parse(browser);
+    }
+
+    @Benchmark
+    public HTTPFrameworkRequest parseCurlHead() {
+        return parse(curl);
+    }
+
+    @Benchmark
+    public String queryValue() {
+        return new HTTPFrameworkRequest("/hello?name=Pedro").getValue("name");
+    }
+
+    @Benchmark
+    public List<String> encodedQueryValues() {
+        return new HTTPFrameworkRequest("/search?q=caf%C3%A9+con+leche&tag=a&tag=b&tag=c&page=2").getValues("tag");
+    }
+
+    @Benchmark
+    public String missingQueryValue() {
+        return new HTTPFrameworkRequest("/pi").getValue("name");
+    }
+
+    private HTTPFrameworkRequest parse(ByteBuffer head) {
+        head.rewind();
+        parser.reset();
+        parser.parse(head);
+        return parser.request();
+    }
+}
@@ -0,0 +1,106 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how responses are produced without a socket: encoding a response head, and dispatching a
+ * whole request through {@link HTTPServer#processRequest(HTTPFrameworkRequest, int, ResponseOutput, long)}
+ * into an output that only counts bytes.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+    private static final byte[] BODY = "Hello Pedro".getBytes(StandardCharsets.UTF_8);
+    private static final Map<String, String> HEADERS = Map.of("host", "localhost", "accept", "*/*");
+
+    private final CountingOutput out = new CountingOutput();
+    private final HTTPServer server = new HTTPServer();
+
+    @Setup
+    public void setup() {
+        server.get("/hello", (request, response) -> {
+            response.setBody("Hello " + request.getValue("name"));
+            return response;
+        });
+        server.get("/pi", (request, response) -> {
+            response.setBody("Pi is approximately " + Math.PI);
+            return response;
+        });
+        server.staticFiles("/webroot");
+    }
+
+    @Benchmark
+    public long encodeHead() throws IOException {
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.status(200).append(ResponseWriter.CONTENT_TYPE_TEXT).cors()
+                    .contentLength(BODY.length).end(true).send(out, BODY, 0, BODY.length);
+        }
+        return out.bytes;
+    }
+
+    @Benchmark
+    public boolean dispatchHello() throws IOException {
+        return dispatch("/hello?name=Pedro");
+    }
+
+    @Benchmark
+    public boolean dispatchPi() throws IOException {
+        return dispatch("/pi");
+    }
+
+    @Benchmark
+    public boolean dispatchImage() throws IOException {
+        return dispatch("/images/img.png");
+    }
+
+    private boolean dispatch(String target) throws IOException {
+        HTTPFrameworkRequest request = new HTTPFrameworkRequest("GET", target, "HTTP/1.1", HEADERS, InputStream.nullInputStream());
+        return server.processRequest(request, 1, out, 0);
+    }
+
+    /**
+     * Discards the response, keeping only its size so the work cannot be optimised away.
+     */
+    private static final class CountingOutput extends ResponseOutput {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        void transferFile(Path file, long position, long count) {
+            bytes += count;
+        }
+    }
+}
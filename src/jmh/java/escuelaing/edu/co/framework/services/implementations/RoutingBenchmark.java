@@ -0,0 +1,96 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.routing.RouteTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request lookups that come before any I/O: the route table, the mapping of the
+ * request path to a static file and the resolution of that file in the static manifest.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+    private final RouteTrie<String> routes = new RouteTrie<>();
+    private StaticManifest manifest;
+    // non-final so the JIT cannot fold the lookups into constants
+    private String literal = "/hello";
+    private String parameters = "/api/users/42/orders/7";
+    private String wildcard = "/downloads/reports/2025/q3.pdf";
+    private String image = "/images/img.png";
+    private String root = "/";
+    private String missing = "/images/missing.png";
+
+    @Setup
+    public void setup() {
+        routes.add("GET", "/health", "health");
+        routes.add("GET", "/hello", "hello");
+        routes.add("GET", "/pi", "pi");
+        routes.add("GET", "/metrics", "metrics");
+        routes.add("GET", "/api/users", "users");
+        routes.add("POST", "/api/users", "createUser");
+        routes.add("GET", "/api/users/{id}", "user");
+        routes.add("GET", "/api/users/{id}/orders/{order}", "order");
+        routes.add("GET", "/downloads/*", "download");
+        routes.freeze();
+        manifest = StaticManifest.scan(Paths.get("src/main/resources/webroot"), 1024 * 1024);
+    }
+
+    @Benchmark
+    public RouteTrie.Match<String> literalRoute() {
+        return routes.find(literal);
+    }
+
+    @Benchmark
+    public RouteTrie.Match<String> parameterRoute() {
+        return routes.find(parameters);
+    }
+
+    @Benchmark
+    public RouteTrie.Match<String> wildcardRoute() {
+        return routes.find(wildcard);
+    }
+
+    @Benchmark
+    public RouteTrie.Match<String> staticFileMiss() {
+        return routes.find(image);
+    }
+
+    @Benchmark
+    public String filePathOfRoot() {
+        return HTTPServer.obtainFilePath(root);
+    }
+
+    @Benchmark
+    public String filePathOfImage() {
+        return HTTPServer.obtainFilePath(image);
+    }
+
+    @Benchmark
+    public StaticManifest.Entry manifestHit() {
+        return manifest.lookup(image);
+    }
+
+    @Benchmark
+    public StaticManifest.Entry manifestMiss() {
+        return manifest.lookup(missing);
+    }
+}
@@ -0,0 +1,112 @@
+package escuelaing.edu.co.framework.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Strong entity tags for static files, computed from the file content once per file version.
+ * A version is identified by the last-modified time and size of the file, so the content is
+ * only hashed again after the file changes. Files too large to hash on every change get a tag built
+ * from that version instead, see {@link #ofVersion(long, long)}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public class ETagCache {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, Tag> tags = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the entity tag of a file, hashing its content if this version was not seen before.
+     * @param file the file
+     * @param lastModified the current last-modified time of the file
+     * @param size the current size of the file
+     * @return the quoted entity tag
+     * @throws IOException if the file cannot be read
+     */
+    public String get(Path file, long lastModified, long size) throws IOException {
+        String key = file.toAbsolutePath().toString();
+        Tag tag = tags.get(key);
+        if (tag != null && tag.lastModified == lastModified && tag.size == size) {
+            return tag.value;
+        }
+        String value = hash(file);
+        tags.put(key, new Tag(value, lastModified, size));
+        return value;
+    }
+
+    /**
+     * Computes the entity tag of content that is not a file, e.g. a resource packaged in a JAR.
+     * @param in the content, read to its end but not closed
+     * @return the quoted entity tag, the same a file with this content gets
+     * @throws IOException if the content cannot be read
+     */
+    public static String of(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        for (int read; (read = in.read(buffer)) >= 0; ) {
+            digest.update(buffer, 0, read);
+        }
+        return format(digest.digest());
+    }
+
+    /**
+     * Builds the entity tag of a file from its last-modified time and size, without reading it.
+     * @param lastModified the last-modified time of the file
+     * @param size the size of the file
+     * @return the quoted entity tag
+     */
+    public static String ofVersion(long lastModified, long size) {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return format(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String format(byte[] bytes) {
+        StringBuilder value = new StringBuilder(34).append('"');
+        for (int i = 0; i < 16; i++) {
+            value.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return value.append('"').toString();
+    }
+
+    private static final class Tag {
+        private final String value;
+        private final long lastModified;
+        private final long size;
+
+        Tag(String value, long lastModified, long size) {
+            this.value = value;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+}
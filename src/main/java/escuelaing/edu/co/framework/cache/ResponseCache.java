@@ -0,0 +1,122 @@
+package escuelaing.edu.co.framework.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of pre-built dynamic route responses.
+ * Entries expire a fixed time after they are stored and are evicted in least-recently-used order
+ * once the cache holds the configured number of entries.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public class ResponseCache {
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache.
+     * @param ttlMillis how long an entry is served after it is stored
+     * @param maxEntries the maximum number of entries held
+     */
+    public ResponseCache(long ttlMillis, int maxEntries) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache limits must be positive");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 64), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a response. An expired entry is dropped and counted as a miss.
+     * @param key the request key
+     * @return the cached entry, or null if there is none or it has expired
+     */
+    public Entry get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.storedAt < ttlNanos) {
+                hits.increment();
+                return entry;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a response, evicting the least recently used entry if the cache is full.
+     * @param key the request key
+     * @param entry the response to store
+     */
+    public void put(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * A cached response: the status line and headers followed by the body, in one buffer.
+     * The headers are left open so the caller can append the Connection header before the blank line.
+     */
+    public static final class Entry {
+        private final byte[] data;
+        private final int headerLength;
+        private final long storedAt = System.nanoTime();
+
+        /**
+         * Creates an entry.
+         * @param data the header bytes followed by the body bytes
+         * @param headerLength the number of header bytes at the start of data
+         */
+        public Entry(byte[] data, int headerLength) {
+            this.data = data;
+            this.headerLength = headerLength;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getHeaderLength() {
+            return headerLength;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package escuelaing.edu.co.framework.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of pre-built static file responses.
+ * Entries are keyed by the resolved file path and evicted in least-recently-used order
+ * once the total size goes over the configured limit. An entry is only returned while
+ * the file still has the last-modified time and size it was built from.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public class StaticFileCache {
+    private final long maxTotalBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    /**
+     * Creates a cache.
+     * @param maxTotalBytes the maximum number of bytes held by all entries
+     * @param maxEntryBytes the maximum size of a single entry, larger responses are not cached
+     */
+    public StaticFileCache(long maxTotalBytes, long maxEntryBytes) {
+        if (maxTotalBytes < 0 || maxEntryBytes < 0) {
+            throw new IllegalArgumentException("Cache limits must not be negative");
+        }
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxTotalBytes);
+    }
+
+    /**
+     * Looks up the response for a file.
+     * A stale entry, built from a different version of the file, is dropped and counted as a miss.
+     * @param path the resolved file path
+     * @param lastModified the current last-modified time of the file
+     * @param size the current size of the file
+     * @return the cached entry, or null if there is none for this version of the file
+     */
+    public Entry get(String path, long lastModified, long size) {
+        synchronized (entries) {
+            Entry entry = entries.get(path);
+            if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+                hits.increment();
+                return entry;
+            }
+            if (entry != null) {
+                entries.remove(path);
+                totalBytes -= entry.data.length;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Tells whether the response for a file is cached, without counting a hit or a miss.
+     * @param path the resolved file path
+     * @param lastModified the current last-modified time of the file
+     * @param size the current size of the file
+     * @return true if {@link #get(String, long, long)} would return an entry
+     */
+    public boolean contains(String path, long lastModified, long size) {
+        synchronized (entries) {
+            Entry entry = entries.get(path);
+            return entry != null && entry.lastModified == lastModified && entry.size == size;
+        }
+    }
+
+    /**
+     * Stores the response for a file, evicting the least recently used entries if needed.
+     * @param path the resolved file path
+     * @param entry the response to store
+     * @return true if the entry was cached, false if it is larger than the entry limit
+     */
+    public boolean put(String path, Entry entry) {
+        if (entry.data.length > maxEntryBytes) {
+            return false;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(path, entry);
+            if (previous != null) {
+                totalBytes -= previous.data.length;
+            }
+            totalBytes += entry.data.length;
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxTotalBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().data.length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return true;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * A cached response: the status line and headers followed by the body, in one buffer.
+     * The headers are left open so the caller can append per-request headers before the blank line.
+     */
+    public static final class Entry {
+        private final byte[] data;
+        private final int headerLength;
+        private final long lastModified;
+        private final long size;
+
+        /**
+         * Creates an entry.
+         * @param data the header bytes followed by the body bytes
+         * @param headerLength the number of header bytes at the start of data
+         * @param lastModified the last-modified time of the file the entry was built from
+         * @param size the size of the file the entry was built from
+         */
+        public Entry(byte[] data, int headerLength, long lastModified, long size) {
+            this.data = data;
+            this.headerLength = headerLength;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getHeaderLength() {
+            return headerLength;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package escuelaing.edu.co.framework.config;
+
+/**
+ * Strategy used by the server to run the handling of accepted connections, or of requests with
+ * the {@link ServerEngine#NIO} engine, whose event loops hand route handlers to these workers.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public enum ExecutionMode {
+    /**
+     * One virtual thread per connection. On runtimes without virtual threads (Java 17-20)
+     * it falls back to {@link #BOUNDED_POOL} with the configured pool size and logs a warning.
+     */
+    VIRTUAL_THREADS,
+    /**
+     * A fixed pool of platform threads, sized through {@code executionMode(mode, poolSize)}.
+     */
+    BOUNDED_POOL
+}
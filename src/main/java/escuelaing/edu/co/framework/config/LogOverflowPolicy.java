@@ -0,0 +1,19 @@
+package escuelaing.edu.co.framework.config;
+
+/**
+ * What the access log does with a record when its buffer is full.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public enum LogOverflowPolicy {
+    /**
+     * The record is discarded and counted, so logging never slows requests down.
+     */
+    DROP,
+    /**
+     * The request thread waits until the writer frees a slot, so no record is lost. Threads that must not
+     * block, such as the {@link ServerEngine#NIO} event loops answering static files, drop the record instead.
+     */
+    BLOCK
+}
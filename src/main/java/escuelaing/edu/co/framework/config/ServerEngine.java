@@ -0,0 +1,20 @@
+package escuelaing.edu.co.framework.config;
+
+/**
+ * I/O engine used by the server to accept and serve connections.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public enum ServerEngine {
+    /**
+     * Blocking {@code ServerSocket} loop, each connection handled by a worker thread.
+     */
+    BLOCKING,
+    /**
+     * Non-blocking {@code ServerSocketChannel} with a fixed number of selector event loops.
+     * The loops read requests and write responses; route handlers run on the worker threads of the
+     * {@link ExecutionMode}, so a slow handler does not stall the other connections of its loop.
+     */
+    NIO
+}
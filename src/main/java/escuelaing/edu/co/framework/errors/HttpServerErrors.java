@@ -13,6 +13,14 @@ public class HttpServerErrors extends Error {
     public static final HttpServerErrors BAD_REQUEST_400 = new HttpServerErrors("400 Bad Request", 400);
     public static final HttpServerErrors FORBIDDEN_403 = new HttpServerErrors("403 Forbidden", 403);
     public static final HttpServerErrors METHOD_NOT_ALLOWED_405 = new HttpServerErrors("405 Method Not Allowed", 405);
+    public static final HttpServerErrors REQUEST_TIMEOUT_408 = new HttpServerErrors("408 Request Timeout", 408);
+    public static final HttpServerErrors PAYLOAD_TOO_LARGE_413 = new HttpServerErrors("413 Payload Too Large", 413);
+    public static final HttpServerErrors UPGRADE_REQUIRED_426 = new HttpServerErrors("426 Upgrade Required", 426);
+    public static final HttpServerErrors TOO_MANY_REQUESTS_429 = new HttpServerErrors("429 Too Many Requests", 429);
+    public static final HttpServerErrors REQUEST_HEADER_FIELDS_TOO_LARGE_431 = new HttpServerErrors("431 Request Header Fields Too Large", 431);
+    public static final HttpServerErrors NOT_IMPLEMENTED_501 = new HttpServerErrors("501 Not Implemented", 501);
+    public static final HttpServerErrors SERVICE_UNAVAILABLE_503 = new HttpServerErrors("503 Service Unavailable", 503);
+    public static final HttpServerErrors GATEWAY_TIMEOUT_504 = new HttpServerErrors("504 Gateway Timeout", 504);
 
     public final int CODE;
 
@@ -0,0 +1,382 @@
+package escuelaing.edu.co.framework.logging;
+
+import escuelaing.edu.co.framework.config.LogOverflowPolicy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Access log with one line per request, written off the request path.
+ * Request threads claim a slot of a bounded ring buffer with a single compare-and-set and fill it in place;
+ * a background thread drains the buffer in batches, formats the lines and appends them to the file with one write per batch.
+ * When the file grows past its size limit it is renamed to {@code file.1}, older files are shifted up to the
+ * configured count and a new file is started. What happens when the buffer is full is set by a {@link LogOverflowPolicy}.
+ * Every record is either written or counted as dropped: when the log closes, or its writer fails, the buffer
+ * is sealed against new records and the ones already claimed are written or counted.
+ * Lines use the logfmt style, e.g.
+ * {@code time=2025-08-22T10:15:30.120Z remote=127.0.0.1 method=GET path="/hello" status=200 bytes=154 duration_ms=0.412}.
+ * Values that are not known, such as the address of a client on an unsupported channel, are written as {@code -}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public final class AccessLog implements Closeable {
+    private static final Logger logger = Logger.getLogger(AccessLog.class.getName());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int BATCH_CHARS = 64 * 1024;
+    private static final long CLOSE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Set on the tail once the buffer is sealed, which makes it negative so that no record can claim a slot.
+     */
+    private static final long SEALED = Long.MIN_VALUE;
+
+    private final Record[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    private final LogOverflowPolicy policy;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final StringBuilder batch = new StringBuilder(BATCH_CHARS + 1024);
+    private final Thread writer;
+    private FileChannel channel;
+    private long fileSize;
+    private volatile boolean closed;
+
+    /**
+     * Opens the log, appending to the file if it exists, and starts its writer thread.
+     * @param file the log file
+     * @param capacity the number of records the buffer holds, rounded up to a power of two
+     * @param maxFileBytes the size at which the file is rotated
+     * @param maxFiles the number of rotated files kept next to the current one
+     * @param policy what to do with a record when the buffer is full
+     * @throws IOException if the file cannot be opened
+     */
+    public AccessLog(Path file, int capacity, long maxFileBytes, int maxFiles, LogOverflowPolicy policy) throws IOException {
+        if (capacity <= 0 || maxFileBytes <= 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("Access log limits must be positive");
+        }
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Record[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Record();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.policy = policy;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fileSize = channel.size();
+        this.writer = new Thread(this::drain, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the record of a completed request. It returns without waiting for the file
+     * unless the buffer is full and the policy is {@link LogOverflowPolicy#BLOCK}.
+     * @param remote the address of the client, or null if not known
+     * @param method the request method, or null if not known
+     * @param path the request path, or null if not known; missing values are written as -
+     * @param status the response status code
+     * @param bytes the size of the response
+     * @param nanos the time from receiving the request to writing the response
+     */
+    public void log(InetAddress remote, String method, String path, int status, long bytes, long nanos) {
+        log(remote, method, path, status, bytes, nanos, true);
+    }
+
+    /**
+     * Queues the record of a completed request.
+     * @param remote the address of the client, or null if not known
+     * @param method the request method, or null if not known
+     * @param path the request path, or null if not known; missing values are written as -
+     * @param status the response status code
+     * @param bytes the size of the response
+     * @param nanos the time from receiving the request to writing the response
+     * @param mayWait whether the caller may wait for a free slot under {@link LogOverflowPolicy#BLOCK};
+     *                threads that must never block, such as event loops, pass false and the record is dropped instead
+     */
+    public void log(InetAddress remote, String method, String path, int status, long bytes, long nanos, boolean mayWait) {
+        long time = System.currentTimeMillis();
+        long position;
+        while (true) {
+            position = tail.get();
+            if (position < 0) {
+                // sealed by close() or by a writer failure
+                dropped.increment();
+                return;
+            }
+            long sequence = sequences.get((int) position & mask);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                // the slot still holds a record from the previous lap: the buffer is full
+                if (policy == LogOverflowPolicy.DROP || !mayWait) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, 50_000);
+            }
+        }
+        int index = (int) position & mask;
+        Record record = slots[index];
+        record.time = time;
+        record.remote = remote;
+        record.method = method;
+        record.path = path;
+        record.status = status;
+        record.bytes = bytes;
+        record.nanos = nanos;
+        sequences.set(index, position + 1);
+    }
+
+    /**
+     * Returns the number of records discarded because the buffer was full or the log was closed.
+     * @return the number of dropped records
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of records written to the file.
+     * @return the number of written records
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Writes the queued records, stops the writer thread and closes the file.
+     * Records logged afterwards, or still waiting for a slot, are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                boolean stopping = closed;
+                if (drainBatch() == 0) {
+                    if (stopping) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+            drainClaimed();
+        } catch (RuntimeException | Error e) {
+            logger.log(Level.SEVERE, "Access log writer failed: " + e.getMessage(), e);
+            // waiting callers give up once the buffer is sealed
+            dropped.add(countLines() + seal() - head);
+            batch.setLength(0);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warning("Could not close the access log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Seals the buffer and writes the records claimed before, waiting for the ones still being filled in.
+     * Records not filled in within a second are counted as dropped.
+     */
+    private void drainClaimed() {
+        long end = seal();
+        long deadline = System.nanoTime() + CLOSE_WAIT_NANOS;
+        while (head < end) {
+            if (drainBatch() == 0) {
+                if (System.nanoTime() - deadline > 0) {
+                    dropped.add(end - head);
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Stops records from claiming slots.
+     * @return the position after the last claimed slot
+     */
+    private long seal() {
+        return tail.getAndUpdate(position -> position | SEALED) & ~SEALED;
+    }
+
+    /**
+     * Formats the records published so far and writes them to the file.
+     * @return the number of records taken from the buffer
+     */
+    private int drainBatch() {
+        int count = 0;
+        while (count < slots.length) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Record record = slots[index];
+            int length = batch.length();
+            try {
+                record.appendTo(batch);
+            } catch (RuntimeException e) {
+                batch.setLength(length);
+                dropped.increment();
+                logger.log(Level.WARNING, "Could not format an access log record: " + e.getMessage(), e);
+            }
+            record.remote = null;
+            record.method = null;
+            record.path = null;
+            sequences.set(index, head + slots.length);
+            head++;
+            count++;
+            if (batch.length() >= BATCH_CHARS) {
+                flush();
+            }
+        }
+        flush();
+        return count;
+    }
+
+    private void flush() {
+        if (batch.length() == 0) {
+            return;
+        }
+        int lines = countLines();
+        byte[] data = batch.toString().getBytes(StandardCharsets.UTF_8);
+        batch.setLength(0);
+        try {
+            if (fileSize > 0 && fileSize + data.length > maxFileBytes) {
+                rotate();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            fileSize += data.length;
+            written.addAndGet(lines);
+        } catch (IOException e) {
+            dropped.add(lines);
+            logger.warning("Could not write the access log: " + e.getMessage());
+        }
+    }
+
+    private int countLines() {
+        int lines = 0;
+        for (int i = 0; i < batch.length(); i++) {
+            if (batch.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path older = rotated(i);
+                if (Files.exists(older)) {
+                    Files.move(older, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        fileSize = 0;
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    /**
+     * A slot of the ring buffer, reused for every lap.
+     */
+    private static final class Record {
+        long time;
+        InetAddress remote;
+        String method;
+        String path;
+        int status;
+        long bytes;
+        long nanos;
+
+        void appendTo(StringBuilder line) {
+            line.append("time=").append(Instant.ofEpochMilli(time))
+                    .append(" remote=").append(remote != null ? remote.getHostAddress() : "-")
+                    .append(" method=").append(method != null ? method : "-")
+                    .append(" path=");
+            if (path == null) {
+                line.append('-');
+            } else {
+                line.append('"');
+                for (int i = 0; i < path.length(); i++) {
+                    char c = path.charAt(i);
+                    if (c == '"' || c == '\\') {
+                        line.append('\\').append(c);
+                    } else if (c < 0x20 || c == 0x7f) {
+                        line.append('?');
+                    } else {
+                        line.append(c);
+                    }
+                }
+                line.append('"');
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            line.append(" status=").append(status)
+                    .append(" bytes=").append(bytes)
+                    .append(" duration_ms=").append(micros / 1000).append('.');
+            long fraction = micros % 1000;
+            if (fraction < 100) {
+                line.append('0');
+            }
+            if (fraction < 10) {
+                line.append('0');
+            }
+            line.append(fraction).append('\n');
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package escuelaing.edu.co.framework.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * Each power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so a recorded value is
+ * reported within about 6% of its true value from one microsecond up to about 12 days.
+ * Every bucket is a {@link LongAdder}, so concurrent recordings do not contend on a single counter.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 36;
+    private static final int BUCKET_COUNT = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value.
+     * @param micros the latency in microseconds; negative values count as zero
+     */
+    public void record(long micros) {
+        long value = Math.max(micros, 0);
+        buckets[indexOf(value)].increment();
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     * @return the sum in microseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Estimates a percentile from the bucket counts.
+     * @param quantile the quantile between 0 and 1, e.g. 0.99
+     * @return the upper bound of the bucket holding the percentile, in microseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double quantile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Values below {@code SUB_BUCKETS} get a bucket each; larger ones are placed by their highest bit
+     * and the {@code SUB_BUCKET_BITS} bits that follow it.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (shift > MAX_SHIFT) {
+            return BUCKET_COUNT - 1;
+        }
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the largest value that falls in a bucket.
+     */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int sub = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,145 @@
+package escuelaing.edu.co.framework.metrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request and connection metrics of a server, exported in the Prometheus text format.
+ * Requests are grouped by method, route pattern and status class (2xx, 4xx, ...). Each group keeps
+ * its request count, bytes received and sent, and a {@link LatencyHistogram}. Methods outside the standard
+ * set are counted under {@code OTHER}, so clients cannot create groups at will. All counters are
+ * {@link LongAdder}s and groups are created once, so recording takes no lock on the request path.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public final class ServerMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS", "PATCH");
+    private static final String OTHER_METHOD = "OTHER";
+
+    private final Map<String, Map<String, RouteMetrics>> routes = new ConcurrentHashMap<>();
+    private final LongAdder acceptedConnections = new LongAdder();
+    private final LongAdder activeConnections = new LongAdder();
+
+    /**
+     * Counts a connection that has just been accepted.
+     */
+    public void connectionOpened() {
+        acceptedConnections.increment();
+        activeConnections.increment();
+    }
+
+    /**
+     * Counts a connection that has just been closed.
+     */
+    public void connectionClosed() {
+        activeConnections.decrement();
+    }
+
+    /**
+     * Records a completed request.
+     * @param method the request method, counted as {@code OTHER} when it is not a standard one
+     * @param route the route pattern that served it, or a fixed label such as "static"; never the raw path
+     * @param status the response status code
+     * @param bytesIn the size of the request
+     * @param bytesOut the size of the response
+     * @param nanos the time from receiving the request to writing the response
+     */
+    public void record(String method, String route, int status, long bytesIn, long bytesOut, long nanos) {
+        Map<String, RouteMetrics> methods = routes.get(route);
+        if (methods == null) {
+            methods = routes.computeIfAbsent(route, key -> new ConcurrentHashMap<>());
+        }
+        String label = METHODS.contains(method) ? method : OTHER_METHOD;
+        RouteMetrics metrics = methods.get(label);
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(label, key -> new RouteMetrics());
+        }
+        StatusMetrics group = metrics.forStatus(status);
+        group.requests.increment();
+        group.bytesIn.add(bytesIn);
+        group.bytesOut.add(bytesOut);
+        group.latency.record(nanos / 1000);
+    }
+
+    public long getAcceptedConnections() {
+        return acceptedConnections.sum();
+    }
+
+    public long getActiveConnections() {
+        return activeConnections.sum();
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     * @param out the builder that receives the text
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# TYPE http_connections_accepted_total counter\n")
+                .append("http_connections_accepted_total ").append(getAcceptedConnections()).append('\n')
+                .append("# TYPE http_connections_active gauge\n")
+                .append("http_connections_active ").append(getActiveConnections()).append('\n');
+        StringBuilder requests = new StringBuilder("# TYPE http_requests_total counter\n");
+        StringBuilder bytesIn = new StringBuilder("# TYPE http_request_bytes_total counter\n");
+        StringBuilder bytesOut = new StringBuilder("# TYPE http_response_bytes_total counter\n");
+        StringBuilder latency = new StringBuilder("# TYPE http_request_duration_seconds summary\n");
+        for (Map.Entry<String, Map<String, RouteMetrics>> route : routes.entrySet()) {
+            for (Map.Entry<String, RouteMetrics> method : route.getValue().entrySet()) {
+                for (int i = 0; i < RouteMetrics.CLASSES; i++) {
+                    StatusMetrics group = method.getValue().groups.get(i);
+                    if (group == null) {
+                        continue;
+                    }
+                    String labels = "{method=\"" + method.getKey() + "\",route=\"" + escape(route.getKey())
+                            + "\",status=\"" + (i + 1) + "xx\"";
+                    requests.append("http_requests_total").append(labels).append("} ").append(group.requests.sum()).append('\n');
+                    bytesIn.append("http_request_bytes_total").append(labels).append("} ").append(group.bytesIn.sum()).append('\n');
+                    bytesOut.append("http_response_bytes_total").append(labels).append("} ").append(group.bytesOut.sum()).append('\n');
+                    for (double quantile : QUANTILES) {
+                        latency.append("http_request_duration_seconds").append(labels)
+                                .append(",quantile=\"").append(quantile).append("\"} ")
+                                .append(group.latency.getPercentile(quantile) / 1_000_000.0).append('\n');
+                    }
+                    latency.append("http_request_duration_seconds_sum").append(labels).append("} ")
+                            .append(group.latency.getSum() / 1_000_000.0).append('\n');
+                    latency.append("http_request_duration_seconds_count").append(labels).append("} ")
+                            .append(group.latency.getCount()).append('\n');
+                }
+            }
+        }
+        out.append(requests).append(bytesIn).append(bytesOut).append(latency);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * The groups of one method and route, created on first use of each status class.
+     */
+    private static final class RouteMetrics {
+        private static final int CLASSES = 5;
+        private final AtomicReferenceArray<StatusMetrics> groups = new AtomicReferenceArray<>(CLASSES);
+
+        StatusMetrics forStatus(int status) {
+            int index = Math.min(Math.max(status / 100, 1), CLASSES) - 1;
+            StatusMetrics group = groups.get(index);
+            if (group == null) {
+                groups.compareAndSet(index, null, new StatusMetrics());
+                group = groups.get(index);
+            }
+            return group;
+        }
+    }
+
+    private static final class StatusMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
@@ -1,18 +1,52 @@
 package escuelaing.edu.co.framework.models;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class HTTPFrameworkRequest {
     private String method;
     private String url;
-    private final Map<String, String> params;
+    private final String version;
+    private final String query;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private byte[] bufferedBody;
+    private Map<String, List<String>> params;
+    private Map<String, String> pathParams = Collections.emptyMap();
+    private InetAddress remoteAddress;
 
     public HTTPFrameworkRequest(String request) {
-        this.method = "";
-        this.url = "";
-        this.params = new HashMap<>();
-        parseRequest(request);
+        this("GET", request, "HTTP/1.1", Collections.emptyMap(), InputStream.nullInputStream());
+    }
+
+    /**
+     * Creates a request from its parsed parts.
+     * The query string is kept raw and only decoded when a parameter is first read.
+     * @param method the request method
+     * @param target the request target, the path optionally followed by "?" and the query string
+     * @param version the HTTP version, e.g. "HTTP/1.1"
+     * @param headers the headers keyed by lower-case name
+     * @param body the stream that delivers the request body, empty if none was sent
+     */
+    public HTTPFrameworkRequest(String method, String target, String version, Map<String, String> headers, InputStream body) {
+        int question = target.indexOf('?');
+        this.method = method;
+        this.url = question < 0 ? target : target.substring(0, question);
+        this.query = question < 0 ? null : target.substring(question + 1);
+        this.version = version;
+        this.headers = headers;
+        this.body = body;
     }
 
     public String getMethod() {
@@ -27,25 +61,161 @@ public class HTTPFrameworkRequest {
         return url;
     }
 
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the value of a header.
+     * @param name the header name, in any case
+     * @return the value, or null if the header was not sent
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    /**
+     * Returns all headers keyed by lower-case name.
+     * @return an unmodifiable view of the headers
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Returns the request body as a stream.
+     * Depending on the server engine the bytes are read from the connection as the handler
+     * consumes them, so large uploads do not have to fit in memory. The stream can be read once;
+     * the server discards whatever the handler leaves unread.
+     * @return the body stream
+     */
+    public InputStream getBodyStream() {
+        return bufferedBody != null ? new ByteArrayInputStream(bufferedBody) : body;
+    }
+
+    /**
+     * Reads the whole body into memory. The size is bounded by the server's body limit.
+     * @return the body bytes, empty if none was sent
+     * @throws UncheckedIOException if the body cannot be read from the connection
+     */
+    public byte[] getBody() {
+        if (bufferedBody == null) {
+            try {
+                bufferedBody = body.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return bufferedBody;
+    }
+
+    /**
+     * Returns the whole body as a read-only buffer.
+     * @return the body buffer
+     * @see #getBody()
+     */
+    public ByteBuffer getBodyBuffer() {
+        return ByteBuffer.wrap(getBody()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a parameter taken from the path by the matched route, e.g. {@code id} for {@code /users/{id}}.
+     * @param name the parameter name, or {@code "*"} for the part matched by a wildcard
+     * @return the percent-decoded value, or null if the route has no such parameter
+     */
+    public String getPathParam(String name) {
+        return pathParams.get(name);
+    }
+
+    /**
+     * Returns every parameter taken from the path by the matched route.
+     * @return an unmodifiable view of the parameters keyed by name
+     */
+    public Map<String, String> getPathParams() {
+        return Collections.unmodifiableMap(pathParams);
+    }
+
+    public void setPathParams(Map<String, String> pathParams) {
+        this.pathParams = pathParams;
+    }
+
+    /**
+     * Returns the address of the client that sent the request.
+     * @return the client address, or null if the request did not come from a socket
+     */
+    public InetAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public void setRemoteAddress(InetAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * Returns the first value of a query parameter.
+     * @param param the parameter name
+     * @return the percent-decoded value, or null if the parameter is absent
+     */
     public String getValue(String param) {
-        return this.params.get(param);
+        List<String> values = params().get(param);
+        return values == null ? null : values.get(0);
+    }
+
+    /**
+     * Returns every value of a query parameter, in the order they were sent.
+     * @param param the parameter name
+     * @return the percent-decoded values, empty if the parameter is absent
+     */
+    public List<String> getValues(String param) {
+        List<String> values = params().get(param);
+        return values == null ? Collections.emptyList() : Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Returns every query parameter.
+     * @return an unmodifiable view of the percent-decoded values keyed by parameter name
+     */
+    public Map<String, List<String>> getQueryParams() {
+        return Collections.unmodifiableMap(params());
     }
 
-    private void parseRequest(String request) {
-        String[] parts = request.split("\\?");
-        this.url = parts[0];
-        if (parts.length > 1) {
-            parseParams(parts[1]);
+    private Map<String, List<String>> params() {
+        if (params == null) {
+            params = parseParams(query);
         }
+        return params;
     }
 
-    private void parseParams(String params) {
-        String[] pairs = params.split("&");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split("=");
-            if (keyValue.length == 2) {
-                this.params.put(keyValue[0], keyValue[1]);
+    private static Map<String, List<String>> parseParams(String query) {
+        if (query == null || query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> params = new HashMap<>();
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            int equals = query.indexOf('=', start);
+            if (equals > start && equals < end) {
+                String key = decode(query.substring(start, equals));
+                String value = decode(query.substring(equals + 1, end));
+                params.computeIfAbsent(key, k -> new ArrayList<>(1)).add(value);
             }
+            start = end + 1;
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf('%') < 0 && value.indexOf('+') < 0) {
+            return value;
+        }
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return value;
         }
     }
 }
@@ -1,8 +1,18 @@
 package escuelaing.edu.co.framework.models;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class HTTPFrameworkResponse {
     private int status;
     private String body;
+    private byte[] bodyBytes;
+    private BodyWriter bodyWriter;
+    private final Map<String, String> headers = new LinkedHashMap<>();
 
     public HTTPFrameworkResponse() {
         this.status = 200;
@@ -13,15 +23,141 @@ public class HTTPFrameworkResponse {
         return status;
     }
 
+    /**
+     * Sets the status code sent in the status line, e.g. 201 or 404.
+     * @param status the HTTP status code
+     */
     public void setStatus(int status) {
         this.status = status;
     }
 
+    /**
+     * Returns the body as text. A binary body is decoded as UTF-8; a streamed body is not available here.
+     * @return the body text, empty if there is none
+     */
     public String getBody() {
+        if (body == null) {
+            body = bodyBytes != null ? new String(bodyBytes, StandardCharsets.UTF_8) : "";
+        }
         return body;
     }
 
     public void setBody(String body) {
         this.body = body;
+        this.bodyBytes = null;
+        this.bodyWriter = null;
+    }
+
+    /**
+     * Sets a binary body. Set the Content-Type header to describe it; it defaults to plain text.
+     * @param body the body bytes
+     */
+    public void setBody(byte[] body) {
+        this.bodyBytes = body;
+        this.body = null;
+        this.bodyWriter = null;
+    }
+
+    /**
+     * Returns the body as bytes, encoding a text body as UTF-8.
+     * @return the body bytes
+     */
+    public byte[] getBodyBytes() {
+        if (bodyBytes == null) {
+            bodyBytes = getBody().getBytes(StandardCharsets.UTF_8);
+        }
+        return bodyBytes;
+    }
+
+    /**
+     * Streams the body instead of holding it in memory.
+     * The writer is called after the handler returns, once the headers have been sent. Unless the
+     * Content-Length header is set, the body is sent with chunked transfer coding; each flush of the
+     * stream sends what has been written so far. With either server engine the writer runs on a worker
+     * thread and blocks once a few chunks are waiting for a slow client, so the body takes constant memory.
+     * @param writer the code that writes the body
+     */
+    public void setBodyWriter(BodyWriter writer) {
+        this.bodyWriter = writer;
+        this.body = null;
+        this.bodyBytes = null;
+    }
+
+    /**
+     * Returns the writer of a streamed body.
+     * @return the writer, or null if the body is held in memory
+     */
+    public BodyWriter getBodyWriter() {
+        return bodyWriter;
+    }
+
+    /**
+     * Sets a response header, replacing any previous value.
+     * @param name the header name, e.g. "Content-Type"
+     * @param value the header value
+     * @throws IllegalArgumentException if the name is not a token or the value has a CR, LF or NUL character,
+     *                                  which would let request data echoed into a header split the response
+     */
+    public void setHeader(String name, String value) {
+        if (name == null || name.isEmpty() || !isToken(name)) {
+            throw new IllegalArgumentException("Invalid header name: " + name);
+        }
+        if (value == null || value.indexOf('\r') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid value for header " + name);
+        }
+        headers.remove(getHeaderName(name));
+        headers.put(name, value);
+    }
+
+    /**
+     * Returns the value of a response header.
+     * @param name the header name, in any case
+     * @return the value, or null if the header is not set
+     */
+    public String getHeader(String name) {
+        String key = getHeaderName(name);
+        return key == null ? null : headers.get(key);
+    }
+
+    /**
+     * Returns the headers set by the handler, in the order they were set.
+     * @return an unmodifiable view of the headers
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    private static boolean isToken(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || "!#$%&'*+-.^_`|~".indexOf(c) >= 0;
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getHeaderName(String name) {
+        for (String key : headers.keySet()) {
+            if (key.equalsIgnoreCase(name)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes a streamed response body.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        /**
+         * Writes the body. The stream must not be used after this method returns; closing it is optional.
+         * @param out the stream that sends the body to the client
+         * @throws IOException if the client connection fails
+         */
+        void writeTo(OutputStream out) throws IOException;
     }
 }
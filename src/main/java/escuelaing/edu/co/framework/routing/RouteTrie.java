@@ -0,0 +1,224 @@
+package escuelaing.edu.co.framework.routing;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route table organised as a trie of path segments.
+ * A pattern segment is either literal, a parameter such as {@code {id}} that matches any one segment,
+ * or a trailing {@code *} that matches the rest of the path. Literal segments are tried before parameters
+ * and parameters before wildcards, so {@code /users/me} wins over {@code /users/{id}}.
+ * Lookups walk the path once, without regular expressions. Routes are added while the server is configured;
+ * after {@link #freeze()} the trie is never modified again, so any number of threads can read it without locking.
+ * @param <T> the type of the handlers
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public final class RouteTrie<T> {
+    /**
+     * The name under which the part of the path matched by a wildcard is reported.
+     */
+    public static final String WILDCARD = "*";
+
+    private final Node<T> root = new Node<>();
+    private volatile boolean frozen;
+
+    /**
+     * Registers a handler.
+     * @param method the request method the handler answers
+     * @param pattern the path pattern, e.g. {@code /users/{id}} or {@code /assets/*}
+     * @param handler the handler
+     * @throws IllegalStateException if the trie has been frozen
+     * @throws IllegalArgumentException if the pattern is malformed or names a parameter differently than an existing route
+     */
+    public synchronized void add(String method, String pattern, T handler) {
+        if (frozen) {
+            throw new IllegalStateException("Routes cannot be added once the server has started");
+        }
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route must start with '/': " + pattern);
+        }
+        Node<T> node = root;
+        int start = 1;
+        while (start <= pattern.length()) {
+            int end = pattern.indexOf('/', start);
+            if (end < 0) {
+                end = pattern.length();
+            }
+            String segment = pattern.substring(start, end);
+            if (segment.equals(WILDCARD)) {
+                if (end != pattern.length()) {
+                    throw new IllegalArgumentException("Wildcard must be the last segment: " + pattern);
+                }
+                if (node.wildcard == null) {
+                    node.wildcard = new LinkedHashMap<>();
+                    node.wildcardPattern = pattern;
+                }
+                node.wildcard.put(method, handler);
+                return;
+            }
+            if (segment.startsWith("{") && segment.endsWith("}") && segment.length() > 2) {
+                String name = segment.substring(1, segment.length() - 1);
+                if (node.param == null) {
+                    node.param = new Node<>();
+                    node.paramName = name;
+                } else if (!node.paramName.equals(name)) {
+                    throw new IllegalArgumentException("Parameter {" + name + "} conflicts with {" + node.paramName + "} in " + pattern);
+                }
+                node = node.param;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node<>());
+            }
+            start = end + 1;
+        }
+        if (node.handlers == null) {
+            node.handlers = new LinkedHashMap<>();
+            node.pattern = pattern;
+        }
+        node.handlers.put(method, handler);
+    }
+
+    /**
+     * Makes the trie read-only. Later calls to {@link #add(String, String, Object)} fail.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Finds the route that matches a path.
+     * @param path the request path, without the query string
+     * @return the handlers of the route keyed by method and the parameters taken from the path,
+     *         or null if no route matches
+     */
+    public Match<T> find(String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+        List<String> values = new ArrayList<>(2);
+        Node<T> node = find(root, path, 1, values);
+        if (node == null) {
+            return null;
+        }
+        // the wildcard pair is added last and its name is the WILDCARD constant itself
+        boolean wildcard = !values.isEmpty() && values.get(values.size() - 2) == WILDCARD;
+        Map<String, T> handlers = wildcard ? node.wildcard : node.handlers;
+        String pattern = wildcard ? node.wildcardPattern : node.pattern;
+        if (values.isEmpty()) {
+            return new Match<>(handlers, Collections.emptyMap(), pattern);
+        }
+        Map<String, String> params = new HashMap<>();
+        for (int i = 0; i < values.size(); i += 2) {
+            params.put(values.get(i), decode(values.get(i + 1)));
+        }
+        return new Match<>(handlers, params, pattern);
+    }
+
+    /**
+     * Matches the path from {@code start} against a node, collecting parameter name and value pairs.
+     * Falls back from literal to parameter to wildcard only when the preferred branch finds no route.
+     * @return the node holding the matched handlers; its wildcard handlers when the last pair is the wildcard
+     */
+    private Node<T> find(Node<T> node, String path, int start, List<String> values) {
+        if (start > path.length()) {
+            return node.handlers != null ? node : null;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        if (!node.children.isEmpty()) {
+            Node<T> child = node.children.get(path.substring(start, end));
+            if (child != null) {
+                Node<T> found = find(child, path, end + 1, values);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        if (node.param != null && end > start) {
+            int mark = values.size();
+            values.add(node.paramName);
+            values.add(path.substring(start, end));
+            Node<T> found = find(node.param, path, end + 1, values);
+            if (found != null) {
+                return found;
+            }
+            values.subList(mark, values.size()).clear();
+        }
+        if (node.wildcard != null) {
+            values.add(WILDCARD);
+            values.add(path.substring(start));
+            return node;
+        }
+        return null;
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private Node<T> param;
+        private String paramName;
+        private Map<String, T> handlers;
+        private Map<String, T> wildcard;
+        private String pattern;
+        private String wildcardPattern;
+    }
+
+    /**
+     * The result of a lookup.
+     * @param <T> the type of the handlers
+     */
+    public static final class Match<T> {
+        private final Map<String, T> handlers;
+        private final Map<String, String> params;
+        private final String pattern;
+
+        Match(Map<String, T> handlers, Map<String, String> params, String pattern) {
+            this.handlers = handlers;
+            this.params = params;
+            this.pattern = pattern;
+        }
+
+        /**
+         * Returns the pattern the route was first registered with, e.g. {@code /users/{id}}.
+         * @return the route pattern
+         */
+        public String getPattern() {
+            return pattern;
+        }
+
+        /**
+         * Returns the handlers registered for the matched route.
+         * @return the handlers keyed by request method, in registration order
+         */
+        public Map<String, T> getHandlers() {
+            return Collections.unmodifiableMap(handlers);
+        }
+
+        /**
+         * Returns the parameters taken from the path; the wildcard part is under {@link RouteTrie#WILDCARD}.
+         * @return the percent-decoded parameter values keyed by name
+         */
+        public Map<String, String> getParams() {
+            return params;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of requests handled at the same time.
+ * A request that finds every permit taken may wait in a bounded queue for a limited time;
+ * when the queue is full, or the wait runs out, it is refused so the server can answer it at once.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class AdmissionControl {
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Creates the limiter.
+     * @param maxInFlight the maximum number of requests handled at the same time
+     * @param maxQueued the maximum number of requests waiting for a permit
+     * @param maxWaitMillis how long a queued request waits for a permit
+     */
+    AdmissionControl(int maxInFlight, int maxQueued, long maxWaitMillis) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Takes a permit if one is free, without waiting. Used where blocking is not allowed, like an event loop.
+     * @return true if the request was admitted and must call {@link #exit()} when done
+     */
+    boolean tryEnter() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if every permit is taken and the queue has room.
+     * @return true if the request was admitted and must call {@link #exit()} when done
+     */
+    boolean enter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the permit of an admitted request.
+     */
+    void exit() {
+        permits.release();
+    }
+
+    int getMaxQueued() {
+        return maxQueued;
+    }
+
+    int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,87 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import escuelaing.edu.co.framework.services.interfaces.AsyncHTTPServerHandler;
+import escuelaing.edu.co.framework.services.interfaces.HTTPServerHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Route entry of an asynchronous handler, stored in the route table next to the synchronous ones.
+ * The NIO engine calls {@link #start(HTTPFrameworkRequest)} and writes the response when the future
+ * completes; the blocking engine calls {@link #handleRequest} and waits on its connection thread.
+ * A handler that does not answer within the route timeout gets 504 Gateway Timeout, and one that
+ * fails with {@link RejectedExecutionException}, such as a saturated downstream pool, gets 503 Service Unavailable.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class AsyncRoute implements HTTPServerHandler {
+    private final AsyncHTTPServerHandler handler;
+    private final long timeoutMillis;
+
+    /**
+     * Creates the route entry.
+     * @param handler the asynchronous handler
+     * @param timeoutMillis how long the handler has to complete its response
+     */
+    AsyncRoute(AsyncHTTPServerHandler handler, long timeoutMillis) {
+        this.handler = handler;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Calls the handler.
+     * @param request the request
+     * @return a future completed with the response, or exceptionally when the handler fails or times out
+     */
+    CompletableFuture<HTTPFrameworkResponse> start(HTTPFrameworkRequest request) {
+        try {
+            return handler.handleRequest(request, new HTTPFrameworkResponse())
+                    .toCompletableFuture()
+                    .copy()
+                    .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException | HttpServerErrors e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public HTTPFrameworkResponse handleRequest(HTTPFrameworkRequest request, HTTPFrameworkResponse response) {
+        return join(start(request));
+    }
+
+    /**
+     * Returns the response of a completed handler, mapping its failure to the error the client receives.
+     * @param future the future returned by {@link #start(HTTPFrameworkRequest)}
+     * @return the response
+     * @throws HttpServerErrors 504 on timeout, 503 on rejection, or the error thrown by the handler
+     */
+    static HTTPFrameworkResponse join(CompletableFuture<HTTPFrameworkResponse> future) {
+        try {
+            HTTPFrameworkResponse response = future.join();
+            if (response == null) {
+                throw HttpServerErrors.INTERNAL_SERVER_ERROR_500;
+            }
+            return response;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw HttpServerErrors.GATEWAY_TIMEOUT_504;
+            }
+            if (cause instanceof RejectedExecutionException) {
+                throw HttpServerErrors.SERVICE_UNAVAILABLE_503;
+            }
+            if (cause instanceof HttpServerErrors) {
+                throw (HttpServerErrors) cause;
+            }
+            throw e;
+        }
+    }
+}
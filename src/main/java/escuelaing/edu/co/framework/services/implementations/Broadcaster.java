@@ -0,0 +1,78 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.services.interfaces.StreamConnection;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of stream connections that receive the same messages, e.g. every page watching /health.
+ * A message is encoded once per protocol and the same bytes are queued on every subscriber, so a broadcast
+ * costs one encoding and one queue insertion per connection. Subscribers whose queue is full are dropped
+ * from the group, and closed connections leave it on their own.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public final class Broadcaster {
+    private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds a connection to the group.
+     * @param connection a connection given to an {@code EventStreamHandler} or a {@code WebSocketHandler}
+     * @throws IllegalArgumentException if the connection was not opened by the server
+     */
+    public void add(StreamConnection connection) {
+        if (!(connection instanceof StreamSubscriber)) {
+            throw new IllegalArgumentException("Only connections opened by the server can join a broadcast");
+        }
+        StreamSubscriber subscriber = (StreamSubscriber) connection;
+        subscribers.add(subscriber);
+        if (!subscriber.join(this)) {
+            remove(subscriber);
+        }
+    }
+
+    /**
+     * Removes a connection from the group.
+     * @param connection the connection
+     */
+    public void remove(StreamConnection connection) {
+        if (subscribers.remove(connection)) {
+            ((StreamSubscriber) connection).leave(this);
+        }
+    }
+
+    /**
+     * Returns the number of connections in the group.
+     * @return the number of subscribers
+     */
+    public int size() {
+        return subscribers.size();
+    }
+
+    /**
+     * Sends a message to every connection in the group without waiting for any of them.
+     * @param message the message, sent as an event or as a WebSocket text frame depending on the connection
+     * @return the number of connections the message was queued on
+     */
+    public int publish(String message) {
+        byte[] event = null;
+        byte[] frame = null;
+        int delivered = 0;
+        for (StreamSubscriber subscriber : subscribers) {
+            byte[] encoded;
+            if (subscriber.isWebSocket()) {
+                encoded = frame != null ? frame : (frame = StreamFrames.text(message));
+            } else {
+                encoded = event != null ? event : (event = StreamFrames.event(message));
+            }
+            if (subscriber.offer(encoded)) {
+                delivered++;
+            } else {
+                remove(subscriber);
+            }
+        }
+        return delivered;
+    }
+}
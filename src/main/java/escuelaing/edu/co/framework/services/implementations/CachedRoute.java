@@ -0,0 +1,127 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ResponseCache;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import escuelaing.edu.co.framework.services.interfaces.HTTPServerHandler;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Route entry of a handler whose responses are cached, stored in the route table next to the plain ones.
+ * Responses are keyed on the path, the query parameters sorted by name and the negotiated content coding,
+ * and kept fully encoded, so a hit runs neither the handler nor the response encoding.
+ * Concurrent misses for the same key are coalesced: one request runs the handler and the others wait for its result.
+ * Only 200 OK responses held in memory are cached; anything else is sent as the handler built it.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class CachedRoute implements HTTPServerHandler {
+    private final ResponseEncoder encoder;
+    private final HTTPServerHandler handler;
+    private final ResponseCache cache;
+    private final Map<String, CompletableFuture<ResponseCache.Entry>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the route entry.
+     * @param encoder the response encoder of the server the route belongs to
+     * @param handler the handler whose responses are cached
+     * @param cache the cache of this route
+     */
+    CachedRoute(ResponseEncoder encoder, HTTPServerHandler handler, ResponseCache cache) {
+        this.encoder = encoder;
+        this.handler = handler;
+        this.cache = cache;
+    }
+
+    @Override
+    public HTTPFrameworkResponse handleRequest(HTTPFrameworkRequest request, HTTPFrameworkResponse response) {
+        return handler.handleRequest(request, response);
+    }
+
+    ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Writes the response of a request, from the cache when possible.
+     * @param request the request
+     * @param outData the output that receives the response
+     * @param encoding the content coding accepted by the client, or null for identity
+     * @param keepAlive whether the connection may stay open after the response
+     * @param chunked whether the client accepts chunked transfer coding
+     * @return true if the connection stays open after the response
+     * @throws IOException if an I/O error occurs when writing the response
+     */
+    boolean serve(HTTPFrameworkRequest request, ResponseOutput outData, String encoding, boolean keepAlive, boolean chunked) throws IOException {
+        String key = keyOf(request, encoding);
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            CompletableFuture<ResponseCache.Entry> load = new CompletableFuture<>();
+            CompletableFuture<ResponseCache.Entry> running = loading.putIfAbsent(key, load);
+            if (running != null) {
+                entry = running.exceptionally(error -> null).join();
+            } else {
+                HTTPFrameworkResponse response;
+                try {
+                    response = handler.handleRequest(request, new HTTPFrameworkResponse());
+                    entry = encoder.encodeCacheable(response, encoding);
+                    if (entry != null) {
+                        cache.put(key, entry);
+                    }
+                    load.complete(entry);
+                } catch (RuntimeException | Error e) {
+                    load.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    loading.remove(key, load);
+                }
+                if (entry == null) {
+                    return encoder.send(response, outData, encoding, keepAlive, chunked);
+                }
+            }
+            if (entry == null) {
+                // the coalesced response could not be cached, so this request runs the handler itself
+                HTTPFrameworkResponse response = handler.handleRequest(request, new HTTPFrameworkResponse());
+                return encoder.send(response, outData, encoding, keepAlive, chunked);
+            }
+        }
+        byte[] data = entry.getData();
+        int headerLength = entry.getHeaderLength();
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.append(data, 0, headerLength).end(keepAlive).send(outData, data, headerLength, data.length - headerLength);
+        }
+        outData.flush();
+        return keepAlive;
+    }
+
+    /**
+     * Builds the cache key of a request, independent of the order of its query parameters.
+     */
+    static String keyOf(HTTPFrameworkRequest request, String encoding) {
+        StringBuilder key = new StringBuilder(request.getUrl());
+        Map<String, List<String>> params = request.getQueryParams();
+        if (!params.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, List<String>> param : new TreeMap<>(params).entrySet()) {
+                String name = URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8);
+                for (String value : param.getValue()) {
+                    key.append(separator).append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                    separator = '&';
+                }
+            }
+        }
+        if (encoding != null) {
+            key.append(' ').append(encoding);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a streamed response body with chunked transfer coding.
+ * Bytes are gathered into chunks of up to the buffer size; {@link #flush()} sends the current chunk
+ * so the client sees data as soon as the handler produces it. {@link #close()} sends the last chunk
+ * but leaves the connection open for the next request.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class ChunkedOutputStream extends OutputStream {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    /**
+     * Creates the stream.
+     * @param out the connection output, which is not closed by this stream
+     * @param chunkSize the largest chunk gathered before it is written
+     */
+    ChunkedOutputStream(OutputStream out, int chunkSize) {
+        this.out = out;
+        this.buffer = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            writeChunk(buffer, 0, count);
+            count = 0;
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len >= buffer.length - count) {
+            if (count > 0) {
+                writeChunk(buffer, 0, count);
+                count = 0;
+            }
+            if (len >= buffer.length) {
+                writeChunk(b, off, len);
+                return;
+            }
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (count > 0) {
+            writeChunk(buffer, 0, count);
+            count = 0;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (count > 0) {
+            writeChunk(buffer, 0, count);
+            count = 0;
+        }
+        out.write(LAST_CHUNK);
+        closed = true;
+    }
+
+    private void writeChunk(byte[] b, int off, int len) throws IOException {
+        out.write(Integer.toHexString(len).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        out.write(b, off, len);
+        out.write(CRLF);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Response body already finished");
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ETagCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Logger;
+
+/**
+ * Builds the static manifest of the resources under a classpath folder, so a packaged JAR serves its
+ * webroot wherever it runs. Every resource is indexed once when the manifest is built. Files up to the
+ * preload limit are copied into one contiguous array, each entry keeping its offset, so a request for them
+ * touches neither the JAR nor the disk. Larger JAR entries are streamed from the JAR file, which stays open
+ * with the manifest, and larger files of a classpath directory are sent from disk like any static file.
+ * Entity tags hash the content of resources up to the preload limit and use the size and last-modified time
+ * of larger ones, so indexing does not read large resources.
+ * JAR files must list the folder as a directory entry, as the Maven JAR plugin does.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class ClasspathStaticFiles {
+    private static final Logger logger = Logger.getLogger(ClasspathStaticFiles.class.getName());
+    private static final int MAX_BUNDLE_BYTES = Integer.MAX_VALUE - 8;
+
+    private ClasspathStaticFiles() {
+    }
+
+    /**
+     * Indexes the resources under a classpath folder. When several classpath entries have the folder,
+     * the first one that has a file wins. Resources that cannot be read are left out.
+     * @param loader the class loader whose classpath is searched
+     * @param folder the folder, e.g. "/webroot"
+     * @param preloadLimit the size up to which a file is kept in memory and its entity tag hashes its content
+     * @return the manifest of the resources, empty if the folder is not on the classpath
+     */
+    static StaticManifest index(ClassLoader loader, String folder, long preloadLimit) {
+        String name = normalize(folder);
+        Map<String, Resource> resources = new LinkedHashMap<>();
+        List<JarFile> jars = new ArrayList<>();
+        try {
+            Enumeration<URL> locations = loader.getResources(name);
+            while (locations.hasMoreElements()) {
+                URL location = locations.nextElement();
+                try {
+                    if (location.getProtocol().equals("file")) {
+                        indexDirectory(Paths.get(location.toURI()), resources);
+                    } else if (location.getProtocol().equals("jar")) {
+                        indexJar(location, name, resources, jars);
+                    } else {
+                        logger.warning("Skipping static files at " + location + ": unsupported location");
+                    }
+                } catch (IOException | URISyntaxException e) {
+                    logger.warning("Could not index static files at " + location + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Could not find the static files of " + folder + ": " + e.getMessage());
+        }
+        return load(resources, preloadLimit, () -> closeAll(jars));
+    }
+
+    /**
+     * Turns a folder like "/webroot/" into a resource name like "webroot".
+     */
+    static String normalize(String folder) {
+        int start = 0;
+        int end = folder.length();
+        while (start < end && folder.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && folder.charAt(end - 1) == '/') {
+            end--;
+        }
+        String name = folder.substring(start, end);
+        if (name.isEmpty() || StaticManifest.isTraversal(name)) {
+            throw new IllegalArgumentException("Static files must come from a classpath folder: " + folder);
+        }
+        return name;
+    }
+
+    private static void indexDirectory(Path directory, Map<String, Resource> into) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    String key = "/" + directory.relativize(file).toString().replace(File.separatorChar, '/');
+                    into.putIfAbsent(key, new Resource(file, null, null, attributes.size(),
+                            attributes.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.fine("Skipping unreadable static file: " + file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void indexJar(URL location, String name, Map<String, Resource> into, List<JarFile> jars)
+            throws IOException, URISyntaxException {
+        URL jarLocation = ((JarURLConnection) location.openConnection()).getJarFileURL();
+        if (!jarLocation.getProtocol().equals("file")) {
+            logger.warning("Skipping static files at " + location + ": the JAR is not a file");
+            return;
+        }
+        File file = new File(jarLocation.toURI());
+        JarFile jar = new JarFile(file);
+        String prefix = name + "/";
+        boolean used = false;
+        for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+            JarEntry entry = entries.nextElement();
+            String entryName = entry.getName();
+            if (entry.isDirectory() || !entryName.startsWith(prefix) || entry.getSize() < 0) {
+                continue;
+            }
+            String key = entryName.substring(name.length());
+            if (StaticManifest.isTraversal(key) || into.containsKey(key)) {
+                continue;
+            }
+            long lastModified = entry.getTime() >= 0 ? entry.getTime() : file.lastModified();
+            into.put(key, new Resource(null, jar, entry, entry.getSize(), lastModified));
+            used = true;
+        }
+        if (used) {
+            jars.add(jar);
+        } else {
+            jar.close();
+        }
+    }
+
+    /**
+     * Preloads the small resources into one array and builds the entries.
+     */
+    private static StaticManifest load(Map<String, Resource> resources, long preloadLimit, Closeable jars) {
+        long bundleSize = 0;
+        for (Resource resource : resources.values()) {
+            if (resource.size <= preloadLimit && bundleSize + resource.size <= MAX_BUNDLE_BYTES) {
+                resource.preload = true;
+                bundleSize += resource.size;
+            }
+        }
+        byte[] bundle = new byte[(int) bundleSize];
+        int offset = 0;
+        Map<String, StaticManifest.Entry> entries = new HashMap<>();
+        for (Map.Entry<String, Resource> indexed : resources.entrySet()) {
+            String key = indexed.getKey();
+            Resource resource = indexed.getValue();
+            String contentType = MimeTypes.forName(key.substring(key.lastIndexOf('/') + 1));
+            try {
+                if (resource.preload) {
+                    int length = (int) resource.size;
+                    try (InputStream in = resource.open()) {
+                        if (in.readNBytes(bundle, offset, length) != length || in.read() >= 0) {
+                            throw new IOException("size changed while reading");
+                        }
+                    }
+                    String etag = ETagCache.of(new ByteArrayInputStream(bundle, offset, length));
+                    entries.put(key, new StaticManifest.Entry(bundle, offset, length, resource.lastModified, contentType, etag));
+                    offset += length;
+                } else {
+                    String etag;
+                    if (resource.size > preloadLimit) {
+                        etag = ETagCache.ofVersion(resource.lastModified, resource.size);
+                    } else {
+                        try (InputStream in = resource.open()) {
+                            etag = ETagCache.of(in);
+                        }
+                    }
+                    entries.put(key, resource.file != null
+                            ? new StaticManifest.Entry(resource.file, resource.size, resource.lastModified, contentType, etag)
+                            : new StaticManifest.Entry(resource::open, resource.size, resource.lastModified, contentType, etag));
+                }
+            } catch (IOException e) {
+                logger.fine("Skipping unreadable static file " + key + ": " + e.getMessage());
+            }
+        }
+        logger.fine("Indexed " + entries.size() + " static resources, " + offset + " bytes preloaded");
+        return StaticManifest.of(entries, jars);
+    }
+
+    private static void closeAll(List<JarFile> jars) throws IOException {
+        IOException failure = null;
+        for (JarFile jar : jars) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * A resource found on the classpath: a file of a classpath directory or an entry of a JAR.
+     */
+    private static final class Resource {
+        private final Path file;
+        private final JarFile jar;
+        private final JarEntry entry;
+        private final long size;
+        private final long lastModified;
+        private boolean preload;
+
+        Resource(Path file, JarFile jar, JarEntry entry, long size, long lastModified) {
+            this.file = file;
+            this.jar = jar;
+            this.entry = entry;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        InputStream open() throws IOException {
+            return file != null ? Files.newInputStream(file) : jar.getInputStream(entry);
+        }
+    }
+}
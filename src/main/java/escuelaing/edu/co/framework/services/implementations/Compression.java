@@ -0,0 +1,95 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-coding negotiation and compression with the JDK's {@code java.util.zip}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class Compression {
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private Compression() {
+    }
+
+    /**
+     * Picks the content coding for a response from the Accept-Encoding header.
+     * gzip is preferred over deflate; codings with q=0 are refused. The * wildcard only stands for the
+     * codings the header does not name, so "*, gzip;q=0" refuses gzip.
+     * @param acceptEncoding the value of the Accept-Encoding header, or null if absent
+     * @return {@link #GZIP}, {@link #DEFLATE} or null for the identity coding
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        Boolean gzip = null;
+        Boolean deflate = null;
+        boolean any = false;
+        for (String part : acceptEncoding.split(",")) {
+            int semicolon = part.indexOf(';');
+            String coding = (semicolon < 0 ? part : part.substring(0, semicolon)).trim().toLowerCase();
+            boolean accepted = semicolon < 0 || !isZeroQuality(part.substring(semicolon + 1));
+            if (coding.equals(GZIP)) {
+                gzip = accepted || Boolean.TRUE.equals(gzip);
+            } else if (coding.equals(DEFLATE)) {
+                deflate = accepted || Boolean.TRUE.equals(deflate);
+            } else if (coding.equals("*")) {
+                any |= accepted;
+            }
+        }
+        if (gzip != null ? gzip : any) {
+            return GZIP;
+        }
+        return (deflate != null ? deflate : any) ? DEFLATE : null;
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        String value = parameters.trim().toLowerCase();
+        if (!value.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(value.substring(2).trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells whether compressing a content type is worth it.
+     * Images other than SVG, archives and media are already compressed.
+     * @param contentType the content type of the response
+     * @return true for text-based types
+     */
+    static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.startsWith("application/javascript")
+                || contentType.startsWith("application/json")
+                || contentType.startsWith("application/xml")
+                || contentType.startsWith("image/svg+xml");
+    }
+
+    /**
+     * Compresses a body with the given coding.
+     * @param data the uncompressed body
+     * @param coding {@link #GZIP} or {@link #DEFLATE}
+     * @return the compressed body
+     */
+    static byte[] compress(byte[] data, String coding) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        try (OutputStream out = coding.equals(GZIP) ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory compression failed", e);
+        }
+        return compressed.toByteArray();
+    }
+}
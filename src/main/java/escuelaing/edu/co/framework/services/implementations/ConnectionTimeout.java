@@ -0,0 +1,270 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Timeouts of one connection, checked by the shared {@link TimerWheel}.
+ * The connection reports what it is waiting for (the next request, the rest of a request head,
+ * the request body, or the client reading the response) and the bytes it moves; the wheel compares
+ * that against the configured limits:
+ * <ul>
+ *     <li>idle: a kept-alive connection waits too long for the next request; it is closed quietly.</li>
+ *     <li>header: a request head, or the first request of a new connection, takes too long in total.</li>
+ *     <li>body: no body bytes arrive for too long, or they arrive below the minimum data rate.</li>
+ *     <li>write: the client stops reading the response, or reads it below the minimum data rate.</li>
+ * </ul>
+ * Time spent in the handler is not counted, and the data rate is only enforced after a grace period.
+ * The connection state is written by the thread serving the connection and read by the wheel thread,
+ * so each field is a volatile and a check may see a transition one tick late.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class ConnectionTimeout extends TimerWheel.Timeout {
+    static final int IDLE = 0;
+    static final int HEAD = 1;
+    static final int BODY = 2;
+    static final int WRITE = 3;
+    static final int BUSY = 4;
+    static final int CLOSED = 5;
+
+    private final Limits limits;
+    private final Expiry expiry;
+    private volatile int phase = HEAD;
+    private volatile long since;
+    private volatile long lastProgress;
+    private volatile long readBytes;
+    private volatile long readMillis;
+    private volatile long writtenBytes;
+    private volatile long writeMillis;
+    private volatile int expired = -1;
+
+    /**
+     * Creates the timeout of a new connection, which waits for its first request head.
+     * @param limits the configured limits
+     * @param expiry what to do with the connection when a limit is exceeded
+     */
+    ConnectionTimeout(Limits limits, Expiry expiry) {
+        this.limits = limits;
+        this.expiry = expiry;
+        long now = System.currentTimeMillis();
+        since = now;
+        lastProgress = now;
+    }
+
+    /**
+     * Starts waiting for the next request on a kept-alive connection.
+     * @param headStarted true if bytes of the next request were already received
+     */
+    void awaitRequest(boolean headStarted) {
+        if (phase == IDLE && !headStarted) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        since = now;
+        lastProgress = now;
+        readBytes = 0;
+        readMillis = 0;
+        writtenBytes = 0;
+        writeMillis = 0;
+        phase = headStarted ? HEAD : IDLE;
+    }
+
+    /**
+     * Notes that bytes of a request head arrived; the header timeout starts with the first one.
+     * Also moves a connection that was writing a response to waiting for the pipelined request behind it.
+     */
+    void headReceived() {
+        int current = phase;
+        if (current != HEAD && current != CLOSED) {
+            since = System.currentTimeMillis();
+            phase = HEAD;
+        }
+    }
+
+    /**
+     * Starts waiting for the request body, or for the client to take the response.
+     * Nothing happens if the connection is already waiting for it.
+     * @param waitingFor {@link #BODY} or {@link #WRITE}
+     */
+    void await(int waitingFor) {
+        int current = phase;
+        if (current != waitingFor && current != CLOSED) {
+            long now = System.currentTimeMillis();
+            since = now;
+            lastProgress = now;
+            phase = waitingFor;
+        }
+    }
+
+    /**
+     * Counts the body bytes received or the response bytes written while waiting for them.
+     * @param bytes the number of bytes moved
+     */
+    void progress(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        lastProgress = System.currentTimeMillis();
+        if (phase == BODY) {
+            readBytes += bytes;
+        } else if (phase == WRITE) {
+            writtenBytes += bytes;
+        }
+    }
+
+    /**
+     * Stops the clock while the connection is not waiting on the client, e.g. while the handler runs.
+     */
+    void pause() {
+        int current = phase;
+        if (current == BODY || current == WRITE) {
+            long active = System.currentTimeMillis() - since;
+            if (current == BODY) {
+                readMillis += active;
+            } else {
+                writeMillis += active;
+            }
+        }
+        if (current != CLOSED) {
+            phase = BUSY;
+        }
+    }
+
+    /**
+     * Wraps the socket input of a blocking connection so that every read of a request body
+     * is timed and counted. A read cut short by a body timeout throws 408 Request Timeout.
+     * @param in the socket input stream
+     * @return the input stream for request bodies
+     */
+    InputStream bodyInput(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                await(BODY);
+                int read;
+                try {
+                    read = super.read(b, off, len);
+                    progress(read);
+                } finally {
+                    pause();
+                }
+                if (read < 0 && isRequestTimeout()) {
+                    throw HttpServerErrors.REQUEST_TIMEOUT_408;
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Stops checking the connection, once it is closed.
+     */
+    void close() {
+        phase = CLOSED;
+        cancel();
+    }
+
+    /**
+     * Tells whether the connection was timed out while receiving a request, so 408 Request Timeout is due.
+     * @return true if the header or body timeout expired
+     */
+    boolean isRequestTimeout() {
+        int timedOut = expired;
+        return timedOut == HEAD || timedOut == BODY;
+    }
+
+    /**
+     * Returns the phase in which the connection was timed out.
+     * @return the expired phase, or -1 if the connection did not time out
+     */
+    int getExpired() {
+        return expired;
+    }
+
+    @Override
+    long firstCheck(long now) {
+        return Math.min(since + limits.headerMillis, now + limits.checkIntervalMillis);
+    }
+
+    @Override
+    long check(long now) {
+        int current = phase;
+        long deadline;
+        switch (current) {
+            case IDLE:
+                deadline = since + limits.idleMillis;
+                break;
+            case HEAD:
+                deadline = since + limits.headerMillis;
+                break;
+            case BODY:
+                deadline = lastProgress + limits.bodyMillis;
+                if (tooSlow(readBytes, readMillis + now - since)) {
+                    deadline = now;
+                }
+                break;
+            case WRITE:
+                deadline = lastProgress + limits.writeMillis;
+                if (tooSlow(writtenBytes, writeMillis + now - since)) {
+                    deadline = now;
+                }
+                break;
+            case CLOSED:
+                return 0;
+            default:
+                return now + limits.checkIntervalMillis;
+        }
+        if (now >= deadline && phase == current) {
+            expired = current;
+            phase = CLOSED;
+            expiry.expired(current);
+            return 0;
+        }
+        return Math.min(deadline, now + limits.checkIntervalMillis);
+    }
+
+    private boolean tooSlow(long bytes, long millis) {
+        return limits.minBytesPerSecond > 0 && millis >= limits.graceMillis
+                && bytes * 1000 < limits.minBytesPerSecond * millis;
+    }
+
+    /**
+     * Closes a connection that exceeded a limit. Called on the wheel thread, so it must not block.
+     */
+    @FunctionalInterface
+    interface Expiry {
+        /**
+         * @param phase the phase that timed out: {@link #IDLE}, {@link #HEAD}, {@link #BODY} or {@link #WRITE}
+         */
+        void expired(int phase);
+    }
+
+    /**
+     * The configured limits, in milliseconds and bytes per second.
+     */
+    static final class Limits {
+        final long headerMillis;
+        final long bodyMillis;
+        final long idleMillis;
+        final long writeMillis;
+        final long minBytesPerSecond;
+        final long graceMillis;
+        final long checkIntervalMillis;
+
+        Limits(long headerMillis, long bodyMillis, long idleMillis, long writeMillis, long minBytesPerSecond, long graceMillis) {
+            this.headerMillis = headerMillis;
+            this.bodyMillis = bodyMillis;
+            this.idleMillis = idleMillis;
+            this.writeMillis = writeMillis;
+            this.minBytesPerSecond = minBytesPerSecond;
+            this.graceMillis = graceMillis;
+            long shortest = Math.min(Math.min(headerMillis, bodyMillis), Math.min(idleMillis, writeMillis));
+            this.checkIntervalMillis = Math.max(10, Math.min(1000, shortest / 4));
+        }
+    }
+}
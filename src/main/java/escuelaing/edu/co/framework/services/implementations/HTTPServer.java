@@ -0,0 +1,1605 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ResponseCache;
+import escuelaing.edu.co.framework.cache.StaticFileCache;
+import escuelaing.edu.co.framework.config.ExecutionMode;
+import escuelaing.edu.co.framework.config.LogOverflowPolicy;
+import escuelaing.edu.co.framework.config.ServerEngine;
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.logging.AccessLog;
+import escuelaing.edu.co.framework.metrics.ServerMetrics;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import escuelaing.edu.co.framework.routing.RouteTrie;
+import escuelaing.edu.co.framework.services.interfaces.AsyncHTTPServerHandler;
+import escuelaing.edu.co.framework.services.interfaces.EventStreamHandler;
+import escuelaing.edu.co.framework.services.interfaces.HTTPServerHandler;
+import escuelaing.edu.co.framework.services.interfaces.HTTPServerService;
+import escuelaing.edu.co.framework.services.interfaces.WebSocketHandler;
+
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An HTTP server with its own routes, static files, configuration and listeners, so several servers can run
+ * in the same JVM. It is configured through its methods and then started with {@link #start(int)} or
+ * {@link #start()}, which bind every listener and serve connections until {@link #stop()} is called.
+ * Each listener is served by one or more acceptor threads; with several acceptors each one gets its own
+ * socket bound with SO_REUSEPORT, so the kernel spreads new connections across them.
+ * Static files are answered by {@link StaticFiles} and the responses of route handlers are encoded by
+ * {@link ResponseEncoder}. {@link HTTPServerImpl} keeps the static API over a default instance.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+public class HTTPServer implements HTTPServerService {
+    private static final String RESOURCES_ROOT = "src/main/resources";
+    private static final Logger logger = Logger.getLogger(HTTPServer.class.getName());
+    private final RouteTrie<HTTPServerHandler> routes = new RouteTrie<>();
+    private volatile Path staticRoot = Paths.get(RESOURCES_ROOT);
+    private volatile String classpathRoot;
+    private volatile ClassLoader classpathLoader;
+    private volatile boolean running = false;
+    private final Set<InetSocketAddress> listeners = new LinkedHashSet<>();
+    private int acceptors = 1;
+    private volatile List<ServerSocketChannel> serverSockets = Collections.emptyList();
+    private volatile List<InetSocketAddress> localAddresses = Collections.emptyList();
+    private ExecutionMode executionMode = ExecutionMode.VIRTUAL_THREADS;
+    private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private long shutdownTimeoutMillis = 5000;
+    private volatile ExecutorService workers;
+    private int eventLoops = Runtime.getRuntime().availableProcessors();
+    private static final byte[] METHOD_NOT_ALLOWED_BODY = HttpServerErrors.METHOD_NOT_ALLOWED_405.getMessage().getBytes(StandardCharsets.US_ASCII);
+    private static final String STATIC_METHODS = "GET, HEAD, OPTIONS";
+    private final StaticFiles files = new StaticFiles(this);
+    private final ResponseEncoder encoder = new ResponseEncoder();
+    private volatile StaticManifest manifest;
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private int maxHeaderBytes = 8 * 1024;
+    private int maxHeaderCount = 100;
+    private long maxBodyBytes = 1024 * 1024;
+    private int maxRequestsPerConnection = 100;
+    private volatile ServerMetrics metrics;
+    private volatile AccessLog accessLog;
+    private static final String STATIC_ROUTE = "static";
+    private long asyncTimeoutMillis = 30_000;
+    private static final String REJECTED_ROUTE = "rejected";
+    private int backlog = 0;
+    private volatile AdmissionControl admission;
+    private volatile RateLimiter rateLimiter;
+    private int retryAfterSeconds = 1;
+    private volatile byte[] overloadedResponse;
+    private volatile byte[] rateLimitedResponse;
+    private long idleTimeoutMillis = 5000;
+    private long headerTimeoutMillis = 10_000;
+    private long bodyTimeoutMillis = 30_000;
+    private long writeTimeoutMillis = 30_000;
+    private long minBytesPerSecond = 240;
+    private long minRateGraceMillis = 5000;
+    private volatile ConnectionTimeout.Limits timeoutLimits;
+    private volatile TimerWheel timers;
+    private int streamQueueLimit = 256;
+    private int maxStreamMessageBytes = 64 * 1024;
+    private StreamLoop[] streamLoops;
+    private int nextStreamLoop;
+
+    /**
+     * Creates a server without routes, serving the static files under src/main/resources.
+     */
+    public HTTPServer() {
+    }
+
+    /**
+     * Registers a GET route with the specified URL and callback handler.
+     * @param url the URL path for the GET request; segments like {id} capture path parameters and a trailing /* matches any suffix
+     * @param callback the handler to process the GET request
+     */
+    @Override
+    public void get(String url, HTTPServerHandler callback) {
+        route("GET", url, callback);
+    }
+
+    /**
+     * Serves the static files of a folder under src/main/resources, or of the same folder on the classpath
+     * when the server does not run from a source checkout, e.g. from the packaged JAR.
+     * @param path the folder relative to src/main/resources, e.g. "/webroot"
+     */
+    @Override
+    public void staticFiles(String path) {
+        staticFiles(Paths.get(RESOURCES_ROOT + path), path);
+    }
+
+    /**
+     * Serves a directory if it exists, otherwise a classpath folder. Nothing is created.
+     * @param directory the static root in a source checkout
+     * @param classpathFolder the folder the build copies it to on the classpath
+     */
+    void staticFiles(Path directory, String classpathFolder) {
+        if (Files.isDirectory(directory)) {
+            staticRoot(directory);
+        } else {
+            logger.fine(directory + " does not exist, serving static files from the classpath");
+            classpathFiles(classpathFolder);
+        }
+    }
+
+    /**
+     * Serves the resources under a classpath folder, e.g. the webroot packaged in the application JAR.
+     * The folder is indexed when the server starts: files up to the zero-copy threshold are preloaded into
+     * memory and larger ones are read from the classpath when requested. Changes are not picked up.
+     * @param folder the classpath folder, e.g. "/webroot"
+     */
+    public void classpathFiles(String folder) {
+        classpathFiles(HTTPServer.class.getClassLoader(), folder);
+    }
+
+    /**
+     * Serves the resources under a folder of the given class loader.
+     * @param loader the class loader whose classpath holds the folder
+     * @param folder the classpath folder, e.g. "/webroot"
+     */
+    void classpathFiles(ClassLoader loader, String folder) {
+        classpathRoot = "/" + ClasspathStaticFiles.normalize(folder);
+        classpathLoader = loader;
+        closeManifest();
+    }
+
+    /**
+     * Serves the static files of any folder. Nothing is created: a folder that does not exist serves no files.
+     * @param directory the static root
+     */
+    public void staticRoot(Path directory) {
+        staticRoot = directory;
+        classpathRoot = null;
+        closeManifest();
+    }
+
+    /**
+     * Adds an address the server listens on. The server listens on every address added before it starts.
+     * @param port the port, on every local address; 0 picks a free port
+     */
+    public void listen(int port) {
+        listen(new InetSocketAddress(port));
+    }
+
+    /**
+     * Adds an address the server listens on.
+     * @param host the local host name or address
+     * @param port the port, 0 picks a free port
+     */
+    public void listen(String host, int port) {
+        listen(new InetSocketAddress(host, port));
+    }
+
+    /**
+     * Adds an address the server listens on.
+     * @param address the local address
+     */
+    public void listen(InetSocketAddress address) {
+        if (address.isUnresolved()) {
+            throw new IllegalArgumentException("Unresolved listen address: " + address);
+        }
+        synchronized (listeners) {
+            listeners.add(address);
+        }
+    }
+
+    /**
+     * Sets the number of threads accepting connections on each listener. With more than one, each acceptor
+     * binds its own socket with SO_REUSEPORT and the kernel balances new connections between them; where
+     * SO_REUSEPORT is not supported the acceptors share a single socket.
+     * @param count the number of acceptor threads per listener
+     */
+    public void acceptors(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Acceptor count must be positive: " + count);
+        }
+        acceptors = count;
+    }
+
+    /**
+     * Returns the addresses the server is bound to, which tells the actual port of a listener added with port 0.
+     * @return the bound addresses, empty while the server is not running
+     */
+    public List<InetSocketAddress> getLocalAddresses() {
+        return localAddresses;
+    }
+
+    /**
+     * Selects how accepted connections are handled.
+     * @param mode the execution mode
+     * @param size the number of threads for {@link ExecutionMode#BOUNDED_POOL}, also used by
+     *             {@link ExecutionMode#VIRTUAL_THREADS} on runtimes without virtual threads
+     */
+    public void executionMode(ExecutionMode mode, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        executionMode = mode;
+        poolSize = size;
+    }
+
+    /**
+     * Sets how long {@link #stop()} waits for in-flight requests to finish.
+     * @param millis the drain timeout in milliseconds
+     */
+    public void shutdownTimeout(long millis) {
+        shutdownTimeoutMillis = millis;
+    }
+
+    /**
+     * Sets the number of selector threads used by the {@link ServerEngine#NIO} engine.
+     * @param count the number of event loops
+     */
+    public void eventLoops(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Event loop count must be positive: " + count);
+        }
+        eventLoops = count;
+    }
+
+    /**
+     * Configures persistent connections.
+     * @param maxRequests the maximum number of requests served on one connection, 1 disables keep-alive
+     * @param idleMillis how long an idle connection is kept open waiting for the next request
+     */
+    public void keepAlive(int maxRequests, long idleMillis) {
+        if (maxRequests <= 0 || idleMillis <= 0) {
+            throw new IllegalArgumentException("Keep-alive limits must be positive");
+        }
+        maxRequestsPerConnection = maxRequests;
+        idleTimeoutMillis = idleMillis;
+    }
+
+    /**
+     * Configures how long the server waits on a client. A connection that exceeds a limit while
+     * sending a request is answered with 408 Request Timeout and closed; one that stops reading its
+     * response is closed. The limits are checked by a timer wheel shared by all connections.
+     * @param headerMillis how long a request head may take, from its first byte or, for the first request, from the accept
+     * @param bodyMillis how long the server waits for more bytes of a request body
+     * @param writeMillis how long the server waits for a client to take more of its response
+     */
+    public void timeouts(long headerMillis, long bodyMillis, long writeMillis) {
+        if (headerMillis <= 0 || bodyMillis <= 0 || writeMillis <= 0) {
+            throw new IllegalArgumentException("Timeouts must be positive");
+        }
+        headerTimeoutMillis = headerMillis;
+        bodyTimeoutMillis = bodyMillis;
+        writeTimeoutMillis = writeMillis;
+    }
+
+    /**
+     * Configures the minimum rate at which clients must send request bodies and read responses.
+     * Only the time spent waiting on the client counts, and the rate is enforced once a transfer
+     * has run for the grace period, so short bursts and slow handlers are not penalized.
+     * @param bytesPerSecond the minimum data rate, 0 to disable the check
+     * @param graceMillis how long a transfer may run before its rate is checked
+     */
+    public void minDataRate(long bytesPerSecond, long graceMillis) {
+        if (bytesPerSecond < 0 || graceMillis < 0) {
+            throw new IllegalArgumentException("Data rate limits must not be negative");
+        }
+        minBytesPerSecond = bytesPerSecond;
+        minRateGraceMillis = graceMillis;
+    }
+
+    /**
+     * Configures the default timeout of asynchronous handlers registered afterwards.
+     * @param timeoutMillis how long a handler has to complete its response before 504 Gateway Timeout is sent
+     */
+    public void asyncTimeout(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Async timeout must be positive: " + timeoutMillis);
+        }
+        asyncTimeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Configures the limits enforced while parsing requests.
+     * @param headerBytes the maximum size of the request line and headers together
+     * @param headerCount the maximum number of header fields
+     * @param bodyBytes the maximum size of a request body
+     */
+    public void requestLimits(int headerBytes, int headerCount, long bodyBytes) {
+        if (headerBytes <= 0 || headerCount <= 0 || bodyBytes < 0 || bodyBytes > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid request limits");
+        }
+        maxHeaderBytes = headerBytes;
+        maxHeaderCount = headerCount;
+        maxBodyBytes = bodyBytes;
+    }
+
+    /**
+     * Replaces the static file cache with one of the given limits.
+     * @param maxTotalBytes the maximum number of bytes held by the cache, 0 disables caching
+     * @param maxEntryBytes the largest response that is cached
+     */
+    public void staticFileCache(long maxTotalBytes, long maxEntryBytes) {
+        files.setCache(new StaticFileCache(maxTotalBytes, maxEntryBytes));
+    }
+
+    /**
+     * Sets the size above which static files are transferred straight from disk instead of
+     * being read into memory and cached. Such files also get an entity tag built from their size and
+     * last-modified time instead of a hash of their content. It applies to the manifest built when the server starts.
+     * @param bytes the threshold in bytes
+     */
+    public void zeroCopyThreshold(long bytes) {
+        files.setZeroCopyThreshold(bytes);
+    }
+
+    /**
+     * Sets the body size from which dynamic responses are compressed for clients that accept it.
+     * Static text files are always compressed once and served from the cache.
+     * @param bytes the threshold in bytes
+     */
+    public void compressionThreshold(int bytes) {
+        encoder.setCompressionThreshold(bytes);
+    }
+
+    /**
+     * Sets the Cache-Control max-age sent with static files under a path prefix.
+     * When several prefixes match a file, the longest one wins.
+     * @param pathPrefix the path prefix relative to the static files folder, e.g. "/images"
+     * @param maxAgeSeconds how long clients may reuse the file without revalidating it
+     */
+    public void cacheControl(String pathPrefix, int maxAgeSeconds) {
+        files.cacheControl(pathPrefix, maxAgeSeconds);
+    }
+
+    /**
+     * Returns the static file cache, which exposes its hit, miss and eviction counters.
+     * @return the static file cache
+     */
+    public StaticFileCache getStaticFileCache() {
+        return files.getCache();
+    }
+
+    /**
+     * Enables request and connection metrics and publishes them at the given path in the Prometheus
+     * text format, together with the static file cache counters. Metrics are off until this is called.
+     * The endpoint is a route, so like any route it must be registered before the server starts.
+     * @param path the URL path of the metrics endpoint, e.g. "/metrics"
+     * @throws IllegalStateException if the server has already started
+     */
+    public void metrics(String path) {
+        ServerMetrics recorder = new ServerMetrics();
+        HTTPServerHandler endpoint = (request, response) -> {
+            StringBuilder text = new StringBuilder(4096);
+            recorder.writePrometheus(text);
+            StaticFileCache cache = files.getCache();
+            text.append("# TYPE static_cache_hits_total counter\n")
+                    .append("static_cache_hits_total ").append(cache.getHits()).append('\n')
+                    .append("# TYPE static_cache_misses_total counter\n")
+                    .append("static_cache_misses_total ").append(cache.getMisses()).append('\n')
+                    .append("# TYPE static_cache_evictions_total counter\n")
+                    .append("static_cache_evictions_total ").append(cache.getEvictions()).append('\n')
+                    .append("# TYPE static_cache_entries gauge\n")
+                    .append("static_cache_entries ").append(cache.size()).append('\n')
+                    .append("# TYPE static_cache_bytes gauge\n")
+                    .append("static_cache_bytes ").append(cache.getTotalBytes()).append('\n');
+            AccessLog log = accessLog;
+            if (log != null) {
+                text.append("# TYPE access_log_written_total counter\n")
+                        .append("access_log_written_total ").append(log.getWritten()).append('\n')
+                        .append("# TYPE access_log_dropped_total counter\n")
+                        .append("access_log_dropped_total ").append(log.getDropped()).append('\n');
+            }
+            response.setHeader("Content-Type", "text/plain; version=0.0.4; charset=UTF-8");
+            response.setBody(text.toString());
+            return response;
+        };
+        try {
+            get(path, endpoint);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("metrics(\"" + path + "\") must be called before the server starts", e);
+        }
+        metrics = recorder;
+    }
+
+    /**
+     * Returns the metrics enabled with {@link #metrics(String)}.
+     * @return the metrics, or null if they are disabled
+     */
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Writes one line per request to the given file, off the request path. The buffer holds 8192 records
+     * and drops new ones when full, and the file is rotated at 10 MB keeping 5 old files.
+     * @param file the path of the log file
+     */
+    public void accessLog(String file) {
+        accessLog(file, 8192, 10L * 1024 * 1024, 5, LogOverflowPolicy.DROP);
+    }
+
+    /**
+     * Writes one line per request to the given file, off the request path.
+     * The log is flushed and closed once the server has stopped and its in-flight requests are done.
+     * @param file the path of the log file
+     * @param capacity the number of records buffered before the overflow policy applies
+     * @param maxFileBytes the size at which the file is rotated
+     * @param maxFiles the number of rotated files kept
+     * @param policy whether a record is dropped or the request waits when the buffer is full; the
+     *               {@link ServerEngine#NIO} event loops never wait and drop the records they answer themselves
+     */
+    public void accessLog(String file, int capacity, long maxFileBytes, int maxFiles, LogOverflowPolicy policy) {
+        AccessLog log;
+        try {
+            log = new AccessLog(Paths.get(file), capacity, maxFileBytes, maxFiles, policy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the access log: " + file, e);
+        }
+        AccessLog previous = accessLog;
+        accessLog = log;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Returns the access log enabled with {@link #accessLog(String)}.
+     * @return the access log, or null if it is disabled
+     */
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    /**
+     * Sets the length of the queue of connections the operating system accepts before the server takes them.
+     * @param size the backlog, 0 for the system default
+     */
+    public void backlog(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Backlog must not be negative: " + size);
+        }
+        backlog = size;
+    }
+
+    /**
+     * Limits the number of requests handled at the same time. When every slot is taken a request
+     * waits in a bounded queue; once the queue is full or the wait runs out it is answered at once with
+     * 503 Service Unavailable and Retry-After, and its connection is closed. The {@link ServerEngine#NIO}
+     * event loops never wait, so there a request is refused as soon as the slots are taken.
+     * With {@link ExecutionMode#BOUNDED_POOL} the connections waiting for a worker are bounded by the same queue size.
+     * @param maxInFlight the maximum number of requests handled at the same time
+     * @param maxQueued the maximum number of requests waiting for a slot
+     * @param maxWaitMillis how long a request waits in the queue
+     */
+    public void admissionControl(int maxInFlight, int maxQueued, long maxWaitMillis) {
+        if (maxInFlight <= 0 || maxQueued < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Admission limits must be positive");
+        }
+        admission = new AdmissionControl(maxInFlight, maxQueued, maxWaitMillis);
+    }
+
+    /**
+     * Limits the rate of requests of each client address with a token bucket.
+     * Requests above the rate are answered with 429 Too Many Requests and Retry-After.
+     * @param requestsPerSecond the sustained rate allowed to each client
+     * @param burst the number of requests a client may send at once
+     */
+    public void rateLimit(double requestsPerSecond, int burst) {
+        if (requestsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limit must be positive");
+        }
+        rateLimiter = new RateLimiter(requestsPerSecond, burst);
+    }
+
+    /**
+     * Sets the Retry-After value sent with 503 Service Unavailable when the server sheds load.
+     * @param seconds how long clients are asked to wait before retrying
+     */
+    public void retryAfter(int seconds) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Retry-After must be positive: " + seconds);
+        }
+        retryAfterSeconds = seconds;
+    }
+
+    /**
+     * Registers a POST route with the specified URL and callback handler.
+     * The handler reads the payload from {@link HTTPFrameworkRequest#getBodyStream()}.
+     * @param url the URL path for the POST request
+     * @param callback the handler to process the POST request
+     */
+    @Override
+    public void post(String url, HTTPServerHandler callback) {
+        route("POST", url, callback);
+    }
+
+    /**
+     * Registers a PUT route with the specified URL and callback handler.
+     * @param url the URL path for the PUT request
+     * @param callback the handler to process the PUT request
+     */
+    @Override
+    public void put(String url, HTTPServerHandler callback) {
+        route("PUT", url, callback);
+    }
+
+    /**
+     * Registers a DELETE route with the specified URL and callback handler.
+     * @param url the URL path for the DELETE request
+     * @param callback the handler to process the DELETE request
+     */
+    @Override
+    public void delete(String url, HTTPServerHandler callback) {
+        route("DELETE", url, callback);
+    }
+
+    /**
+     * Registers a GET route whose responses are cached for a while, for handlers whose output only
+     * depends on the path and the query parameters. A cached response is sent without calling the handler
+     * until it expires; concurrent requests for a response that is not cached run the handler once.
+     * Only 200 OK responses held in memory are cached.
+     * @param url the URL path for the GET request
+     * @param callback the handler to process the GET request
+     * @param ttlMillis how long a response is served from the cache
+     * @param maxEntries the maximum number of responses kept for this route, least recently used first out
+     */
+    public void getCached(String url, HTTPServerHandler callback, long ttlMillis, int maxEntries) {
+        route("GET", url, new CachedRoute(encoder, callback, new ResponseCache(ttlMillis, maxEntries)));
+    }
+
+    /**
+     * Registers a GET route answered by an asynchronous handler.
+     * The connection is not held by a thread while the returned stage is pending; the response is written
+     * when it completes, or 504 Gateway Timeout is sent once the default async timeout expires.
+     * @param url the URL path for the GET request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public void getAsync(String url, AsyncHTTPServerHandler callback) {
+        getAsync(url, callback, asyncTimeoutMillis);
+    }
+
+    /**
+     * Registers a GET route answered by an asynchronous handler with its own timeout.
+     * @param url the URL path for the GET request
+     * @param callback the handler that returns the response asynchronously
+     * @param timeoutMillis how long the handler has to complete its response
+     */
+    public void getAsync(String url, AsyncHTTPServerHandler callback, long timeoutMillis) {
+        route("GET", url, new AsyncRoute(callback, timeoutMillis));
+    }
+
+    /**
+     * Registers a POST route answered by an asynchronous handler.
+     * @param url the URL path for the POST request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public void postAsync(String url, AsyncHTTPServerHandler callback) {
+        postAsync(url, callback, asyncTimeoutMillis);
+    }
+
+    /**
+     * Registers a POST route answered by an asynchronous handler with its own timeout.
+     * @param url the URL path for the POST request
+     * @param callback the handler that returns the response asynchronously
+     * @param timeoutMillis how long the handler has to complete its response
+     */
+    public void postAsync(String url, AsyncHTTPServerHandler callback, long timeoutMillis) {
+        route("POST", url, new AsyncRoute(callback, timeoutMillis));
+    }
+
+    /**
+     * Registers a PUT route answered by an asynchronous handler.
+     * @param url the URL path for the PUT request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public void putAsync(String url, AsyncHTTPServerHandler callback) {
+        route("PUT", url, new AsyncRoute(callback, asyncTimeoutMillis));
+    }
+
+    /**
+     * Registers a DELETE route answered by an asynchronous handler.
+     * @param url the URL path for the DELETE request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public void deleteAsync(String url, AsyncHTTPServerHandler callback) {
+        route("DELETE", url, new AsyncRoute(callback, asyncTimeoutMillis));
+    }
+
+    /**
+     * Registers a GET route that opens a Server-Sent Events stream. The handler is called once per client,
+     * before the response head is sent, and keeps the connection to send it events, typically by adding it
+     * to a {@link Broadcaster}. The connection is then written by a stream loop and holds no worker thread.
+     * @param url the URL path of the stream
+     * @param handler the handler called for every client that opens the stream; it may throw {@link HttpServerErrors} to refuse it
+     */
+    public void eventStream(String url, EventStreamHandler handler) {
+        route("GET", url, new StreamRoute(handler, streamQueueLimit));
+    }
+
+    /**
+     * Registers a GET route that accepts WebSocket connections (RFC 6455). Requests without the upgrade
+     * headers get 426 Upgrade Required. Text messages are supported; a client sending binary data is closed.
+     * @param url the URL path of the WebSocket
+     * @param handler the callbacks of the connections, called on the thread of their stream loop
+     */
+    public void webSocket(String url, WebSocketHandler handler) {
+        route("GET", url, new StreamRoute(handler, streamQueueLimit, maxStreamMessageBytes));
+    }
+
+    /**
+     * Configures the stream routes registered afterwards.
+     * @param maxQueuedMessages how many messages may wait to be written to a client before it is dropped as too slow
+     * @param maxMessageBytes the largest WebSocket message accepted from a client
+     */
+    public void streamLimits(int maxQueuedMessages, int maxMessageBytes) {
+        if (maxQueuedMessages <= 0 || maxMessageBytes <= 0) {
+            throw new IllegalArgumentException("Stream limits must be positive");
+        }
+        streamQueueLimit = maxQueuedMessages;
+        maxStreamMessageBytes = maxMessageBytes;
+    }
+
+    private void route(String method, String url, HTTPServerHandler callback) {
+        routes.add(method, url, callback);
+    }
+
+    /**
+     * Starts the server on the given port with the blocking engine.
+     * The port is added to the listeners and the calling thread waits until {@link #stop()} is called,
+     * while the acceptor threads hand each connection to the workers of the configured {@link ExecutionMode}.
+     * @param port the server port to listen on
+     */
+    @Override
+    public void start(int port) {
+        start(port, ServerEngine.BLOCKING);
+    }
+
+    /**
+     * Starts the server on the given port with the given engine.
+     * @param port the server port to listen on
+     * @param engine the I/O engine that serves the connections
+     */
+    public void start(int port, ServerEngine engine) {
+        listen(port);
+        start(engine);
+    }
+
+    /**
+     * Starts the server on the addresses added with {@link #listen(InetSocketAddress)}, with the blocking engine.
+     */
+    public void start() {
+        start(ServerEngine.BLOCKING);
+    }
+
+    /**
+     * Binds every listener and serves connections with the given engine until {@link #stop()} is called.
+     * In-flight requests are drained, and the timer wheel and the access log closed, before it returns.
+     * @param engine the I/O engine that serves the connections
+     * @throws UncheckedIOException if a listener cannot be bound
+     */
+    public void start(ServerEngine engine) {
+        routes.freeze();
+        buildRejections();
+        running = true;
+        try {
+            bind();
+        } catch (IOException e) {
+            running = false;
+            throw new UncheckedIOException("Could not listen on " + listeners, e);
+        }
+        watchStaticFiles();
+        startTimers();
+        try {
+            if (engine == ServerEngine.NIO) {
+                serveNio();
+            } else {
+                serveBlocking();
+            }
+        } finally {
+            running = false;
+            localAddresses = Collections.emptyList();
+            closeStreamLoops();
+            stopTimers();
+            closeAccessLog();
+        }
+    }
+
+    /**
+     * Binds the listeners. With several acceptors per listener each one gets its own socket bound with
+     * SO_REUSEPORT to the address of the first, so a listener on port 0 keeps a single port.
+     * @throws IOException if an address cannot be bound, in which case every socket is closed
+     */
+    private void bind() throws IOException {
+        List<InetSocketAddress> addresses;
+        synchronized (listeners) {
+            addresses = new ArrayList<>(listeners);
+        }
+        if (addresses.isEmpty()) {
+            throw new IllegalStateException("The server has no address to listen on");
+        }
+        List<ServerSocketChannel> sockets = new ArrayList<>();
+        List<InetSocketAddress> bound = new ArrayList<>();
+        serverSockets = sockets;
+        try {
+            for (InetSocketAddress address : addresses) {
+                ServerSocketChannel first = ServerSocketChannel.open();
+                sockets.add(first);
+                boolean reusePort = acceptors > 1 && first.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+                if (reusePort) {
+                    first.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                } else if (acceptors > 1) {
+                    logger.info("SO_REUSEPORT is not supported, the acceptors of " + address + " share one socket.");
+                }
+                first.bind(address, backlog);
+                InetSocketAddress local = (InetSocketAddress) first.getLocalAddress();
+                bound.add(local);
+                for (int i = 1; i < acceptors; i++) {
+                    if (reusePort) {
+                        ServerSocketChannel sibling = ServerSocketChannel.open();
+                        sockets.add(sibling);
+                        sibling.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                        sibling.bind(local, backlog);
+                    } else {
+                        sockets.add(first);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeServerSockets();
+            throw e;
+        }
+        serverSockets = Collections.unmodifiableList(sockets);
+        localAddresses = Collections.unmodifiableList(bound);
+    }
+
+    /**
+     * Serves connections on worker threads until {@link #stop()} is called, then drains the workers.
+     */
+    private void serveBlocking() {
+        workers = createWorkers();
+        logger.info("Running Server... on " + localAddresses + " with " + acceptors + " acceptors per listener");
+        runAcceptors(this::dispatch);
+        drainWorkers();
+    }
+
+    /**
+     * Serves connections on the non-blocking event loops until {@link #stop()} is called.
+     * Route handlers run on the worker threads, which are drained before the loops close the connections.
+     */
+    private void serveNio() {
+        NioServerEngine engine;
+        try {
+            engine = new NioServerEngine(this, eventLoops);
+        } catch (IOException e) {
+            closeServerSockets();
+            throw new UncheckedIOException("Could not open the event loops", e);
+        }
+        workers = createWorkers();
+        engine.start();
+        logger.info("Running NIO Server... on " + localAddresses + " with " + acceptors + " acceptors per listener and "
+                + eventLoops + " event loops");
+        try {
+            runAcceptors(engine::register);
+        } finally {
+            drainWorkers();
+            engine.stop();
+        }
+    }
+
+    /**
+     * Runs the handler of a request on a worker thread, so an event loop never waits for it.
+     * @param task the task that answers the request
+     * @throws java.util.concurrent.RejectedExecutionException if the workers are saturated or shutting down
+     */
+    void execute(Runnable task) {
+        workers.execute(task);
+    }
+
+    /**
+     * Runs one acceptor thread per bound socket and waits for them, that is until {@link #stop()} closes the sockets.
+     * @param handoff takes each accepted connection
+     */
+    private void runAcceptors(Handoff handoff) {
+        List<ServerSocketChannel> sockets = serverSockets;
+        Thread[] threads = new Thread[sockets.size()];
+        for (int i = 0; i < threads.length; i++) {
+            ServerSocketChannel socket = sockets.get(i);
+            threads[i] = new Thread(() -> accept(socket, handoff), "http-acceptor-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            running = false;
+            closeServerSockets();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept(ServerSocketChannel serverSocket, Handoff handoff) {
+        while (running) {
+            try {
+                SocketChannel clientSocket;
+                try {
+                    clientSocket = acceptClient(serverSocket);
+                } catch (ClosedChannelException e) {
+                    return;
+                }
+                handoff.accept(clientSocket);
+            } catch (IOException e) {
+                if (running) {
+                    logger.severe("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void startTimers() {
+        ConnectionTimeout.Limits limits = new ConnectionTimeout.Limits(headerTimeoutMillis, bodyTimeoutMillis,
+                idleTimeoutMillis, writeTimeoutMillis, minBytesPerSecond, minRateGraceMillis);
+        timeoutLimits = limits;
+        timers = new TimerWheel(Math.min(100, limits.checkIntervalMillis), 512, "http-timeouts");
+    }
+
+    private void stopTimers() {
+        TimerWheel wheel = timers;
+        timers = null;
+        if (wheel != null) {
+            wheel.stop();
+        }
+    }
+
+    /**
+     * Creates the timeout of a new connection and adds it to the shared timer wheel.
+     * @param expiry closes the connection when a limit is exceeded; runs on the wheel thread
+     * @return the timeout the connection reports its progress to
+     */
+    ConnectionTimeout watch(ConnectionTimeout.Expiry expiry) {
+        ConnectionTimeout timeout = new ConnectionTimeout(timeoutLimits, expiry);
+        TimerWheel wheel = timers;
+        if (wheel != null) {
+            wheel.schedule(timeout);
+        }
+        return timeout;
+    }
+
+    /**
+     * Hands a connection whose response switched it to a stream to one of the stream loops,
+     * which are started with the first stream. Called by the engines once the response head is written.
+     * @param channel the channel connected to the client
+     * @param stream the subscriber of the connection
+     * @param leftover bytes read after the request that opened the stream, or null
+     */
+    void upgrade(SocketChannel channel, StreamSubscriber stream, ByteBuffer leftover) {
+        StreamLoop loop;
+        try {
+            loop = nextStreamLoop();
+        } catch (IOException e) {
+            logger.severe("Could not open the stream loops: " + e.getMessage());
+            loop = null;
+        }
+        if (loop == null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.fine("Could not close stream: " + e.getMessage());
+            }
+            ServerMetrics recorder = metrics;
+            if (recorder != null) {
+                recorder.connectionClosed();
+            }
+            stream.closed();
+            return;
+        }
+        loop.register(channel, stream, leftover != null && leftover.hasRemaining() ? leftover : null);
+    }
+
+    private synchronized StreamLoop nextStreamLoop() throws IOException {
+        if (!running) {
+            return null;
+        }
+        if (streamLoops == null) {
+            StreamLoop[] loops = new StreamLoop[eventLoops];
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new StreamLoop(this, "http-stream-" + i);
+            }
+            streamLoops = loops;
+        }
+        return streamLoops[nextStreamLoop++ % streamLoops.length];
+    }
+
+    /**
+     * Closes the stream connections once no engine can upgrade another one.
+     */
+    private void closeStreamLoops() {
+        StreamLoop[] loops;
+        synchronized (this) {
+            loops = streamLoops;
+            streamLoops = null;
+        }
+        if (loops != null) {
+            for (StreamLoop loop : loops) {
+                loop.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining access log records once no request can log anymore.
+     */
+    private void closeAccessLog() {
+        AccessLog log = accessLog;
+        accessLog = null;
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Stops the HTTP server.
+     * It sets the running flag to false and closes the server sockets, which unblocks
+     * the acceptors. In-flight requests are drained by the thread running {@link #start(ServerEngine)}.
+     */
+    @Override
+    public void stop() {
+        stopServer();
+    }
+
+    /**
+     * Submits the handling of a connection to the worker executor.
+     * If the executor is already shutting down the connection is closed right away.
+     * @param clientSocket the channel connected to the client
+     */
+    private void dispatch(SocketChannel clientSocket) throws IOException {
+        try {
+            workers.execute(() -> {
+                try {
+                    handleRequest(clientSocket);
+                } catch (IOException e) {
+                    logger.severe("Error handling request: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            try (SocketChannel channel = clientSocket) {
+                byte[] response = overloadedResponse;
+                if (running && response != null) {
+                    channel.write(ByteBuffer.wrap(response));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the executor for the configured execution mode.
+     * Virtual threads are looked up reflectively so the server still runs on Java 17,
+     * where {@link ExecutionMode#VIRTUAL_THREADS} falls back to the bounded pool.
+     * @return the executor that handles accepted connections
+     */
+    ExecutorService createWorkers() {
+        if (executionMode == ExecutionMode.VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warning("Virtual threads are not available, using a bounded pool of " + poolSize + " threads.");
+            }
+        }
+        AdmissionControl gate = admission;
+        if (gate == null) {
+            return Executors.newFixedThreadPool(poolSize, daemonThreads());
+        }
+        BlockingQueue<Runnable> queue = gate.getMaxQueued() > 0
+                ? new ArrayBlockingQueue<>(gate.getMaxQueued()) : new SynchronousQueue<>();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue, daemonThreads());
+    }
+
+    private static ThreadFactory daemonThreads() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "http-worker");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void closeServerSockets() {
+        for (ServerSocketChannel socket : serverSockets) {
+            if (!socket.isOpen()) {
+                continue;
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.warning("Could not close the server socket.");
+            }
+        }
+    }
+
+    private void drainWorkers() {
+        ExecutorService executor = workers;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("In-flight requests did not finish in time, interrupting workers.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Accepts a client connection and returns the connected channel.
+     * @param serverSocket the server channel to accept connections from
+     * @return the channel connected to the client, in blocking mode
+     * @throws IOException if an I/O error occurs when accepting the connection
+     */
+    private static SocketChannel acceptClient(ServerSocketChannel serverSocket) throws IOException {
+        logger.fine("Waiting for a client connection...");
+        SocketChannel clientSocket;
+        clientSocket = serverSocket.accept();
+        logger.fine("New connection accepted");
+        return clientSocket;
+    }
+
+    /**
+     * Handles the incoming requests from the client.
+     * The connection is kept open while the client asks for it, up to the configured
+     * maximum number of requests and idle timeout. Pipelined requests are answered in order
+     * and the output is only flushed once no more buffered requests are waiting.
+     * Reads and writes are timed by the shared timer wheel, which unblocks a stalled read by
+     * shutting down the input and a stalled write by closing the channel. A connection switched to
+     * an event stream or a WebSocket is handed to a stream loop and the worker returns.
+     * @param clientSocket the channel connected to the client
+     * @throws IOException if an I/O error occurs when reading from or writing to the socket
+     */
+    private void handleRequest(SocketChannel clientSocket) throws IOException {
+        ServerMetrics recorder = metrics;
+        if (recorder != null) {
+            recorder.connectionOpened();
+        }
+        ConnectionTimeout timeout = watch(phase -> expire(clientSocket, phase));
+        boolean upgraded = false;
+        try {
+            Socket socket = clientSocket.socket();
+            InputStream in = socket.getInputStream();
+            InputStream bodyIn = timeout.bodyInput(in);
+            ResponseOutput outData = ResponseOutput.forChannel(clientSocket, timeout);
+            HttpRequestParser parser = newParser(true);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            buffer.flip();
+            boolean keepAlive = true;
+            for (int served = 1; keepAlive; served++) {
+                if (served > 1) {
+                    timeout.awaitRequest(buffer.hasRemaining());
+                }
+                try {
+                    if (!readRequest(in, buffer, parser, timeout)) {
+                        return;
+                    }
+                } catch (HttpServerErrors e) {
+                    processError(e, outData);
+                    outData.flush();
+                    return;
+                }
+                timeout.pause();
+                RequestBodyStream body = new RequestBodyStream(bodyIn, buffer, parser);
+                HTTPFrameworkRequest request = parser.request(body);
+                request.setRemoteAddress(socket.getInetAddress());
+                byte[] rejection = admit(request, true);
+                if (rejection != null) {
+                    reject(request, rejection, outData, parser.requestBytes());
+                    return;
+                }
+                try {
+                    keepAlive = processRequest(request, served, outData, parser.requestBytes());
+                } finally {
+                    release();
+                }
+                StreamSubscriber stream = outData.upgraded();
+                if (stream != null) {
+                    timeout.close();
+                    upgraded = true;
+                    upgrade(clientSocket, stream, buffer);
+                    return;
+                }
+                if (keepAlive) {
+                    try {
+                        body.drain();
+                    } catch (HttpServerErrors e) {
+                        keepAlive = false;
+                    }
+                }
+                parser.reset();
+                if (!keepAlive || !buffer.hasRemaining()) {
+                    outData.flush();
+                }
+            }
+        } finally {
+            timeout.close();
+            if (!upgraded) {
+                try {
+                    clientSocket.close();
+                } finally {
+                    if (recorder != null) {
+                        recorder.connectionClosed();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Unblocks the worker of a connection that exceeded a timeout. A stalled read sees the end of the
+     * stream and the worker answers 408 Request Timeout if a request was being received; a stalled write fails.
+     * @param channel the channel connected to the client
+     * @param phase the phase that timed out
+     */
+    private static void expire(SocketChannel channel, int phase) {
+        try {
+            if (phase == ConnectionTimeout.WRITE) {
+                channel.close();
+            } else {
+                channel.shutdownInput();
+            }
+        } catch (IOException e) {
+            logger.fine("Could not close timed out connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Feeds the parser from the socket until it has the head of a request.
+     * Bytes that belong to the next pipelined request are left in the buffer.
+     * @param in the socket input stream
+     * @param buffer the connection buffer, in read mode
+     * @param parser the parser of the connection
+     * @param timeout the timeout of the connection
+     * @return true if a request was parsed, false if the client closed the connection
+     * @throws IOException if an I/O error occurs when reading from the socket
+     */
+    private static boolean readRequest(InputStream in, ByteBuffer buffer, HttpRequestParser parser, ConnectionTimeout timeout) throws IOException {
+        while (!parser.parse(buffer)) {
+            int read = in.read(buffer.array(), 0, buffer.capacity());
+            if (read < 0) {
+                if (timeout.isRequestTimeout()) {
+                    throw HttpServerErrors.REQUEST_TIMEOUT_408;
+                }
+                if (parser.inProgress()) {
+                    throw HttpServerErrors.BAD_REQUEST_400;
+                }
+                return false;
+            }
+            timeout.headReceived();
+            buffer.clear();
+            buffer.limit(read);
+        }
+        return true;
+    }
+
+    /**
+     * Creates a request parser with the configured limits.
+     * @param streamBodies true to stream bodies to the handler, false to buffer them
+     * @return a parser for one connection
+     */
+    HttpRequestParser newParser(boolean streamBodies) {
+        return new HttpRequestParser(maxHeaderBytes, maxHeaderCount, maxBodyBytes, streamBodies);
+    }
+
+    /**
+     * Answers a request that could not be parsed. The connection must be closed afterwards.
+     * Rejections are logged at FINE, since any client can produce them at will.
+     * @param error the parse error
+     * @param outData the output that receives the response
+     * @throws IOException if an I/O error occurs when writing the response
+     */
+    static void processError(HttpServerErrors error, ResponseOutput outData) throws IOException {
+        logger.fine("Rejected request: " + error.getMessage());
+        handleErrorRequest(outData, error, false);
+    }
+
+    /**
+     * Processes a parsed request and writes the complete HTTP response to the given output.
+     * It serves the route registered for the method and path, answers OPTIONS and
+     * 405 Method Not Allowed from the registered methods, or falls back to static files.
+     * HEAD requests are answered like GET without a body.
+     * This is shared by every server engine, so it never closes the stream.
+     * @param request the parsed request
+     * @param served the number of requests served on this connection, including this one
+     * @param outData the output that receives the response
+     * @param bytesIn the size of the request on the wire, for the metrics
+     * @return true if the connection should stay open for another request
+     * @throws IOException if an I/O error occurs when writing the response
+     */
+    boolean processRequest(HTTPFrameworkRequest request, int served, ResponseOutput outData, long bytesIn) throws IOException {
+        return processRequest(request, served, outData, bytesIn, System.nanoTime(), null);
+    }
+
+    /**
+     * Applies the rate limit and the admission control to a request before it is handled.
+     * @param request the parsed request
+     * @param wait whether the caller may block in the admission queue; event loops pass false
+     * @return null if the request was admitted, in which case {@link #release()} must be called once its
+     *         handler is done, or the pre-built response that refuses it
+     */
+    byte[] admit(HTTPFrameworkRequest request, boolean wait) {
+        RateLimiter limiter = rateLimiter;
+        if (limiter != null && !limiter.tryAcquire(request.getRemoteAddress())) {
+            return rateLimitedResponse;
+        }
+        AdmissionControl gate = admission;
+        if (gate != null && !(wait ? gate.enter() : gate.tryEnter())) {
+            return overloadedResponse;
+        }
+        return null;
+    }
+
+    /**
+     * Frees the admission slot taken by a request that {@link #admit(HTTPFrameworkRequest, boolean)} let through.
+     */
+    void release() {
+        AdmissionControl gate = admission;
+        if (gate != null) {
+            gate.exit();
+        }
+    }
+
+    /**
+     * Sends a pre-built refusal, which always closes the connection, and records it in the metrics.
+     * @param request the refused request
+     * @param response the response returned by {@link #admit(HTTPFrameworkRequest, boolean)}
+     * @param outData the output that receives the response
+     * @param bytesIn the size of the request on the wire
+     * @throws IOException if an I/O error occurs when writing the response
+     */
+    void reject(HTTPFrameworkRequest request, byte[] response, ResponseOutput outData, long bytesIn) throws IOException {
+        outData.write(response);
+        outData.flush();
+        int status = response == rateLimitedResponse ? 429 : 503;
+        ServerMetrics recorder = metrics;
+        if (recorder != null) {
+            recorder.record(request.getMethod(), REJECTED_ROUTE, status, bytesIn, response.length, 0);
+        }
+        AccessLog log = accessLog;
+        if (log != null) {
+            log.log(request.getRemoteAddress(), request.getMethod(), request.getUrl(), status, response.length, 0,
+                    !NioServerEngine.onEventLoop());
+        }
+    }
+
+    /**
+     * Encodes the refusals sent by {@link #admit(HTTPFrameworkRequest, boolean)} once, when the server starts.
+     */
+    private void buildRejections() {
+        overloadedResponse = rejection(HttpServerErrors.SERVICE_UNAVAILABLE_503, retryAfterSeconds);
+        RateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            rateLimitedResponse = rejection(HttpServerErrors.TOO_MANY_REQUESTS_429, limiter.secondsPerToken());
+        }
+    }
+
+    private static byte[] rejection(HttpServerErrors error, int retryAfter) {
+        byte[] body = error.getMessage().getBytes(StandardCharsets.US_ASCII);
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.status(error.CODE).header("Retry-After", Integer.toString(retryAfter))
+                    .append(ResponseWriter.CONTENT_TYPE_TEXT).cors().contentLength(body.length).end(false)
+                    .append(body);
+            return writer.toByteArray();
+        }
+    }
+
+    /**
+     * Starts the asynchronous handler of a request, if its route has one.
+     * @param request the parsed request
+     * @return the pending response, to be passed to {@link #processRequest(HTTPFrameworkRequest, int, ResponseOutput, long, long, CompletableFuture)}
+     *         once complete, or null if the request is answered synchronously
+     */
+    CompletableFuture<HTTPFrameworkResponse> startAsync(HTTPFrameworkRequest request) {
+        RouteTrie.Match<HTTPServerHandler> route = routes.find(request.getUrl());
+        if (route == null) {
+            return null;
+        }
+        String method = request.getMethod();
+        HTTPServerHandler handler = route.getHandlers().get(method.equals("HEAD") ? "GET" : method);
+        if (!(handler instanceof AsyncRoute)) {
+            return null;
+        }
+        request.setPathParams(route.getParams());
+        return ((AsyncRoute) handler).start(request);
+    }
+
+    /**
+     * Tells whether answering a request may block: a synchronous route handler, which may do anything, the
+     * handler of a stream route, called before the stream opens, or a static file that has to be read or compressed. Event loops hand such requests to the worker threads and
+     * answer the others, such as cached static files and errors, themselves.
+     * @param request the parsed request
+     * @return true if the request should be answered on a worker thread
+     */
+    boolean mayBlock(HTTPFrameworkRequest request) {
+        RouteTrie.Match<HTTPServerHandler> route = routes.find(request.getUrl());
+        String method = request.getMethod();
+        if (route == null) {
+            return (method.equals("GET") || method.equals("HEAD"))
+                    && files.mayBlock(obtainFilePath(request.getUrl()), request.getHeaders());
+        }
+        return route.getHandlers().get(method.equals("HEAD") ? "GET" : method) != null;
+    }
+
+    /**
+     * Tells whether a request asks to open an event stream or a WebSocket, after which the connection
+     * carries no more requests.
+     * @param request the parsed request
+     * @return true for a GET request to a stream route
+     */
+    boolean opensStream(HTTPFrameworkRequest request) {
+        RouteTrie.Match<HTTPServerHandler> route = routes.find(request.getUrl());
+        return route != null && request.getMethod().equals("GET") && route.getHandlers().get("GET") instanceof StreamRoute;
+    }
+
+    /**
+     * Writes the response of a request, possibly one whose asynchronous handler has already completed,
+     * and records it in the metrics and the access log when they are enabled.
+     * @param request the parsed request
+     * @param served the number of requests served on this connection, including this one
+     * @param outData the output that receives the response
+     * @param bytesIn the size of the request on the wire
+     * @param startNanos the {@link System#nanoTime()} at which the request was received
+     * @param completed the completed future returned by {@link #startAsync(HTTPFrameworkRequest)}, or null to call the handler
+     * @return true if the connection should stay open for another request
+     * @throws IOException if an I/O error occurs when writing the response
+     */
+    boolean processRequest(HTTPFrameworkRequest request, int served, ResponseOutput outData, long bytesIn,
+                                  long startNanos, CompletableFuture<HTTPFrameworkResponse> completed) throws IOException {
+        RouteTrie.Match<HTTPServerHandler> route = routes.find(request.getUrl());
+        ServerMetrics recorder = metrics;
+        AccessLog log = accessLog;
+        if (recorder == null && log == null) {
+            return respond(request, route, served, outData, completed);
+        }
+        MeteredOutput metered = new MeteredOutput(outData);
+        boolean keepAlive = respond(request, route, served, metered, completed);
+        long nanos = System.nanoTime() - startNanos;
+        if (recorder != null) {
+            recorder.record(request.getMethod(), route != null ? route.getPattern() : STATIC_ROUTE, metered.getStatus(),
+                    bytesIn, metered.getBytes(), nanos);
+        }
+        if (log != null) {
+            log.log(request.getRemoteAddress(), request.getMethod(), request.getUrl(), metered.getStatus(), metered.getBytes(), nanos,
+                    !NioServerEngine.onEventLoop());
+        }
+        return keepAlive;
+    }
+
+    private boolean respond(HTTPFrameworkRequest request, RouteTrie.Match<HTTPServerHandler> route, int served,
+                                   ResponseOutput outData, CompletableFuture<HTTPFrameworkResponse> completed) throws IOException {
+        Map<String, String> headers = request.getHeaders();
+        String path = obtainFilePath(request.getUrl());
+        boolean keepAlive = mayKeepAlive(request, served);
+
+        String method = request.getMethod();
+        if (method.equals("HEAD")) {
+            outData = ResponseOutput.headersOnly(outData);
+        }
+
+        try {
+            if (route != null) {
+                Map<String, HTTPServerHandler> handlers = route.getHandlers();
+                request.setPathParams(route.getParams());
+                HTTPServerHandler handler = handlers.get(method.equals("HEAD") ? "GET" : method);
+                if (handler instanceof StreamRoute) {
+                    keepAlive = ((StreamRoute) handler).serve(request, outData, keepAlive);
+                } else if (handler instanceof CachedRoute) {
+                    keepAlive = ((CachedRoute) handler).serve(request, outData, Compression.negotiate(headers.get("accept-encoding")),
+                            keepAlive, !request.getVersion().equals("HTTP/1.0"));
+                } else if (handler != null) {
+                    HTTPFrameworkResponse response = completed != null ? AsyncRoute.join(completed)
+                            : handler.handleRequest(request, new HTTPFrameworkResponse());
+                    keepAlive = encoder.send(response, outData, Compression.negotiate(headers.get("accept-encoding")),
+                            keepAlive, !request.getVersion().equals("HTTP/1.0"));
+                } else {
+                    handleUnsupportedMethod(method, allowedMethods(handlers.keySet()), outData, keepAlive);
+                }
+            } else if (method.equals("GET") || method.equals("HEAD")) {
+                files.serve(path, headers, outData, keepAlive);
+            } else if (method.equals("OPTIONS") || manifest().lookup(path) != null) {
+                handleUnsupportedMethod(method, STATIC_METHODS, outData, keepAlive);
+            } else {
+                throw HttpServerErrors.NOT_FOUND_404;
+            }
+        } catch (HttpServerErrors e) {
+            logger.fine("Error handling request: " + e.getMessage());
+            // the body of a timed out request cannot be read to its end, so the connection is not reusable
+            keepAlive &= e != HttpServerErrors.REQUEST_TIMEOUT_408;
+            handleErrorRequest(outData, e, keepAlive);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Unexpected error: " + e.getMessage(), e);
+            handleErrorRequest(outData, HttpServerErrors.INTERNAL_SERVER_ERROR_500, keepAlive);
+        }
+        return keepAlive;
+    }
+
+    /**
+     * Tells whether the connection may stay open after a request, as far as the request itself decides:
+     * the client allows it and the connection has not reached its maximum number of requests.
+     * @param request the parsed request
+     * @param served the number of requests served on this connection, including this one
+     * @return false if the response to this request is the last one on the connection
+     */
+    boolean mayKeepAlive(HTTPFrameworkRequest request, int served) {
+        return served < maxRequestsPerConnection && isPersistent(request.getVersion(), request.getHeaders().get("connection"));
+    }
+
+    /**
+     * Answers a method without a handler: OPTIONS gets 204 No Content (the CORS preflight answer)
+     * and any other method 405 Method Not Allowed, both with the Allow header.
+     * @param method the request method
+     * @param allow the value of the Allow header
+     * @param outData the output that receives the response
+     * @param keepAlive whether the connection stays open after the response
+     * @throws IOException if an I/O error occurs when writing to the socket
+     */
+    private static void handleUnsupportedMethod(String method, String allow, ResponseOutput outData, boolean keepAlive) throws IOException {
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            if (method.equals("OPTIONS")) {
+                writer.status(204).header("Allow", allow).cors().contentLength(0).end(keepAlive).send(outData);
+            } else {
+                writer.status(405).header("Allow", allow).append(ResponseWriter.CONTENT_TYPE_TEXT).cors()
+                        .contentLength(METHOD_NOT_ALLOWED_BODY.length).end(keepAlive)
+                        .send(outData, METHOD_NOT_ALLOWED_BODY, 0, METHOD_NOT_ALLOWED_BODY.length);
+            }
+        }
+        outData.flush();
+    }
+
+    /**
+     * Builds the Allow header value for a route.
+     * @param methods the methods registered for the route
+     * @return the methods, plus HEAD when GET is registered and OPTIONS
+     */
+    private static String allowedMethods(Collection<String> methods) {
+        StringBuilder allow = new StringBuilder();
+        for (String method : methods) {
+            allow.append(method).append(", ");
+            if (method.equals("GET")) {
+                allow.append("HEAD, ");
+            }
+        }
+        return allow.append("OPTIONS").toString();
+    }
+
+    /**
+     * Decides whether a connection is persistent.
+     * HTTP/1.1 connections are persistent unless the client sends "Connection: close",
+     * older versions only when the client sends "Connection: keep-alive".
+     * The header is a comma-separated list of options, compared whole and ignoring case.
+     * @param version the HTTP version of the request line
+     * @param connection the value of the Connection header, or null if absent
+     * @return true if the client allows the connection to stay open
+     */
+    static boolean isPersistent(String version, String connection) {
+        boolean persistent = version.equals("HTTP/1.1");
+        if (connection != null) {
+            for (String option : connection.split(",")) {
+                String token = option.trim();
+                if (token.equalsIgnoreCase("close")) {
+                    return false;
+                }
+                if (token.equalsIgnoreCase("keep-alive")) {
+                    persistent = true;
+                }
+            }
+        }
+        return persistent;
+    }
+
+    /**
+     * Handles error requests by sending an appropriate HTTP error response.
+     * It constructs the response based on the provided HttpServerErrors instance.
+     * @param outData the stream that receives the response
+     * @param error the HttpServerErrors instance representing the error
+     * @param keepAlive whether the connection stays open after the response
+     * @throws IOException if an I/O error occurs when writing to the socket
+     */
+    private static void handleErrorRequest(ResponseOutput outData, HttpServerErrors error, boolean keepAlive) throws IOException {
+        byte[] body = error.getMessage().getBytes(StandardCharsets.UTF_8);
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.status(error.CODE).append(ResponseWriter.CONTENT_TYPE_TEXT).cors()
+                    .contentLength(body.length).end(keepAlive).send(outData, body, 0, body.length);
+        }
+        outData.flush();
+    }
+
+
+
+    /**
+     * Returns the manifest of the static root, scanning it on first use when the server was not started.
+     * @return the static manifest
+     */
+    StaticManifest manifest() {
+        StaticManifest current = manifest;
+        if (current == null) {
+            synchronized (this) {
+                current = manifest;
+                if (current == null) {
+                    String folder = classpathRoot;
+                    current = folder != null
+                            ? ClasspathStaticFiles.index(classpathLoader, folder, files.getZeroCopyThreshold())
+                            : StaticManifest.scan(staticRoot, files.getZeroCopyThreshold());
+                    manifest = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Scans the static root and keeps the manifest up to date with the changes made while the server runs.
+     */
+    private synchronized void watchStaticFiles() {
+        StaticManifest current = manifest();
+        try {
+            current.watch();
+            String folder = classpathRoot;
+            logger.info("Serving " + current.size() + " static files from " + (folder != null ? "classpath:" + folder : staticRoot));
+        } catch (IOException e) {
+            logger.warning("Static files will not be reloaded: " + e.getMessage());
+        }
+    }
+
+    private synchronized void closeManifest() {
+        StaticManifest current = manifest;
+        manifest = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void stopServer() {
+        running = false;
+        logger.info("Server is stopping...");
+        closeServerSockets();
+        closeManifest();
+    }
+
+    static String obtainFilePath(String path) {
+        if (path.equals("/")) {
+            return "/index.html";
+        }
+        return path;
+    }
+
+    /**
+     * Takes a connection from an acceptor thread.
+     */
+    @FunctionalInterface
+    private interface Handoff {
+        void accept(SocketChannel clientSocket) throws IOException;
+    }
+}
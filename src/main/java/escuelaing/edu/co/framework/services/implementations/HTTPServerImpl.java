@@ -1,336 +1,416 @@
 package escuelaing.edu.co.framework.services.implementations;
 
-import escuelaing.edu.co.framework.errors.HttpServerErrors;
-import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
-import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import escuelaing.edu.co.framework.cache.StaticFileCache;
+import escuelaing.edu.co.framework.config.ExecutionMode;
+import escuelaing.edu.co.framework.config.LogOverflowPolicy;
+import escuelaing.edu.co.framework.config.ServerEngine;
+import escuelaing.edu.co.framework.logging.AccessLog;
+import escuelaing.edu.co.framework.metrics.ServerMetrics;
+import escuelaing.edu.co.framework.services.interfaces.AsyncHTTPServerHandler;
+import escuelaing.edu.co.framework.services.interfaces.EventStreamHandler;
 import escuelaing.edu.co.framework.services.interfaces.HTTPServerHandler;
+import escuelaing.edu.co.framework.services.interfaces.WebSocketHandler;
 
-import java.net.*;
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.UncheckedIOException;
 import java.util.logging.Logger;
 
 /**
- * A simple HTTP server that handles basic requests and serves files.
+ * Static API of a default {@link HTTPServer}, for applications that run a single server.
+ * Every method configures or runs that one instance; see {@link HTTPServer} for the details of each setting.
  * @author Miguel Angel Motta
- * @version 1.1
+ * @version 1.2
  * @since 2025-08-22
  */
 public class HTTPServerImpl {
-    private static String RESOURCES_PATH = "src/main/resources";
     private static final Logger logger = Logger.getLogger(HTTPServerImpl.class.getName());
-    private static final Map<String, HTTPServerHandler> routes = new HashMap<>();
-    private static boolean running = false;
+    private static final HTTPServer server = new HTTPServer();
+
+    /**
+     * Returns the default server, for settings the static API does not expose, e.g. more listeners.
+     * @return the default server
+     */
+    public static HTTPServer getServer() {
+        return server;
+    }
 
     /**
      * Registers a GET route with the specified URL and callback handler.
-     * @param url the URL path for the GET request
+     * @param url the URL path for the GET request; segments like {id} capture path parameters and a trailing /* matches any suffix
      * @param callback the handler to process the GET request
      */
     public static void get(String url, HTTPServerHandler callback) {
-        routes.put(url, callback);
+        server.get(url, callback);
     }
 
+    /**
+     * Serves the static files of a folder under src/main/resources, replacing the folder of a previous call.
+     * When that folder does not exist, e.g. when running the packaged JAR, the same folder is served from the classpath.
+     * @param path the folder relative to src/main/resources, e.g. "/webroot"
+     */
     public static void staticFiles(String path) {
-        File file = new File(RESOURCES_PATH + path);
-        if (!file.exists() || !file.isDirectory()) {
-            try {
-                file.mkdirs();
-            } catch (SecurityException e) {
-                logger.warning("Could not create directory: " + path + " due to security restrictions.");
-            }
-        }
-        RESOURCES_PATH += path;
+        server.staticFiles(path);
     }
 
-    // TODO: Implement POST, PUT, DELETE methods
-    public static void post(String url, HTTPServerHandler callback) {
-        logger.warning("POST method is not implemented yet.");
+    /**
+     * Serves the resources under a classpath folder, e.g. the webroot packaged in the application JAR.
+     * @param folder the classpath folder, e.g. "/webroot"
+     */
+    public static void classpathFiles(String folder) {
+        server.classpathFiles(folder);
     }
 
-    public static void put(String url, HTTPServerHandler callback) {
-        logger.warning("PUT method is not implemented yet.");
+    /**
+     * Selects how accepted connections are handled.
+     * @param mode the execution mode
+     * @param size the number of threads for {@link ExecutionMode#BOUNDED_POOL}, ignored otherwise
+     */
+    public static void executionMode(ExecutionMode mode, int size) {
+        server.executionMode(mode, size);
     }
 
-    public static void delete(String url, HTTPServerHandler callback) {
-        logger.warning("DELETE method is not implemented yet.");
+    /**
+     * Sets how long {@link #stop()} waits for in-flight requests to finish.
+     * @param millis the drain timeout in milliseconds
+     */
+    public static void shutdownTimeout(long millis) {
+        server.shutdownTimeout(millis);
     }
 
     /**
-     * Main method to start the HTTP server.
-     * The server listens on given port and handles incoming requests.
-     * @param port the server port to listen on
+     * Sets the number of selector threads used by the {@link ServerEngine#NIO} engine.
+     * @param count the number of event loops
      */
-    public static void start(int port) {
-        ServerSocket serverSocket = null;
-        running = true;
-        try {
-            serverSocket = new ServerSocket(port);
-            logger.info("Running Server... on port: " + port);
-        } catch (IOException e) {
-            logger.warning("Could not listen on port: " + port);
-            System.exit(1);
-        }
-        Socket clientSocket = null;
-        while (running){
-            try {
-                clientSocket = acceptClient(serverSocket);
-                handleRequest(clientSocket);
-            } catch (IOException e) {
-                logger.severe("Error handling request: " + e.getMessage());
-            }
-        }
-        try {
-            serverSocket.close();
-        } catch (IOException e) {
-            logger.warning("Could not close the server socket.");
-        }
+    public static void eventLoops(int count) {
+        server.eventLoops(count);
     }
 
     /**
-     * Stops the HTTP server.
-     * It sets the running flag to false, which will cause the server loop to exit.
+     * Sets the number of threads accepting connections on each listener.
+     * @param count the number of acceptor threads per listener
      */
-    public static void stop() {
-        stopServer();
+    public static void acceptors(int count) {
+        server.acceptors(count);
     }
 
     /**
-     * Accepts a client connection and returns the connected socket.
-     * @param serverSocket the server socket to accept connections from
-     * @return the socket connected to the client
-     * @throws IOException if an I/O error occurs when accepting the connection
+     * Configures persistent connections.
+     * @param maxRequests the maximum number of requests served on one connection, 1 disables keep-alive
+     * @param idleMillis how long an idle connection is kept open waiting for the next request
      */
-    private static Socket acceptClient(ServerSocket serverSocket) throws IOException {
-        logger.info("Waiting for a client connection...");
-        Socket clientSocket;
-        clientSocket = serverSocket.accept();
-        logger.info("New connection accepted");
-        return clientSocket;
+    public static void keepAlive(int maxRequests, long idleMillis) {
+        server.keepAlive(maxRequests, idleMillis);
     }
 
     /**
-     * Handles the incoming request from the client.
-     * It reads the request line, validates it, and processes the request based on the URI.
-     * @param clientSocket the socket connected to the client
-     * @throws IOException if an I/O error occurs when reading from or writing to the socket
+     * Configures how long the server waits on a client.
+     * @param headerMillis how long a request head may take, from its first byte or, for the first request, from the accept
+     * @param bodyMillis how long the server waits for more bytes of a request body
+     * @param writeMillis how long the server waits for a client to take more of its response
      */
-    private static void handleRequest(Socket clientSocket) throws IOException {
-        BufferedReader in = new BufferedReader( new InputStreamReader( clientSocket.getInputStream()));
-        String line = in.readLine();
-        if (line == null || line.split(" ").length <= 1) {
-            handleErrorRequest(clientSocket, HttpServerErrors.BAD_REQUEST_400);
-            clientSocket.close();
-            return;
-        }
-        String[] parts = line.split(" ");
-        String uri = parts[1]; // images/logo.png
-        String path = obtainFilePath(uri);
+    public static void timeouts(long headerMillis, long bodyMillis, long writeMillis) {
+        server.timeouts(headerMillis, bodyMillis, writeMillis);
+    }
 
-        try {
-            if (routes.containsKey(path)) {
-                HTTPFrameworkResponse response = routes.get(path).handleRequest(new HTTPFrameworkRequest(uri), new HTTPFrameworkResponse());
-                handleDynamicRoute(response, clientSocket);
-            }
-            handleStaticRoute(path, clientSocket);
-        } catch (HttpServerErrors e) {
-            logger.warning("Error handling request: " + e.getMessage());
-            handleErrorRequest(clientSocket, e);
-            clientSocket.close();
-        } catch (Exception e) {
-            BufferedOutputStream outData = new BufferedOutputStream(clientSocket.getOutputStream());
-            logger.severe("Unexpected error: " + e.getMessage());
-            logger.severe("Stack trace: ");
-            e.printStackTrace();
-            sendResponse(new PrintWriter(clientSocket.getOutputStream(), true), outData,"500 Internal Server Error");
-            outData.close();
-        }
-        in.close();
-        clientSocket.close();
+    /**
+     * Configures the minimum rate at which clients must send request bodies and read responses.
+     * @param bytesPerSecond the minimum data rate, 0 to disable the check
+     * @param graceMillis how long a transfer may run before its rate is checked
+     */
+    public static void minDataRate(long bytesPerSecond, long graceMillis) {
+        server.minDataRate(bytesPerSecond, graceMillis);
     }
 
     /**
-     * Handles error requests by sending an appropriate HTTP error response.
-     * It constructs the response based on the provided HttpServerErrors instance.
-     * @param clientSocket the socket connected to the client
-     * @param error the HttpServerErrors instance representing the error
-     * @throws IOException if an I/O error occurs when writing to the socket
+     * Configures the default timeout of asynchronous handlers registered afterwards.
+     * @param timeoutMillis how long a handler has to complete its response before 504 Gateway Timeout is sent
      */
-    private static void handleErrorRequest(Socket clientSocket, HttpServerErrors error) throws IOException {
-        PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true);
-        BufferedOutputStream outData = new BufferedOutputStream(clientSocket.getOutputStream());
-        byte[] body = error.getMessage().getBytes(StandardCharsets.UTF_8);
+    public static void asyncTimeout(long timeoutMillis) {
+        server.asyncTimeout(timeoutMillis);
+    }
 
-        out.println("HTTP/1.1 " + error.CODE + " " + error.getMessage());
-        out.println("Content-Type: text/plain; charset=UTF-8");
-        addCORSHeaders(out);
-        out.println("Content-Length: " + body.length);
-        out.println();
-        out.flush();
+    /**
+     * Configures the limits enforced while parsing requests.
+     * @param headerBytes the maximum size of the request line and headers together
+     * @param headerCount the maximum number of header fields
+     * @param bodyBytes the maximum size of a request body
+     */
+    public static void requestLimits(int headerBytes, int headerCount, long bodyBytes) {
+        server.requestLimits(headerBytes, headerCount, bodyBytes);
+    }
 
-        outData.write(body);
-        outData.flush();
+    /**
+     * Replaces the static file cache with one of the given limits.
+     * @param maxTotalBytes the maximum number of bytes held by the cache, 0 disables caching
+     * @param maxEntryBytes the largest response that is cached
+     */
+    public static void staticFileCache(long maxTotalBytes, long maxEntryBytes) {
+        server.staticFileCache(maxTotalBytes, maxEntryBytes);
+    }
 
-        outData.close();
-        out.close();
+    /**
+     * Sets the size above which static files are transferred straight from disk instead of being read into memory.
+     * @param bytes the threshold in bytes
+     */
+    public static void zeroCopyThreshold(long bytes) {
+        server.zeroCopyThreshold(bytes);
     }
 
+    /**
+     * Sets the body size from which dynamic responses are compressed for clients that accept it.
+     * @param bytes the threshold in bytes
+     */
+    public static void compressionThreshold(int bytes) {
+        server.compressionThreshold(bytes);
+    }
 
+    /**
+     * Sets the Cache-Control max-age sent with static files under a path prefix.
+     * @param pathPrefix the path prefix relative to the static files folder, e.g. "/images"
+     * @param maxAgeSeconds how long clients may reuse the file without revalidating it
+     */
+    public static void cacheControl(String pathPrefix, int maxAgeSeconds) {
+        server.cacheControl(pathPrefix, maxAgeSeconds);
+    }
 
     /**
-     * Handles valid routes based on the URI.
-     * It serves files or processes specific requests like "/stop", "/name", and "/books".
-     * @param uri the requested URI
-     * @param clientSocket the socket connected to the client
-     * @throws IOException if an I/O error occurs when reading from or writing to the socket
+     * Returns the static file cache, which exposes its hit, miss and eviction counters.
+     * @return the static file cache
      */
-    private static void handleStaticRoute(String uri, Socket clientSocket) throws IOException {
-        PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true);
-        BufferedOutputStream outData = new BufferedOutputStream(clientSocket.getOutputStream());
-        sendAnyFile(out, outData,uri);
-        outData.close();
-        out.close();
+    public static StaticFileCache getStaticFileCache() {
+        return server.getStaticFileCache();
     }
 
     /**
-     * Handles dynamic routes by sending the response generated by the route handler.
-     * It writes the response body to the client socket.
-     * @param response the HTTPFrameworkResponse containing the response body
-     * @param clientSocket the socket connected to the client
-     * @throws IOException if an I/O error occurs when writing to the socket
+     * Enables request and connection metrics and publishes them at the given path in the Prometheus text format.
+     * Like any route, the endpoint must be registered before {@link #start(int)}.
+     * @param path the URL path of the metrics endpoint, e.g. "/metrics"
+     * @throws IllegalStateException if the server has already started
      */
-    private static void handleDynamicRoute(HTTPFrameworkResponse response, Socket clientSocket) throws IOException {
-        PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true);
-        BufferedOutputStream outData = new BufferedOutputStream(clientSocket.getOutputStream());
-        String responseRaw = response.getBody();
-        sendResponse(out, outData, responseRaw);
-        outData.close();
-        out.close();
+    public static void metrics(String path) {
+        server.metrics(path);
     }
 
     /**
-     * Sends a file response to the client.
-     * It reads the file from the resources directory and sends it back with the appropriate content type.
-     * @param out the PrintWriter to write the response
-     * @param outData the BufferedOutputStream to write the file data
-     * @param filePath the path of the file to be sent
-     * @param contentType the content type of the file
+     * Returns the metrics enabled with {@link #metrics(String)}.
+     * @return the metrics, or null if they are disabled
      */
-    private static void sendFileResponse(PrintWriter out, BufferedOutputStream outData, String filePath, String contentType) throws IOException {
-        File file = new File(RESOURCES_PATH + filePath);
-        if (!file.exists()) {
-            throw HttpServerErrors.NOT_FOUND_404;
-        }
-        try {
-            byte[] fileData = new byte[(int) file.length()];
-            FileInputStream fileIn = new FileInputStream(file);
-            fileIn.read(fileData);
-            fileIn.close();
-
-            out.println("HTTP/1.1 200 OK");
-            out.println("Content-Type: " + contentType);
-            out.println("Content-Length: " + fileData.length);
-            out.println();
-
-            outData.write(fileData, 0, fileData.length);
-        } catch (IOException e) {
-            logger.warning("File not found: " + filePath);
-            sendResponse(out, outData,"404 Not Found");
-        }
+    public static ServerMetrics getMetrics() {
+        return server.getMetrics();
     }
 
     /**
-     * Sends any file based on the provided file path.
-     * It determines the content type based on the file extension and sends the file response.
-     * @param out the PrintWriter to write the response
-     * @param outData the BufferedOutputStream to write the file data
-     * @param filePath the path of the file to be sent
-     * @throws IOException if an I/O error occurs when reading from or writing to the socket
+     * Writes one line per request to the given file, off the request path.
+     * @param file the path of the log file
      */
-    private static void sendAnyFile(PrintWriter out, BufferedOutputStream outData, String filePath) throws IOException {
-        File file = new File(RESOURCES_PATH+filePath);
-        if (!file.exists()) {
-            throw HttpServerErrors.NOT_FOUND_404;
-        }
-        if(filePath.contains(".png") || filePath.contains(".jpg") || filePath.contains(".jpeg")) {
-            sendFileResponse(out, outData, filePath, "image/png");
-        } else if(filePath.contains(".css")) {
-            sendFileResponse(out, outData, filePath, "text/css");
-        } else if(filePath.contains(".js")) {
-            sendFileResponse(out, outData, filePath, "application/javascript");
-        } else if(filePath.contains(".html")) {
-            sendFileResponse(out, outData, filePath, "text/html");
-        } else {
-            sendFileResponse(out, outData, filePath, "application/octet-stream");
-        }
+    public static void accessLog(String file) {
+        server.accessLog(file);
     }
 
+    /**
+     * Writes one line per request to the given file, off the request path.
+     * @param file the path of the log file
+     * @param capacity the number of records buffered before the overflow policy applies
+     * @param maxFileBytes the size at which the file is rotated
+     * @param maxFiles the number of rotated files kept
+     * @param policy whether a record is dropped or the request waits when the buffer is full; the
+     *               {@link ServerEngine#NIO} event loops never wait and drop the records they answer themselves
+     */
+    public static void accessLog(String file, int capacity, long maxFileBytes, int maxFiles, LogOverflowPolicy policy) {
+        server.accessLog(file, capacity, maxFileBytes, maxFiles, policy);
+    }
 
+    /**
+     * Returns the access log enabled with {@link #accessLog(String)}.
+     * @return the access log, or null if it is disabled
+     */
+    public static AccessLog getAccessLog() {
+        return server.getAccessLog();
+    }
 
     /**
-     * Sends a JSON response to the client.
-     * It constructs a JSON string and sends it back with the appropriate content type.
-     * @param out the PrintWriter to write the response
-     * @param outData the BufferedOutputStream to write the JSON data
-     * @param jsonContent the JSON content to be sent
-     * @throws IOException if an I/O error occurs when writing to the socket
+     * Sets the length of the queue of connections the operating system accepts before the server takes them.
+     * @param size the backlog, 0 for the system default
      */
-    private static void sendJSONResponse(PrintWriter out, BufferedOutputStream outData, String jsonContent) throws IOException {
-        byte[] body = jsonContent.getBytes(StandardCharsets.UTF_8);
-        out.println("HTTP/1.1 200 OK");
-        out.println("Content-Type: application/json; charset=UTF-8");
-        addCORSHeaders(out);
-        out.println("Content-Length: " + body.length);
-        out.println();
-        out.flush();
-        outData.write(body);
-        outData.flush();
+    public static void backlog(int size) {
+        server.backlog(size);
     }
 
+    /**
+     * Limits the number of requests handled at the same time.
+     * @param maxInFlight the maximum number of requests handled at the same time
+     * @param maxQueued the maximum number of requests waiting for a slot
+     * @param maxWaitMillis how long a request waits in the queue
+     */
+    public static void admissionControl(int maxInFlight, int maxQueued, long maxWaitMillis) {
+        server.admissionControl(maxInFlight, maxQueued, maxWaitMillis);
+    }
 
     /**
-     * Sends a plain text response to the client.
-     * It constructs a response with the given content and sends it back with the appropriate headers.
-     * @param out the PrintWriter to write the response
-     * @param outData the BufferedOutputStream to write the response data
-     * @param content the content to be sent in the response
-     * @throws IOException if an I/O error occurs when writing to the socket
+     * Limits the rate of requests of each client address with a token bucket.
+     * @param requestsPerSecond the sustained rate allowed to each client
+     * @param burst the number of requests a client may send at once
      */
-    private static void sendResponse(PrintWriter out, BufferedOutputStream outData, String content) throws IOException {
-        byte[] body = content.getBytes(StandardCharsets.UTF_8);
-        out.println("HTTP/1.1 200 OK");
-        out.println("Content-Type: text/plain; charset=UTF-8");
-        addCORSHeaders(out);
-        out.println("Content-Length: " + body.length);
-        out.println();
-        out.flush();
-        outData.write(body);
-        outData.flush();
+    public static void rateLimit(double requestsPerSecond, int burst) {
+        server.rateLimit(requestsPerSecond, burst);
     }
 
+    /**
+     * Sets the Retry-After value sent with 503 Service Unavailable when the server sheds load.
+     * @param seconds how long clients are asked to wait before retrying
+     */
+    public static void retryAfter(int seconds) {
+        server.retryAfter(seconds);
+    }
 
-    private static void stopServer() {
-        running = false;
-        logger.info("Server is stopping...");
+    /**
+     * Registers a POST route with the specified URL and callback handler.
+     * @param url the URL path for the POST request
+     * @param callback the handler to process the POST request
+     */
+    public static void post(String url, HTTPServerHandler callback) {
+        server.post(url, callback);
     }
 
-    private static String obtainFilePath(String uri) {
-        String path = uri.split("\\?")[0];
-        if (path.equals("/")) {
-            return "/index.html";
+    /**
+     * Registers a PUT route with the specified URL and callback handler.
+     * @param url the URL path for the PUT request
+     * @param callback the handler to process the PUT request
+     */
+    public static void put(String url, HTTPServerHandler callback) {
+        server.put(url, callback);
+    }
+
+    /**
+     * Registers a DELETE route with the specified URL and callback handler.
+     * @param url the URL path for the DELETE request
+     * @param callback the handler to process the DELETE request
+     */
+    public static void delete(String url, HTTPServerHandler callback) {
+        server.delete(url, callback);
+    }
+
+    /**
+     * Registers a GET route whose responses are cached for a while, see {@link HTTPServer#getCached}.
+     * @param url the URL path for the GET request
+     * @param callback the handler to process the GET request
+     * @param ttlMillis how long a response is served from the cache
+     * @param maxEntries the maximum number of responses kept for this route, least recently used first out
+     */
+    public static void getCached(String url, HTTPServerHandler callback, long ttlMillis, int maxEntries) {
+        server.getCached(url, callback, ttlMillis, maxEntries);
+    }
+
+    /**
+     * Registers a GET route answered by an asynchronous handler.
+     * @param url the URL path for the GET request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public static void getAsync(String url, AsyncHTTPServerHandler callback) {
+        server.getAsync(url, callback);
+    }
+
+    /**
+     * Registers a GET route answered by an asynchronous handler with its own timeout.
+     * @param url the URL path for the GET request
+     * @param callback the handler that returns the response asynchronously
+     * @param timeoutMillis how long the handler has to complete its response
+     */
+    public static void getAsync(String url, AsyncHTTPServerHandler callback, long timeoutMillis) {
+        server.getAsync(url, callback, timeoutMillis);
+    }
+
+    /**
+     * Registers a POST route answered by an asynchronous handler.
+     * @param url the URL path for the POST request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public static void postAsync(String url, AsyncHTTPServerHandler callback) {
+        server.postAsync(url, callback);
+    }
+
+    /**
+     * Registers a POST route answered by an asynchronous handler with its own timeout.
+     * @param url the URL path for the POST request
+     * @param callback the handler that returns the response asynchronously
+     * @param timeoutMillis how long the handler has to complete its response
+     */
+    public static void postAsync(String url, AsyncHTTPServerHandler callback, long timeoutMillis) {
+        server.postAsync(url, callback, timeoutMillis);
+    }
+
+    /**
+     * Registers a PUT route answered by an asynchronous handler.
+     * @param url the URL path for the PUT request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public static void putAsync(String url, AsyncHTTPServerHandler callback) {
+        server.putAsync(url, callback);
+    }
+
+    /**
+     * Registers a DELETE route answered by an asynchronous handler.
+     * @param url the URL path for the DELETE request
+     * @param callback the handler that returns the response asynchronously
+     */
+    public static void deleteAsync(String url, AsyncHTTPServerHandler callback) {
+        server.deleteAsync(url, callback);
+    }
+
+    /**
+     * Registers a GET route that opens a Server-Sent Events stream.
+     * @param url the URL path of the stream
+     * @param handler the handler called for every client that opens the stream; it may throw an HTTP error to refuse it
+     */
+    public static void eventStream(String url, EventStreamHandler handler) {
+        server.eventStream(url, handler);
+    }
+
+    /**
+     * Registers a GET route that accepts WebSocket connections (RFC 6455).
+     * @param url the URL path of the WebSocket
+     * @param handler the callbacks of the connections, called on the thread of their stream loop
+     */
+    public static void webSocket(String url, WebSocketHandler handler) {
+        server.webSocket(url, handler);
+    }
+
+    /**
+     * Configures the stream routes registered afterwards.
+     * @param maxQueuedMessages how many messages may wait to be written to a client before it is dropped as too slow
+     * @param maxMessageBytes the largest WebSocket message accepted from a client
+     */
+    public static void streamLimits(int maxQueuedMessages, int maxMessageBytes) {
+        server.streamLimits(maxQueuedMessages, maxMessageBytes);
+    }
+
+    /**
+     * Main method to start the HTTP server.
+     * The server listens on given port and serves connections on the calling thread until {@link #stop()} is called.
+     * @param port the server port to listen on
+     */
+    public static void start(int port) {
+        start(port, ServerEngine.BLOCKING);
+    }
+
+    /**
+     * Starts the HTTP server with the given engine. The process exits if the port cannot be bound.
+     * @param port the server port to listen on
+     * @param engine the I/O engine that serves the connections
+     */
+    public static void start(int port, ServerEngine engine) {
+        try {
+            server.start(port, engine);
+        } catch (UncheckedIOException e) {
+            logger.warning("Could not listen on port: " + port);
+            System.exit(1);
         }
-        return path;
     }
 
     /**
-     * Adds CORS headers to the response.
-     * @param out the PrintWriter to write the headers
+     * Stops the HTTP server.
+     * In-flight requests are drained by the thread running {@link #start(int)}.
      */
-    private static void addCORSHeaders(PrintWriter out) {
-        out.println("Access-Control-Allow-Origin: *");
-        out.println("Access-Control-Allow-Methods: GET, POST, PUT, DELETE, OPTIONS");
-        out.println("Access-Control-Allow-Headers: Content-Type");
+    public static void stop() {
+        server.stop();
     }
 }
@@ -0,0 +1,423 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Incremental HTTP/1.x request parser working on raw bytes.
+ * One instance is reused for every request of a connection: bytes are fed as they arrive with
+ * {@link #parse(ByteBuffer)}, which stops right after a complete request so pipelined bytes stay
+ * in the buffer. The request line and headers are scanned in place, without regular expressions
+ * or intermediate line strings, and bodies are read by Content-Length or chunked framing, either
+ * buffered up to the body limit or streamed to the handler through {@link #readBody}.
+ * Malformed input and exceeded limits are reported by throwing the matching {@link HttpServerErrors}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class HttpRequestParser {
+    private static final byte[] EMPTY_BODY = new byte[0];
+    private static final String[] KNOWN_METHODS = {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH"};
+
+    private enum State { HEAD, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, DONE }
+
+    private final int maxHeaderBytes;
+    private final int maxHeaders;
+    private final long maxBodyBytes;
+    private final boolean streamBodies;
+
+    private State state = State.HEAD;
+    private byte[] line;
+    private int lineLength;
+    private int headLength;
+    private char[] nameChars = new char[32];
+
+    private String method;
+    private String target;
+    private String version;
+    private Map<String, String> headers;
+    private byte[] body;
+    private int bodyLength;
+    private long chunkedLength;
+    private long declaredLength;
+    private long remaining;
+
+    /**
+     * Creates a parser.
+     * @param maxHeaderBytes the maximum size of the request line and headers together
+     * @param maxHeaders the maximum number of header fields
+     * @param maxBodyBytes the maximum size of a request body
+     * @param streamBodies true to hand bodies out through {@link #readBody} instead of buffering them
+     */
+    HttpRequestParser(int maxHeaderBytes, int maxHeaders, long maxBodyBytes, boolean streamBodies) {
+        this.maxHeaderBytes = maxHeaderBytes;
+        this.maxHeaders = maxHeaders;
+        this.maxBodyBytes = maxBodyBytes;
+        this.streamBodies = streamBodies;
+        this.line = new byte[Math.min(maxHeaderBytes, 1024)];
+        reset();
+    }
+
+    /**
+     * Consumes bytes until a request is complete or the buffer is exhausted.
+     * A streaming parser stops as soon as the head is complete and leaves the body to {@link #readBody}.
+     * @param in the received bytes, in read mode
+     * @return true once a complete request, or the head of a streamed one, has been parsed;
+     * the bytes after it remain in the buffer
+     * @throws HttpServerErrors if the request is malformed or exceeds a limit
+     */
+    boolean parse(ByteBuffer in) {
+        if (state == State.HEAD) {
+            readHead(in);
+            if (state == State.HEAD) {
+                return false;
+            }
+            if (streamBodies) {
+                return true;
+            }
+        }
+        while (state != State.DONE && in.hasRemaining()) {
+            bodyLength += decode(in, body, bodyLength, body.length - bodyLength);
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * Decodes body bytes of a streamed request.
+     * @param in the received bytes, in read mode
+     * @param dst the array that receives the body bytes
+     * @param off the offset in dst
+     * @param len the maximum number of bytes to decode, greater than zero
+     * @return the number of bytes decoded, 0 if more input is needed, or -1 at the end of the body
+     * @throws HttpServerErrors if the body framing is malformed or exceeds the body limit
+     */
+    int readBody(ByteBuffer in, byte[] dst, int off, int len) {
+        if (state == State.DONE) {
+            return -1;
+        }
+        int decoded = decode(in, dst, off, len);
+        return decoded == 0 && state == State.DONE ? -1 : decoded;
+    }
+
+    /**
+     * Runs the body states of the parser, copying at most len body bytes into dst.
+     */
+    private int decode(ByteBuffer in, byte[] dst, int off, int len) {
+        while (state != State.DONE && in.hasRemaining()) {
+            switch (state) {
+                case BODY:
+                case CHUNK_DATA: {
+                    int count = (int) Math.min(Math.min(remaining, in.remaining()), len);
+                    in.get(dst, off, count);
+                    remaining -= count;
+                    if (remaining == 0) {
+                        state = state == State.BODY ? State.DONE : State.CHUNK_END;
+                    }
+                    return count;
+                }
+                case CHUNK_SIZE:
+                    if (readLine(in)) {
+                        startChunk();
+                    }
+                    break;
+                case CHUNK_END:
+                    if (readLine(in)) {
+                        if (lineLength != 0) {
+                            throw HttpServerErrors.BAD_REQUEST_400;
+                        }
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case TRAILERS:
+                    if (readLine(in)) {
+                        state = lineLength == 0 ? State.DONE : State.TRAILERS;
+                        lineLength = 0;
+                    }
+                    break;
+                default:
+                    return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Tells whether part of a request has been received but not completed.
+     * @return true if the parser is in the middle of a request
+     */
+    boolean inProgress() {
+        return state != State.DONE && (state != State.HEAD || headLength > 0 || lineLength > 0);
+    }
+
+    /**
+     * Tells whether the head of the current request is complete and its body is being received.
+     * @return true if the parser is reading a request body
+     */
+    boolean readingBody() {
+        return state != State.HEAD && state != State.DONE;
+    }
+
+    /**
+     * Builds the request that was just parsed, with its buffered body.
+     * @return the request
+     */
+    HTTPFrameworkRequest request() {
+        return request(new ByteArrayInputStream(body, 0, bodyLength));
+    }
+
+    /**
+     * Builds the request whose head was just parsed.
+     * @param body the stream that delivers the request body
+     * @return the request
+     */
+    HTTPFrameworkRequest request(InputStream body) {
+        return new HTTPFrameworkRequest(method, target, version, headers, body);
+    }
+
+    /**
+     * Returns the size of the current request on the wire: the head plus the declared body length,
+     * or the chunk data received so far for a chunked body.
+     * @return the number of request bytes
+     */
+    long requestBytes() {
+        return headLength + declaredLength + chunkedLength;
+    }
+
+    /**
+     * Prepares the parser for the next request of the connection.
+     */
+    void reset() {
+        state = State.HEAD;
+        lineLength = 0;
+        headLength = 0;
+        method = null;
+        target = null;
+        version = null;
+        headers = new HashMap<>();
+        body = EMPTY_BODY;
+        bodyLength = 0;
+        chunkedLength = 0;
+        declaredLength = 0;
+        remaining = 0;
+    }
+
+    /**
+     * Reads head lines; the first non-empty one is the request line and an empty one ends the head.
+     */
+    private void readHead(ByteBuffer in) {
+        while (in.hasRemaining()) {
+            int before = lineLength;
+            boolean complete = readLine(in);
+            headLength += lineLength - before + (complete ? 1 : 0);
+            if (headLength > maxHeaderBytes) {
+                throw HttpServerErrors.REQUEST_HEADER_FIELDS_TOO_LARGE_431;
+            }
+            if (!complete) {
+                return;
+            }
+            if (method == null) {
+                if (lineLength > 0) {
+                    parseRequestLine();
+                }
+            } else if (lineLength == 0) {
+                startBody();
+                return;
+            } else {
+                parseHeader();
+            }
+            lineLength = 0;
+        }
+    }
+
+    /**
+     * Copies bytes into the line buffer until a line feed.
+     * @return true if a complete line, without its CRLF, is in the line buffer
+     */
+    private boolean readLine(ByteBuffer in) {
+        while (in.hasRemaining()) {
+            byte b = in.get();
+            if (b == '\n') {
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+            if (lineLength == line.length) {
+                if (lineLength >= maxHeaderBytes) {
+                    throw HttpServerErrors.REQUEST_HEADER_FIELDS_TOO_LARGE_431;
+                }
+                line = Arrays.copyOf(line, Math.min(line.length * 2, maxHeaderBytes));
+            }
+            line[lineLength++] = b;
+        }
+        return false;
+    }
+
+    private void parseRequestLine() {
+        int firstSpace = indexOf((byte) ' ', 0);
+        int secondSpace = firstSpace < 0 ? -1 : indexOf((byte) ' ', firstSpace + 1);
+        if (firstSpace <= 0 || secondSpace <= firstSpace + 1 || secondSpace == lineLength - 1) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        for (int i = 0; i < firstSpace; i++) {
+            if (line[i] < 'A' || line[i] > 'Z') {
+                throw HttpServerErrors.BAD_REQUEST_400;
+            }
+        }
+        method = method(firstSpace);
+        target = ascii(firstSpace + 1, secondSpace);
+        version = ascii(secondSpace + 1, lineLength);
+        if (!version.startsWith("HTTP/1.")) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+    }
+
+    private void parseHeader() {
+        if (line[0] == ' ' || line[0] == '\t') {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        int colon = indexOf((byte) ':', 0);
+        if (colon <= 0) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        if (headers.size() >= maxHeaders) {
+            throw HttpServerErrors.REQUEST_HEADER_FIELDS_TOO_LARGE_431;
+        }
+        if (nameChars.length < colon) {
+            nameChars = new char[colon];
+        }
+        for (int i = 0; i < colon; i++) {
+            byte b = line[i];
+            if (b == ' ' || b == '\t') {
+                throw HttpServerErrors.BAD_REQUEST_400;
+            }
+            nameChars[i] = (char) (b >= 'A' && b <= 'Z' ? b + 32 : b & 0xFF);
+        }
+        int start = colon + 1;
+        int end = lineLength;
+        while (start < end && (line[start] == ' ' || line[start] == '\t')) {
+            start++;
+        }
+        while (end > start && (line[end - 1] == ' ' || line[end - 1] == '\t')) {
+            end--;
+        }
+        String name = new String(nameChars, 0, colon);
+        String value = new String(line, start, end - start, StandardCharsets.ISO_8859_1);
+        headers.merge(name, value, (first, next) -> first + ", " + next);
+    }
+
+    private void startBody() {
+        lineLength = 0;
+        String transferEncoding = headers.get("transfer-encoding");
+        if (transferEncoding != null) {
+            String coding = transferEncoding.substring(transferEncoding.lastIndexOf(',') + 1).trim();
+            if (!coding.equalsIgnoreCase("chunked")) {
+                throw HttpServerErrors.NOT_IMPLEMENTED_501;
+            }
+            headers.remove("content-length");
+            state = State.CHUNK_SIZE;
+            return;
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength == null) {
+            state = State.DONE;
+            return;
+        }
+        long length;
+        try {
+            length = Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        if (length < 0) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        if (length > maxBodyBytes) {
+            throw HttpServerErrors.PAYLOAD_TOO_LARGE_413;
+        }
+        if (length == 0) {
+            state = State.DONE;
+            return;
+        }
+        if (!streamBodies) {
+            body = new byte[(int) length];
+        }
+        declaredLength = length;
+        remaining = length;
+        state = State.BODY;
+    }
+
+    private void startChunk() {
+        long size = 0;
+        int digits = 0;
+        for (int i = 0; i < lineLength && line[i] != ';'; i++) {
+            int digit = Character.digit(line[i], 16);
+            if (digit < 0) {
+                if (line[i] == ' ' || line[i] == '\t') {
+                    continue;
+                }
+                throw HttpServerErrors.BAD_REQUEST_400;
+            }
+            size = size * 16 + digit;
+            if (++digits > 15) {
+                throw HttpServerErrors.PAYLOAD_TOO_LARGE_413;
+            }
+        }
+        lineLength = 0;
+        if (digits == 0) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        if (size == 0) {
+            state = State.TRAILERS;
+            return;
+        }
+        chunkedLength += size;
+        if (chunkedLength > maxBodyBytes) {
+            throw HttpServerErrors.PAYLOAD_TOO_LARGE_413;
+        }
+        if (!streamBodies && bodyLength + size > body.length) {
+            body = Arrays.copyOf(body, (int) Math.min(maxBodyBytes, Math.max(body.length * 2L, bodyLength + size)));
+        }
+        remaining = size;
+        state = State.CHUNK_DATA;
+    }
+
+    private int indexOf(byte value, int from) {
+        for (int i = from; i < lineLength; i++) {
+            if (line[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String method(int length) {
+        for (String known : KNOWN_METHODS) {
+            if (known.length() == length && matches(known)) {
+                return known;
+            }
+        }
+        return ascii(0, length);
+    }
+
+    private boolean matches(String known) {
+        for (int i = 0; i < known.length(); i++) {
+            if (line[i] != known.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String ascii(int start, int end) {
+        return new String(line, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+}
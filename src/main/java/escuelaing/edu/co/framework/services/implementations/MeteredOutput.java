@@ -0,0 +1,88 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Counts the bytes of a response and reads its status code from the status line on the way through.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class MeteredOutput extends ResponseOutput {
+    private static final int STATUS_OFFSET = "HTTP/1.1 ".length();
+    private static final int STATUS_END = STATUS_OFFSET + 3;
+
+    private final ResponseOutput target;
+    private long bytes;
+    private int status;
+
+    MeteredOutput(ResponseOutput target) {
+        this.target = target;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        sniff(bytes, b);
+        bytes++;
+        target.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        count(b, off, len);
+        target.write(b, off, len);
+    }
+
+    @Override
+    void write(byte[] head, int headLength, byte[] body, int off, int len) throws IOException {
+        count(head, 0, headLength);
+        bytes += len;
+        target.write(head, headLength, body, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    void transferFile(Path file, long position, long count) throws IOException {
+        bytes += count;
+        target.transferFile(file, position, count);
+    }
+
+    @Override
+    void upgrade(StreamSubscriber stream) {
+        target.upgrade(stream);
+    }
+
+    /**
+     * Returns the number of bytes written, including file regions.
+     * @return the response size
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the status code of the response.
+     * @return the status code, or 0 if no status line was written
+     */
+    int getStatus() {
+        return status;
+    }
+
+    private void count(byte[] b, int off, int len) {
+        for (int i = 0; i < len && bytes + i < STATUS_END; i++) {
+            sniff(bytes + i, b[off + i]);
+        }
+        bytes += len;
+    }
+
+    private void sniff(long position, int b) {
+        if (position >= STATUS_OFFSET && position < STATUS_END) {
+            status = status * 10 + (b - '0');
+        }
+    }
+}
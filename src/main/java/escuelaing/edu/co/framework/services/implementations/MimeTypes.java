@@ -0,0 +1,69 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Content types of static files, resolved from the file extension.
+ * Only the last extension counts, so {@code app.json.css} is a stylesheet and {@code photo.jpg} is a JPEG.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class MimeTypes {
+    static final String DEFAULT = "application/octet-stream";
+    private static final Map<String, String> TYPES = new HashMap<>();
+
+    static {
+        TYPES.put("html", "text/html");
+        TYPES.put("htm", "text/html");
+        TYPES.put("css", "text/css");
+        TYPES.put("js", "application/javascript");
+        TYPES.put("mjs", "application/javascript");
+        TYPES.put("json", "application/json");
+        TYPES.put("map", "application/json");
+        TYPES.put("xml", "application/xml");
+        TYPES.put("txt", "text/plain");
+        TYPES.put("csv", "text/csv");
+        TYPES.put("md", "text/markdown");
+        TYPES.put("png", "image/png");
+        TYPES.put("jpg", "image/jpeg");
+        TYPES.put("jpeg", "image/jpeg");
+        TYPES.put("gif", "image/gif");
+        TYPES.put("webp", "image/webp");
+        TYPES.put("avif", "image/avif");
+        TYPES.put("svg", "image/svg+xml");
+        TYPES.put("ico", "image/x-icon");
+        TYPES.put("woff", "font/woff");
+        TYPES.put("woff2", "font/woff2");
+        TYPES.put("ttf", "font/ttf");
+        TYPES.put("otf", "font/otf");
+        TYPES.put("pdf", "application/pdf");
+        TYPES.put("wasm", "application/wasm");
+        TYPES.put("zip", "application/zip");
+        TYPES.put("gz", "application/gzip");
+        TYPES.put("mp3", "audio/mpeg");
+        TYPES.put("ogg", "audio/ogg");
+        TYPES.put("wav", "audio/wav");
+        TYPES.put("mp4", "video/mp4");
+        TYPES.put("webm", "video/webm");
+    }
+
+    private MimeTypes() {
+    }
+
+    /**
+     * Resolves the content type of a file.
+     * @param fileName the file name or path
+     * @return the content type, {@link #DEFAULT} if the extension is not known
+     */
+    static String forName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return DEFAULT;
+        }
+        String type = TYPES.get(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+        return type != null ? type : DEFAULT;
+    }
+}
@@ -0,0 +1,785 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.metrics.ServerMetrics;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking server engine built on a fixed number of selector event loops.
+ * The acceptor threads of the server hand accepted connections to {@link #register(SocketChannel)}, which
+ * spreads them round-robin over the loops; the loops read requests into a reusable buffer and write responses without blocking.
+ * Connections are persistent: pipelined requests are answered in order. Idle, slow and stalled connections
+ * are found by the server's shared timer wheel, which hands them back to their loop to be closed, with
+ * 408 Request Timeout when a request was being received. File regions are queued as open channels and sent
+ * with non-blocking {@link FileChannel#transferTo} calls.
+ * Responses are produced by {@link HTTPServer#processRequest(HTTPFrameworkRequest, int, ResponseOutput, long)},
+ * so both engines share the same routes and handlers. Nothing that may block runs on a loop: a request with a
+ * synchronous handler, or for a static file that must be read or compressed, is answered on the server's worker
+ * threads, and one with an asynchronous handler once its future completes, also on a worker. Either way the
+ * response reserves its place in the response queue and reaches the loop through a bounded queue of chunks, so
+ * a streamed body is sent while it is written and takes constant memory. Cached and preloaded static files,
+ * regions sent straight from disk and errors are answered on the loop. The handler of an event stream or a
+ * WebSocket also runs on a worker, which writes the response head that opens the stream.
+ * A connection switched to an event stream or a WebSocket is handed to a {@link StreamLoop} once its response head is written.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class NioServerEngine {
+    private static final Logger logger = Logger.getLogger(NioServerEngine.class.getName());
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final EventLoop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates the engine.
+     * @param server the server whose requests the engine answers
+     * @param eventLoops the number of selector threads
+     * @throws IOException if a selector cannot be opened
+     */
+    NioServerEngine(HTTPServer server, int eventLoops) throws IOException {
+        loops = new EventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; i++) {
+            loops[i] = new EventLoop(server, "http-nio-" + i);
+        }
+    }
+
+    /**
+     * Starts the event loops.
+     */
+    void start() {
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Hands an accepted connection to the next event loop. Called by the acceptor threads.
+     * @param channel the channel connected to the client
+     * @throws IOException if the channel cannot be made non-blocking
+     */
+    void register(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        loops[Math.floorMod(next.getAndIncrement(), loops.length)].register(channel);
+    }
+
+    /**
+     * Tells whether the current thread is an event loop, which must never block.
+     * @return true on an event loop thread
+     */
+    static boolean onEventLoop() {
+        return Thread.currentThread() instanceof LoopThread;
+    }
+
+    /**
+     * Closes the event loops and their connections, once the acceptors are done, and waits for them.
+     */
+    void stop() {
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A selector thread that owns a set of connections.
+     */
+    private static final class EventLoop implements Runnable {
+        private final HTTPServer server;
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final Thread thread;
+        private volatile boolean open = true;
+
+        EventLoop(HTTPServer server, String name) throws IOException {
+            this.server = server;
+            selector = Selector.open();
+            thread = new LoopThread(this, name);
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        /**
+         * Runs a task on the loop thread, e.g. resuming a connection once a worker has written part of its response.
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            open = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (open) {
+                    selector.select();
+                    registerPending();
+                    runTasks();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                }
+            } catch (IOException e) {
+                logger.severe("Event loop failed: " + e.getMessage());
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                Connection connection = new Connection(this, channel.socket().getInetAddress());
+                try {
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                    ServerMetrics metrics = server.getMetrics();
+                    if (metrics != null) {
+                        metrics.connectionOpened();
+                    }
+                } catch (ClosedChannelException e) {
+                    connection.timeout.close();
+                    logger.fine("Connection closed before registration");
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        /**
+         * Marks the response of a worker as complete and resumes writing.
+         */
+        private void finish(Connection connection, WorkerResponse response, boolean keepAlive) {
+            response.finish();
+            if (response.upgraded() != null) {
+                connection.upgrade = response.upgraded();
+            }
+            if (!keepAlive) {
+                connection.closeAfter(response);
+            }
+            resume(connection);
+        }
+
+        /**
+         * Resumes writing a connection that waits for the content of its next response.
+         */
+        private void resume(Connection connection) {
+            SelectionKey key = connection.key;
+            if (key == null || !key.isValid() || key.interestOps() != 0) {
+                return;
+            }
+            try {
+                key.interestOps(SelectionKey.OP_WRITE);
+                write(key);
+            } catch (IOException e) {
+                logger.fine("Connection error: " + e.getMessage());
+                close(key);
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            try {
+                if (!key.isValid()) {
+                    return;
+                }
+                if (key.isReadable()) {
+                    read(key);
+                } else if (key.isWritable()) {
+                    write(key);
+                }
+            } catch (IOException e) {
+                logger.fine("Connection error: " + e.getMessage());
+                close(key);
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection connection = (Connection) key.attachment();
+            readBuffer.clear();
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                close(key);
+                return;
+            }
+            readBuffer.flip();
+            connection.received(read);
+            respond(connection);
+            if (!connection.outbound.isEmpty()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                write(key);
+            } else {
+                connection.updateTimeout();
+            }
+        }
+
+        /**
+         * Feeds the received bytes to the connection parser and answers every complete request, in arrival order.
+         */
+        private void respond(Connection connection) throws IOException {
+            while (!connection.closing && readBuffer.hasRemaining()) {
+                try {
+                    if (connection.parser.parse(readBuffer)) {
+                        connection.queue(connection.parser.request(), connection.parser.requestBytes());
+                        connection.parser.reset();
+                    }
+                } catch (HttpServerErrors e) {
+                    connection.reject(e);
+                }
+            }
+            // bytes after the last request are kept for the stream it may open, e.g. the first WebSocket frames
+            if (connection.closing && readBuffer.hasRemaining()) {
+                connection.leftover = ByteBuffer.allocate(readBuffer.remaining()).put(readBuffer).flip();
+            }
+        }
+
+        private void write(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            SocketChannel channel = (SocketChannel) key.channel();
+            Outbound next;
+            while ((next = connection.outbound.peek()) != null) {
+                if (next.isReady()) {
+                    connection.timeout.await(ConnectionTimeout.WRITE);
+                    if (next.writeTo(channel, connection.timeout)) {
+                        connection.outbound.poll().close();
+                        continue;
+                    }
+                    if (next.isReady()) {
+                        // the channel is full
+                        return;
+                    }
+                }
+                // waiting for a handler, resumed by resume()
+                key.interestOps(0);
+                connection.timeout.pause();
+                return;
+            }
+            if (connection.closing) {
+                if (connection.upgrade != null) {
+                    handOff(key, connection);
+                } else {
+                    close(key);
+                }
+                return;
+            }
+            connection.updateTimeout();
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        /**
+         * Moves a connection switched to a stream to a stream loop, once its response head is written.
+         * It stays counted as open in the metrics until the stream loop closes it.
+         */
+        private void handOff(SelectionKey key, Connection connection) {
+            key.cancel();
+            connection.timeout.close();
+            server.upgrade((SocketChannel) key.channel(), connection.upgrade, connection.leftover);
+        }
+
+        /**
+         * Closes a connection the timer wheel found exceeding a timeout, answering 408 Request Timeout
+         * first if it was sending a request and no response is pending.
+         */
+        private void expire(Connection connection) {
+            SelectionKey key = connection.key;
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            if (connection.timeout.isRequestTimeout() && connection.outbound.isEmpty()) {
+                try {
+                    connection.reject(HttpServerErrors.REQUEST_TIMEOUT_408);
+                    write(key);
+                } catch (IOException e) {
+                    logger.fine("Connection error: " + e.getMessage());
+                }
+            }
+            if (key.isValid()) {
+                close(key);
+            }
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+            Connection connection = (Connection) key.attachment();
+            if (connection != null) {
+                connection.timeout.close();
+                connection.release();
+            }
+            ServerMetrics metrics = server.getMetrics();
+            if (metrics != null && connection != null && key.channel().isOpen()) {
+                metrics.connectionClosed();
+            }
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                logger.fine("Could not close connection: " + e.getMessage());
+            }
+        }
+
+        private void closeAll() {
+            for (SelectionKey key : selector.keys()) {
+                // keys cancelled by a hand-off still belong to the selector until the next select
+                if (key.isValid()) {
+                    close(key);
+                }
+            }
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.fine("Could not close connection: " + e.getMessage());
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.warning("Could not close the selector.");
+            }
+        }
+    }
+
+    /**
+     * The thread of an event loop, recognized by {@link #onEventLoop()}.
+     */
+    private static final class LoopThread extends Thread {
+        LoopThread(Runnable loop, String name) {
+            super(loop, name);
+        }
+    }
+
+    /**
+     * Per-connection state: the request parser, the queued responses and the timeout.
+     */
+    private static final class Connection {
+        private final HTTPServer server;
+        private final HttpRequestParser parser;
+        private final EventLoop loop;
+        private final InetAddress address;
+        private final ConnectionTimeout timeout;
+        private SelectionKey key;
+        private int served;
+        private boolean closing;
+        private StreamSubscriber upgrade;
+        private ByteBuffer leftover;
+        private final Queue<Outbound> outbound = new ArrayDeque<>();
+
+        Connection(EventLoop loop, InetAddress address) {
+            this.server = loop.server;
+            this.parser = server.newParser(false);
+            this.loop = loop;
+            this.address = address;
+            this.timeout = server.watch(phase -> loop.execute(() -> loop.expire(this)));
+        }
+
+        /**
+         * Counts bytes just read: body bytes feed the data rate, head bytes start the header timeout.
+         */
+        void received(int bytes) {
+            if (parser.readingBody()) {
+                timeout.progress(bytes);
+            } else if (outbound.isEmpty()) {
+                timeout.headReceived();
+            }
+        }
+
+        /**
+         * Tells the timeout what the connection waits for once it has nothing to write.
+         */
+        void updateTimeout() {
+            if (parser.readingBody()) {
+                timeout.await(ConnectionTimeout.BODY);
+            } else if (parser.inProgress()) {
+                timeout.headReceived();
+            } else {
+                timeout.awaitRequest(false);
+            }
+        }
+
+        void queue(HTTPFrameworkRequest request, long bytesIn) throws IOException {
+            served++;
+            long start = System.nanoTime();
+            request.setRemoteAddress(address);
+            byte[] rejection = server.admit(request, false);
+            if (rejection != null) {
+                server.reject(request, rejection, new QueuedOutput(outbound), bytesIn);
+                closing = true;
+                return;
+            }
+            CompletableFuture<HTTPFrameworkResponse> pending = server.startAsync(request);
+            if (pending != null) {
+                WorkerResponse response = new WorkerResponse(this);
+                outbound.add(response);
+                closing = !server.mayKeepAlive(request, served);
+                int number = served;
+                pending.whenComplete((result, error) -> dispatch(response, request, number, bytesIn, start, pending));
+                return;
+            }
+            if (server.mayBlock(request)) {
+                WorkerResponse response = new WorkerResponse(this);
+                outbound.add(response);
+                // requests after the last one of the connection are not parsed, let alone handled, and neither
+                // are the bytes after a request that opens a stream
+                closing = server.opensStream(request) || !server.mayKeepAlive(request, served);
+                dispatch(response, request, served, bytesIn, start, null);
+                return;
+            }
+            QueuedOutput response = new QueuedOutput(outbound);
+            try {
+                closing = !server.processRequest(request, served, response, bytesIn, start, null);
+            } finally {
+                server.release();
+            }
+            response.flush();
+        }
+
+        /**
+         * Answers a request on a worker thread. When the workers are saturated it is refused with
+         * 503 Service Unavailable, which closes the connection. Called on the loop, or on the thread
+         * that completes the future of an asynchronous handler.
+         * @param completed the completed future of an asynchronous handler, or null to call the handler
+         */
+        private void dispatch(WorkerResponse response, HTTPFrameworkRequest request, int number, long bytesIn, long start,
+                              CompletableFuture<HTTPFrameworkResponse> completed) {
+            try {
+                server.execute(() -> {
+                    boolean keepAlive = false;
+                    try {
+                        keepAlive = server.processRequest(request, number, response, bytesIn, start, completed);
+                        response.flush();
+                    } catch (IOException e) {
+                        logger.fine("Connection error: " + e.getMessage());
+                    } finally {
+                        server.release();
+                        boolean persistent = keepAlive;
+                        loop.execute(() -> loop.finish(this, response, persistent));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                server.release();
+                try {
+                    HTTPServer.processError(HttpServerErrors.SERVICE_UNAVAILABLE_503, response);
+                    response.flush();
+                } catch (IOException closed) {
+                    logger.fine("Connection error: " + closed.getMessage());
+                }
+                loop.execute(() -> loop.finish(this, response, false));
+            }
+        }
+
+        /**
+         * Drops the responses queued after the given one, which is the last the client will receive.
+         */
+        void closeAfter(Outbound last) {
+            closing = true;
+            boolean after = false;
+            for (Iterator<Outbound> it = outbound.iterator(); it.hasNext(); ) {
+                Outbound next = it.next();
+                if (after) {
+                    next.close();
+                    it.remove();
+                }
+                after |= next == last;
+            }
+        }
+
+        void reject(HttpServerErrors error) throws IOException {
+            QueuedOutput response = new QueuedOutput(outbound);
+            HTTPServer.processError(error, response);
+            response.flush();
+            closing = true;
+        }
+
+        void release() {
+            Outbound next;
+            while ((next = outbound.poll()) != null) {
+                next.close();
+            }
+        }
+    }
+
+    /**
+     * A pending piece of a response.
+     */
+    private interface Outbound {
+        /**
+         * Writes as much as the channel accepts, reporting the bytes written to the connection timeout.
+         * @return true once everything has been written
+         */
+        boolean writeTo(SocketChannel channel, ConnectionTimeout timeout) throws IOException;
+
+        void close();
+
+        /**
+         * Tells whether content is available; only a response still being written by a worker may have none.
+         */
+        default boolean isReady() {
+            return true;
+        }
+    }
+
+    private static final class BufferOutbound implements Outbound {
+        private final ByteBuffer buffer;
+
+        BufferOutbound(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean writeTo(SocketChannel channel, ConnectionTimeout timeout) throws IOException {
+            timeout.progress(channel.write(buffer));
+            return !buffer.hasRemaining();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class FileOutbound implements Outbound {
+        private final FileChannel file;
+        private long position;
+        private long remaining;
+
+        FileOutbound(FileChannel file, long position, long count) {
+            this.file = file;
+            this.position = position;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean writeTo(SocketChannel channel, ConnectionTimeout timeout) throws IOException {
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, channel);
+                timeout.progress(sent);
+                if (sent <= 0) {
+                    if (position >= file.size()) {
+                        throw new IOException("File truncated while sending");
+                    }
+                    return false;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.fine("Could not close file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The response of a request answered on a worker thread. The worker writes into it like any output and
+     * the loop sends each chunk as soon as it is flushed. At most {@link #MAX_CHUNKS} chunks wait to be sent;
+     * beyond that the worker blocks until the client reads, so a long response takes constant memory.
+     * The worker is released with an exception if the connection closes in the meantime.
+     */
+    private static final class WorkerResponse extends ResponseOutput implements Outbound {
+        private static final int MAX_CHUNKS = 16;
+
+        private final Connection connection;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+        private ByteBuffer current;
+        private boolean finished;
+        private boolean closed;
+
+        WorkerResponse(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            pending.write(b);
+            if (pending.size() >= READ_BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int step = Math.min(len, READ_BUFFER_SIZE - pending.size());
+                pending.write(b, off, step);
+                off += step;
+                len -= step;
+                if (pending.size() >= READ_BUFFER_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Queues what has been written for the loop, waiting while the queue is full.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (pending.size() == 0) {
+                return;
+            }
+            ByteBuffer chunk = ByteBuffer.wrap(pending.toByteArray());
+            pending.reset();
+            synchronized (this) {
+                try {
+                    while (chunks.size() >= MAX_CHUNKS && !closed) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while sending the response");
+                }
+                if (closed) {
+                    throw new IOException("Connection closed");
+                }
+                chunks.add(chunk);
+            }
+            EventLoop loop = connection.loop;
+            loop.execute(() -> loop.resume(connection));
+        }
+
+        @Override
+        void transferFile(Path file, long position, long count) throws IOException {
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                while (count > 0) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), count));
+                    int read = source.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("File truncated while sending: " + file);
+                    }
+                    write(buffer.array(), 0, read);
+                    position += read;
+                    count -= read;
+                }
+            }
+        }
+
+        /**
+         * Marks the response complete. Called on the loop once the worker is done.
+         */
+        synchronized void finish() {
+            finished = true;
+        }
+
+        @Override
+        public synchronized boolean isReady() {
+            return current != null || !chunks.isEmpty() || finished;
+        }
+
+        @Override
+        public boolean writeTo(SocketChannel channel, ConnectionTimeout timeout) throws IOException {
+            while (true) {
+                if (current == null) {
+                    synchronized (this) {
+                        current = chunks.poll();
+                        if (current == null) {
+                            return finished;
+                        }
+                        notifyAll();
+                    }
+                }
+                timeout.progress(channel.write(current));
+                if (current.hasRemaining()) {
+                    return false;
+                }
+                current = null;
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            chunks.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Collects a response into the outbound queue of a connection.
+     * Bytes are gathered in memory, file regions are queued as open channels.
+     */
+    private static final class QueuedOutput extends ResponseOutput {
+        private final Queue<Outbound> outbound;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        QueuedOutput(Queue<Outbound> outbound) {
+            this.outbound = outbound;
+        }
+
+        @Override
+        public void write(int b) {
+            pending.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            pending.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            if (pending.size() > 0) {
+                outbound.add(new BufferOutbound(ByteBuffer.wrap(pending.toByteArray())));
+                pending.reset();
+            }
+        }
+
+        @Override
+        void transferFile(Path file, long position, long count) throws IOException {
+            flush();
+            outbound.add(new FileOutbound(FileChannel.open(file, StandardOpenOption.READ), position, count));
+        }
+    }
+}
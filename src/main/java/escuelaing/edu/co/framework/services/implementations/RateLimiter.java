@@ -0,0 +1,105 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-client token bucket rate limiter.
+ * Each client address gets a bucket holding up to {@code burst} tokens, refilled at a steady rate;
+ * a request takes one token and is refused when the bucket is empty. Once many clients are tracked,
+ * buckets that have refilled completely are dropped, since a new bucket would be the same.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class RateLimiter {
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final Map<InetAddress, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.nanoTime();
+
+    /**
+     * Creates the limiter.
+     * @param requestsPerSecond the sustained rate allowed to each client
+     * @param burst the number of requests a client may send at once after being idle
+     */
+    RateLimiter(double requestsPerSecond, int burst) {
+        this.tokensPerNano = requestsPerSecond / 1_000_000_000.0;
+        this.burst = burst;
+    }
+
+    /**
+     * Takes a token from the bucket of a client.
+     * @param client the client address, or null if it is not known
+     * @return true if the request is allowed
+     */
+    boolean tryAcquire(InetAddress client) {
+        if (client == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_TRACKED_CLIENTS) {
+                sweep(now);
+            }
+            bucket = buckets.computeIfAbsent(client, key -> new Bucket(burst, now));
+        }
+        return bucket.take(now, tokensPerNano, burst);
+    }
+
+    /**
+     * Returns the number of seconds until a client with an empty bucket may send one request.
+     * @return the refill time of one token, rounded up, at least 1
+     */
+    int secondsPerToken() {
+        return (int) Math.max(1, Math.ceil(1 / (tokensPerNano * 1_000_000_000.0)));
+    }
+
+    int getTrackedClients() {
+        return buckets.size();
+    }
+
+    private void sweep(long now) {
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS) {
+            return;
+        }
+        lastSweep = now;
+        buckets.values().removeIf(bucket -> bucket.isFull(now, tokensPerNano, burst));
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updated;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updated = now;
+        }
+
+        synchronized boolean take(long now, double tokensPerNano, double burst) {
+            refill(now, tokensPerNano, burst);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized boolean isFull(long now, double tokensPerNano, double burst) {
+            refill(now, tokensPerNano, burst);
+            return tokens >= burst;
+        }
+
+        private void refill(long now, double tokensPerNano, double burst) {
+            if (now > updated) {
+                tokens = Math.min(burst, tokens + (now - updated) * tokensPerNano);
+                updated = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Body of a request read from a blocking connection while the handler consumes it.
+ * Bytes already buffered with the request head are decoded first, then the buffer is refilled
+ * from the socket, so only one connection buffer is held in memory whatever the body size.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class RequestBodyStream extends InputStream {
+    private final InputStream socket;
+    private final ByteBuffer buffer;
+    private final HttpRequestParser parser;
+    private boolean finished;
+
+    /**
+     * Creates the body stream of the request whose head the parser just read.
+     * @param socket the socket input stream
+     * @param buffer the connection buffer, in read mode
+     * @param parser the parser of the connection, positioned at the start of the body
+     */
+    RequestBodyStream(InputStream socket, ByteBuffer buffer, HttpRequestParser parser) {
+        this.socket = socket;
+        this.buffer = buffer;
+        this.parser = parser;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (!finished) {
+            int decoded = parser.readBody(buffer, b, off, len);
+            if (decoded > 0) {
+                return decoded;
+            }
+            if (decoded < 0) {
+                finished = true;
+                break;
+            }
+            int read = socket.read(buffer.array(), 0, buffer.capacity());
+            if (read < 0) {
+                throw new EOFException("Connection closed before the request body was complete");
+            }
+            buffer.clear();
+            buffer.limit(read);
+        }
+        return -1;
+    }
+
+    /**
+     * Reads and discards the rest of the body so the next request on the connection can be parsed.
+     * @throws IOException if the connection fails while reading the body
+     */
+    void drain() throws IOException {
+        byte[] skip = new byte[4096];
+        while (read(skip, 0, skip.length) >= 0) {
+            // discard
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ResponseCache;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Encodes the responses built by route handlers: the head chosen by the handler with the server's CORS
+ * headers, then a body held in memory, compressed when it is large and textual, or a streamed body.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class ResponseEncoder {
+    private static final Logger logger = Logger.getLogger(ResponseEncoder.class.getName());
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private volatile int compressionThreshold = 1024;
+
+    void setCompressionThreshold(int bytes) {
+        compressionThreshold = bytes;
+    }
+
+    /**
+     * Sends the response generated by a route handler.
+     * The status and headers set by the handler are sent as they are. A body held in memory is sent with
+     * Content-Length and compressed when it is large and textual; a streamed body is sent with chunked
+     * transfer coding, or until the connection closes for HTTP/1.0 clients.
+     * @param response the HTTPFrameworkResponse built by the handler
+     * @param outData the stream that receives the response
+     * @param encoding the content coding accepted by the client, or null for identity
+     * @param keepAlive whether the connection may stay open after the response
+     * @param chunked whether the client accepts chunked transfer coding
+     * @return true if the connection stays open after the response
+     * @throws IOException if an I/O error occurs when writing to the socket
+     */
+    boolean send(HTTPFrameworkResponse response, ResponseOutput outData, String encoding, boolean keepAlive, boolean chunked) throws IOException {
+        HTTPFrameworkResponse.BodyWriter bodyWriter = response.getBodyWriter();
+        if (bodyWriter == null) {
+            sendResponse(response, outData, encoding, keepAlive);
+            return keepAlive;
+        }
+        boolean sized = response.getHeader("Content-Length") != null;
+        keepAlive = keepAlive && (sized || chunked);
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writeResponseHead(writer, response, true);
+            if (!sized && chunked) {
+                writer.append(ResponseWriter.CHUNKED);
+            }
+            writer.end(keepAlive).send(outData);
+        }
+        OutputStream body = sized || !chunked ? new FilterOutputStream(outData) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        } : new ChunkedOutputStream(outData, CHUNK_SIZE);
+        try {
+            bodyWriter.writeTo(body);
+            body.close();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Streamed response failed: " + e.getMessage(), e);
+            return false;
+        }
+        return keepAlive;
+    }
+
+    /**
+     * Appends the status line, the handler headers with a default Content-Type, and the CORS headers.
+     * @param writer the writer of the response head
+     * @param response the response built by the handler
+     * @param contentLength whether the Content-Length set by the handler is sent; false when the server
+     *                      writes the length of the body it actually sends
+     */
+    private static void writeResponseHead(ResponseWriter writer, HTTPFrameworkResponse response, boolean contentLength) {
+        writer.status(response.getStatus());
+        if (response.getHeader("Content-Type") == null) {
+            writer.append(ResponseWriter.CONTENT_TYPE_TEXT);
+        }
+        for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+            if (contentLength || !header.getKey().equalsIgnoreCase("Content-Length")) {
+                writer.header(header.getKey(), header.getValue());
+            }
+        }
+        writer.cors();
+    }
+
+    /**
+     * Sends a response whose body is held in memory.
+     * It writes the status and headers chosen by the handler, then the body with its Content-Length.
+     * Bodies above the compression threshold are compressed with the coding accepted by the client
+     * when their content type is textual and the handler did not encode them already.
+     * @param response the response built by the handler
+     * @param outData the OutputStream to write the response data
+     * @param encoding the content coding accepted by the client, or null for identity
+     * @param keepAlive whether the connection stays open after the response
+     * @throws IOException if an I/O error occurs when writing to the socket
+     */
+    private void sendResponse(HTTPFrameworkResponse response, ResponseOutput outData, String encoding, boolean keepAlive) throws IOException {
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            byte[] body = encodeResponse(writer, response, encoding);
+            writer.end(keepAlive).send(outData, body, 0, body.length);
+        }
+        outData.flush();
+    }
+
+    /**
+     * Encodes a response for the response cache of its route.
+     * @param response the response built by the handler
+     * @param encoding the content coding accepted by the client, or null for identity
+     * @return the encoded response with its headers left open, or null if it must not be cached
+     * @throws IOException if the body cannot be compressed
+     */
+    ResponseCache.Entry encodeCacheable(HTTPFrameworkResponse response, String encoding) throws IOException {
+        if (response.getStatus() != 200 || response.getBodyWriter() != null) {
+            return null;
+        }
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            byte[] body = encodeResponse(writer, response, encoding);
+            byte[] head = writer.toByteArray();
+            byte[] data = Arrays.copyOf(head, head.length + body.length);
+            System.arraycopy(body, 0, data, head.length, body.length);
+            return new ResponseCache.Entry(data, head.length);
+        }
+    }
+
+    /**
+     * Appends the head of a response held in memory, up to the Connection header, and returns the body to send.
+     * Bodies above the compression threshold are compressed with the coding accepted by the client
+     * when their content type is textual and the handler did not encode them already. The Content-Length
+     * is always that of the returned body; one set by the handler is ignored.
+     */
+    private byte[] encodeResponse(ResponseWriter writer, HTTPFrameworkResponse response, String encoding) throws IOException {
+        byte[] body = response.getBodyBytes();
+        String contentType = response.getHeader("Content-Type");
+        writeResponseHead(writer, response, false);
+        if (body.length >= compressionThreshold && response.getHeader("Content-Encoding") == null
+                && (contentType == null || Compression.isCompressible(contentType))) {
+            writer.append(ResponseWriter.VARY_ENCODING);
+            if (encoding != null) {
+                body = Compression.compress(body, encoding);
+                writer.header("Content-Encoding", encoding);
+            }
+        }
+        writer.contentLength(body.length);
+        return body;
+    }
+}
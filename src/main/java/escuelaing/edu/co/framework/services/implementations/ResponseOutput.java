@@ -0,0 +1,228 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output of a single connection.
+ * Besides plain bytes it can send a region of a file, which engines backed by a socket channel
+ * do with {@link FileChannel#transferTo} instead of copying the file through the heap.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+abstract class ResponseOutput extends OutputStream {
+    private StreamSubscriber upgraded;
+
+    /**
+     * Sends a region of a file after the bytes already written.
+     * @param file the file to send
+     * @param position the offset of the first byte to send
+     * @param count the number of bytes to send
+     * @throws IOException if an I/O error occurs when reading the file or writing to the client
+     */
+    abstract void transferFile(Path file, long position, long count) throws IOException;
+
+    /**
+     * Writes a response head and its body. Outputs backed by a socket channel send both
+     * in one gathering write instead of copying the body into the stream buffer.
+     * @param head the encoded status line and headers
+     * @param headLength the number of head bytes to write
+     * @param body the body bytes
+     * @param off the offset of the body in the array
+     * @param len the body length
+     * @throws IOException if an I/O error occurs when writing to the client
+     */
+    void write(byte[] head, int headLength, byte[] body, int off, int len) throws IOException {
+        write(head, 0, headLength);
+        write(body, off, len);
+    }
+
+    /**
+     * Marks the connection as switched to a stream once the response head has been written. The engine stops
+     * reading requests and hands the channel to a stream loop after flushing the output.
+     * @param stream the subscriber that owns the connection from now on
+     */
+    void upgrade(StreamSubscriber stream) {
+        upgraded = stream;
+    }
+
+    /**
+     * Returns the stream the connection was switched to by the last response.
+     * @return the subscriber, or null if the connection still serves requests
+     */
+    StreamSubscriber upgraded() {
+        return upgraded;
+    }
+
+    /**
+     * Creates the output of a blocking socket channel.
+     * Writes are made in steps of at most 64 KB and reported to the connection timeout,
+     * so a client that stops reading is detected by the write timeout.
+     * @param channel the channel connected to the client, in blocking mode
+     * @param timeout the timeout of the connection
+     * @return the output that buffers bytes and transfers files straight to the channel
+     */
+    static ResponseOutput forChannel(SocketChannel channel, ConnectionTimeout timeout) {
+        return new ChannelOutput(channel, timeout);
+    }
+
+    /**
+     * Wraps an output so that only the response head reaches it, as a HEAD request requires.
+     * Everything after the blank line that ends the headers is discarded, so the Content-Length
+     * still describes the body a GET would have returned.
+     * @param target the output of the connection
+     * @return the output that drops the response body
+     */
+    static ResponseOutput headersOnly(ResponseOutput target) {
+        return new HeadOutput(target);
+    }
+
+    private static final class HeadOutput extends ResponseOutput {
+        private final ResponseOutput target;
+        private int lineBreaks;
+
+        HeadOutput(ResponseOutput target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (lineBreaks < 2) {
+                track(b);
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int end = off;
+            while (end < off + len && lineBreaks < 2) {
+                track(b[end++]);
+            }
+            target.write(b, off, end - off);
+        }
+
+        /**
+         * Counts consecutive line breaks, ignoring carriage returns; two in a row end the head.
+         */
+        private void track(int b) {
+            if (b == '\n') {
+                lineBreaks++;
+            } else if (b != '\r') {
+                lineBreaks = 0;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        void transferFile(Path file, long position, long count) {
+            // HEAD responses carry no body
+        }
+
+        @Override
+        void upgrade(StreamSubscriber stream) {
+            target.upgrade(stream);
+        }
+    }
+
+    private static final class ChannelOutput extends ResponseOutput {
+        private static final int WRITE_STEP = 64 * 1024;
+
+        private final SocketChannel channel;
+        private final ConnectionTimeout timeout;
+        private final BufferedOutputStream buffered;
+
+        ChannelOutput(SocketChannel channel, ConnectionTimeout timeout) {
+            this.channel = channel;
+            this.timeout = timeout;
+            this.buffered = new BufferedOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] {(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    for (int end = off + len; off < end; off += WRITE_STEP) {
+                        send(ByteBuffer.wrap(b, off, Math.min(end - off, WRITE_STEP)));
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            buffered.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffered.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            buffered.flush();
+        }
+
+        @Override
+        void write(byte[] head, int headLength, byte[] body, int off, int len) throws IOException {
+            buffered.flush();
+            int end = off + len;
+            int step = Math.min(len, WRITE_STEP);
+            send(ByteBuffer.wrap(head, 0, headLength), ByteBuffer.wrap(body, off, step));
+            for (off += step; off < end; off += step) {
+                step = Math.min(end - off, WRITE_STEP);
+                send(ByteBuffer.wrap(body, off, step));
+            }
+        }
+
+        @Override
+        void transferFile(Path file, long position, long count) throws IOException {
+            buffered.flush();
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (count > 0) {
+                    long sent;
+                    timeout.await(ConnectionTimeout.WRITE);
+                    try {
+                        sent = source.transferTo(position, Math.min(count, WRITE_STEP), channel);
+                        timeout.progress(sent);
+                    } finally {
+                        timeout.pause();
+                    }
+                    if (sent <= 0 && position >= source.size()) {
+                        throw new IOException("File truncated while sending: " + file);
+                    }
+                    position += sent;
+                    count -= sent;
+                }
+            }
+        }
+
+        /**
+         * Writes the buffers completely, timed as one step of the response.
+         */
+        private void send(ByteBuffer... buffers) throws IOException {
+            ByteBuffer last = buffers[buffers.length - 1];
+            timeout.await(ConnectionTimeout.WRITE);
+            try {
+                while (buffers[0].hasRemaining() || last.hasRemaining()) {
+                    timeout.progress(channel.write(buffers));
+                }
+            } finally {
+                timeout.pause();
+            }
+        }
+    }
+}
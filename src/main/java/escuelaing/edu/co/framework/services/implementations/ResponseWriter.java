@@ -0,0 +1,274 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Encodes the status line and headers of a response straight into bytes.
+ * Status lines, the CORS block, common content types and the Connection terminators are encoded once;
+ * header values and lengths are copied into a reusable buffer without going through a charset encoder,
+ * and every line ends with CRLF. The head and the body then leave in a single write.
+ * Writers are pooled: obtain one with {@link #acquire()} and give it back with {@link #close()}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class ResponseWriter implements AutoCloseable {
+    static final byte[] CONTENT_TYPE_TEXT = ascii("Content-Type: text/plain; charset=UTF-8\r\n");
+    static final byte[] CHUNKED = ascii("Transfer-Encoding: chunked\r\n");
+    static final byte[] VARY_ENCODING = ascii("Vary: Accept-Encoding\r\n");
+    static final byte[] ACCEPT_RANGES = ascii("Accept-Ranges: bytes\r\n");
+    private static final byte[] KEEP_ALIVE_TERMINATOR = ascii("Connection: keep-alive\r\n\r\n");
+    private static final byte[] CLOSE_TERMINATOR = ascii("Connection: close\r\n\r\n");
+    private static final byte[] UPGRADE_TERMINATOR = ascii("Upgrade: websocket\r\nConnection: Upgrade\r\n\r\n");
+    private static final byte[] CORS = ascii("Access-Control-Allow-Origin: *\r\n"
+            + "Access-Control-Allow-Methods: GET, POST, PUT, DELETE, OPTIONS\r\n"
+            + "Access-Control-Allow-Headers: Content-Type\r\n");
+    private static final byte[] CONTENT_LENGTH = ascii("Content-Length: ");
+    private static final byte[] CONTENT_RANGE = ascii("Content-Range: bytes ");
+    private static final byte[] UNSATISFIED = ascii("*/");
+    private static final byte[] DASH = ascii("-");
+    private static final byte[] SLASH = ascii("/");
+    private static final byte[] SEPARATOR = ascii(": ");
+    private static final byte[] CRLF = ascii("\r\n");
+    private static final byte[][] STATUS_LINES = new byte[600][];
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+    private static final int INLINE_BODY_LIMIT = 8 * 1024;
+    private static final ArrayBlockingQueue<ResponseWriter> POOL = new ArrayBlockingQueue<>(64);
+
+    static {
+        String[] statuses = {
+                "101 Switching Protocols", "200 OK", "201 Created", "202 Accepted", "204 No Content", "206 Partial Content",
+                "301 Moved Permanently", "302 Found", "303 See Other", "304 Not Modified",
+                "307 Temporary Redirect", "308 Permanent Redirect",
+                "400 Bad Request", "401 Unauthorized", "403 Forbidden", "404 Not Found", "405 Method Not Allowed",
+                "408 Request Timeout", "409 Conflict", "410 Gone", "412 Precondition Failed", "413 Payload Too Large",
+                "415 Unsupported Media Type", "416 Range Not Satisfiable", "422 Unprocessable Entity",
+                "426 Upgrade Required", "429 Too Many Requests", "431 Request Header Fields Too Large",
+                "500 Internal Server Error", "501 Not Implemented", "502 Bad Gateway",
+                "503 Service Unavailable", "504 Gateway Timeout"
+        };
+        for (String status : statuses) {
+            STATUS_LINES[Integer.parseInt(status.substring(0, 3))] = ascii("HTTP/1.1 " + status + "\r\n");
+        }
+    }
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int count;
+
+    private ResponseWriter() {
+    }
+
+    /**
+     * Takes a writer from the pool, or creates one if the pool is empty.
+     * @return an empty writer
+     */
+    static ResponseWriter acquire() {
+        ResponseWriter writer = POOL.poll();
+        return writer != null ? writer : new ResponseWriter();
+    }
+
+    /**
+     * Clears the writer and returns it to the pool.
+     */
+    @Override
+    public void close() {
+        reset();
+        if (buffer.length <= MAX_POOLED_CAPACITY) {
+            POOL.offer(this);
+        }
+    }
+
+    /**
+     * Discards the bytes appended so far.
+     */
+    void reset() {
+        count = 0;
+    }
+
+    /**
+     * Appends the status line. A code without a known reason phrase gets an empty one, which
+     * RFC 9112 allows, e.g. {@code HTTP/1.1 299 }.
+     * @param status the status code
+     * @return this writer
+     */
+    ResponseWriter status(int status) {
+        byte[] line = status > 0 && status < STATUS_LINES.length ? STATUS_LINES[status] : null;
+        if (line != null) {
+            return append(line);
+        }
+        append(STATUS_LINES[200], 0, 9);
+        number(status);
+        return text(" \r\n");
+    }
+
+    /**
+     * Appends a header.
+     * @param name the header name
+     * @param value the header value; characters outside Latin-1 are replaced by '?'
+     * @return this writer
+     */
+    ResponseWriter header(String name, String value) {
+        text(name);
+        append(SEPARATOR);
+        text(value);
+        return append(CRLF);
+    }
+
+    /**
+     * Appends the Content-Length header.
+     * @param length the body length
+     * @return this writer
+     */
+    ResponseWriter contentLength(long length) {
+        append(CONTENT_LENGTH);
+        number(length);
+        return append(CRLF);
+    }
+
+    /**
+     * Appends the Content-Range header of a partial response.
+     * @param first the position of the first byte sent
+     * @param last the position of the last byte sent
+     * @param size the size of the whole file
+     * @return this writer
+     */
+    ResponseWriter contentRange(long first, long last, long size) {
+        append(CONTENT_RANGE);
+        number(first);
+        append(DASH);
+        number(last);
+        append(SLASH);
+        number(size);
+        return append(CRLF);
+    }
+
+    /**
+     * Appends the Content-Range header of a 416 response.
+     * @param size the size of the whole file
+     * @return this writer
+     */
+    ResponseWriter unsatisfiedRange(long size) {
+        append(CONTENT_RANGE);
+        append(UNSATISFIED);
+        number(size);
+        return append(CRLF);
+    }
+
+    /**
+     * Appends the CORS headers sent with every generated response.
+     * @return this writer
+     */
+    ResponseWriter cors() {
+        return append(CORS);
+    }
+
+    /**
+     * Appends the Connection header and the blank line that ends the head.
+     * @param keepAlive whether the connection stays open after the response
+     * @return this writer
+     */
+    ResponseWriter end(boolean keepAlive) {
+        return append(keepAlive ? KEEP_ALIVE_TERMINATOR : CLOSE_TERMINATOR);
+    }
+
+    /**
+     * Appends the headers that switch the connection to the WebSocket protocol and the blank line that ends the head.
+     * @return this writer
+     */
+    ResponseWriter upgrade() {
+        return append(UPGRADE_TERMINATOR);
+    }
+
+    /**
+     * Appends pre-encoded bytes, such as one of the header constants of this class.
+     * @param bytes the bytes to append
+     * @return this writer
+     */
+    ResponseWriter append(byte[] bytes) {
+        return append(bytes, 0, bytes.length);
+    }
+
+    ResponseWriter append(byte[] bytes, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(bytes, off, buffer, count, len);
+        count += len;
+        return this;
+    }
+
+    /**
+     * Returns a copy of the bytes appended so far, e.g. to cache a pre-built head.
+     * @return the encoded bytes
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Writes the head followed by a body. Small bodies are copied behind the head and sent in one write;
+     * larger ones are sent together with the head through {@link ResponseOutput#write(byte[], int, byte[], int, int)}.
+     * @param out the connection output
+     * @param body the body bytes
+     * @param off the offset of the body in the array
+     * @param len the body length
+     * @throws IOException if an I/O error occurs when writing to the client
+     */
+    void send(ResponseOutput out, byte[] body, int off, int len) throws IOException {
+        if (len <= INLINE_BODY_LIMIT) {
+            append(body, off, len);
+            out.write(buffer, 0, count);
+        } else {
+            out.write(buffer, count, body, off, len);
+        }
+    }
+
+    /**
+     * Writes the head alone.
+     * @param out the connection output
+     * @throws IOException if an I/O error occurs when writing to the client
+     */
+    void send(ResponseOutput out) throws IOException {
+        out.write(buffer, 0, count);
+    }
+
+    private ResponseWriter text(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer[count++] = c < 256 ? (byte) c : (byte) '?';
+        }
+        return this;
+    }
+
+    private void number(long value) {
+        if (value < 0) {
+            ensureCapacity(1);
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
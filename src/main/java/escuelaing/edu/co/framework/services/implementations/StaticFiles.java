@@ -0,0 +1,415 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.StaticFileCache;
+import escuelaing.edu.co.framework.config.ServerEngine;
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers the requests for the static files of a server: conditional requests, byte ranges, compressed
+ * variants and the static file cache. Files are looked up in the manifest of the server, which already
+ * holds their size, last-modified time, content type and entity tag.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class StaticFiles {
+    static final long[] UNSATISFIABLE_RANGE = new long[0];
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final HTTPServer server;
+    private final Map<String, String> cacheControls = new ConcurrentHashMap<>();
+    private volatile StaticFileCache fileCache = new StaticFileCache(32L * 1024 * 1024, 1024 * 1024);
+    private volatile long zeroCopyThreshold = 1024 * 1024;
+
+    /**
+     * Creates the static file responses of a server.
+     * @param server the server whose manifest lists the files
+     */
+    StaticFiles(HTTPServer server) {
+        this.server = server;
+    }
+
+    StaticFileCache getCache() {
+        return fileCache;
+    }
+
+    void setCache(StaticFileCache cache) {
+        fileCache = cache;
+    }
+
+    long getZeroCopyThreshold() {
+        return zeroCopyThreshold;
+    }
+
+    void setZeroCopyThreshold(long bytes) {
+        zeroCopyThreshold = bytes;
+    }
+
+    /**
+     * Sets the Cache-Control max-age sent with the files under a path prefix.
+     * @param pathPrefix the path prefix relative to the static files folder
+     * @param maxAgeSeconds how long clients may reuse the file without revalidating it
+     */
+    void cacheControl(String pathPrefix, int maxAgeSeconds) {
+        cacheControls.put(pathPrefix, "public, max-age=" + maxAgeSeconds);
+    }
+
+    /**
+     * Serves the static file that matches the URI.
+     * The file is resolved in the static manifest, so a path that tries to leave the static root is refused.
+     * @param uri the requested URI
+     * @param headers the request headers keyed by lower-case name
+     * @param outData the output that receives the response
+     * @param keepAlive whether the connection stays open after the response
+     * @throws IOException if an I/O error occurs when reading from or writing to the socket
+     */
+    void serve(String uri, Map<String, String> headers, ResponseOutput outData, boolean keepAlive) throws IOException {
+        if (StaticManifest.isTraversal(uri)) {
+            throw HttpServerErrors.FORBIDDEN_403;
+        }
+        StaticManifest.Entry file = server.manifest().lookup(uri);
+        if (file == null) {
+            throw HttpServerErrors.NOT_FOUND_404;
+        }
+        sendFileResponse(outData, uri, file, headers, keepAlive);
+        outData.flush();
+    }
+
+    /**
+     * Sends a file response to the client.
+     * The size, last-modified time, content type and entity tag come from the static manifest, so no
+     * file system call is made before the body is needed. The validators are checked first, so a conditional request
+     * for an unchanged file is answered with 304 Not Modified. Range requests and files above the zero-copy threshold are
+     * transferred from the file channel straight to the client. Preloaded classpath files are sent from memory
+     * unless compressed. Smaller files are served from
+     * the static file cache when it matches the current last-modified time and size, otherwise
+     * the file is read and the response is cached for the next request.
+     * @param outData the output to write the file data
+     * @param filePath the path of the file to be sent
+     * @param manifestEntry the manifest entry of the file
+     * @param headers the request headers keyed by lower-case name
+     * @param keepAlive whether the connection stays open after the response
+     * @throws IOException if an I/O error occurs when reading from or writing to the socket
+     */
+    private void sendFileResponse(ResponseOutput outData, String filePath, StaticManifest.Entry manifestEntry,
+                                  Map<String, String> headers, boolean keepAlive) throws IOException {
+        String contentType = manifestEntry.getContentType();
+        long size = manifestEntry.getSize();
+        long lastModified = manifestEntry.getLastModified();
+        String range = headers.get("range");
+        boolean ranged = isRanged(headers, manifestEntry);
+        boolean compressible = Compression.isCompressible(contentType);
+        String encoding = encodingOf(manifestEntry, headers, ranged);
+        String etag = etagOf(manifestEntry, encoding);
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            if (isNotModified(headers, etag, lastModified)) {
+                writer.status(304);
+                writeValidators(writer, filePath, etag, lastModified, compressible);
+                writer.end(keepAlive).send(outData);
+                return;
+            }
+            if (ranged) {
+                long[] bounds = parseRange(range, size);
+                if (bounds == UNSATISFIABLE_RANGE) {
+                    writer.status(416).unsatisfiedRange(size).contentLength(0).end(keepAlive).send(outData);
+                    return;
+                }
+                if (bounds != null) {
+                    long length = bounds[1] - bounds[0] + 1;
+                    writer.status(206).header("Content-Type", contentType).contentRange(bounds[0], bounds[1], size)
+                            .append(ResponseWriter.ACCEPT_RANGES);
+                    writeValidators(writer, filePath, etag, lastModified, compressible);
+                    writer.contentLength(length).end(keepAlive).send(outData);
+                    sendRegion(outData, manifestEntry, bounds[0], length);
+                    return;
+                }
+            }
+            if (encoding == null && manifestEntry.isPreloaded()) {
+                writeFileHead(writer, filePath, contentType, etag, lastModified, compressible);
+                writer.contentLength(size).end(keepAlive)
+                        .send(outData, manifestEntry.getBundle(), manifestEntry.getOffset(), (int) size);
+                return;
+            }
+            if (size > zeroCopyThreshold) {
+                writeFileHead(writer, filePath, contentType, etag, lastModified, compressible);
+                writer.contentLength(size).end(keepAlive).send(outData);
+                sendRegion(outData, manifestEntry, 0, size);
+                return;
+            }
+            String key = cacheKey(filePath, encoding);
+            StaticFileCache.Entry entry = fileCache.get(key, lastModified, size);
+            if (entry == null) {
+                byte[] fileData;
+                try {
+                    fileData = encoding == null ? manifestEntry.readAll() : compressedFile(filePath, manifestEntry, encoding, lastModified);
+                } catch (NoSuchFileException e) {
+                    // deleted after the manifest was built and before the watcher caught up
+                    throw HttpServerErrors.NOT_FOUND_404;
+                }
+                writeFileHead(writer, filePath, contentType, etag, lastModified, compressible);
+                if (encoding != null) {
+                    writer.header("Content-Encoding", encoding);
+                }
+                byte[] header = writer.contentLength(fileData.length).toByteArray();
+                byte[] data = new byte[header.length + fileData.length];
+                System.arraycopy(header, 0, data, 0, header.length);
+                System.arraycopy(fileData, 0, data, header.length, fileData.length);
+                entry = new StaticFileCache.Entry(data, header.length, lastModified, size);
+                fileCache.put(key, entry);
+            }
+            byte[] data = entry.getData();
+            writer.reset();
+            writer.append(data, 0, entry.getHeaderLength()).end(keepAlive)
+                    .send(outData, data, entry.getHeaderLength(), data.length - entry.getHeaderLength());
+        }
+    }
+
+    /**
+     * Tells whether answering a request for a static file may block: reading a file that is not in the
+     * static file cache, or compressing it. Cache hits, preloaded files, conditional requests and regions sent
+     * straight from disk never block, so the {@link ServerEngine#NIO} event loops answer those themselves.
+     * The cache is checked without counting a hit, and an entry evicted before the request is served is read
+     * again by the thread serving it.
+     * @param uri the requested URI
+     * @param headers the request headers keyed by lower-case name
+     * @return true if the request should be answered on a worker thread
+     */
+    boolean mayBlock(String uri, Map<String, String> headers) {
+        StaticManifest.Entry file = StaticManifest.isTraversal(uri) ? null : server.manifest().lookup(uri);
+        if (file == null) {
+            return false;
+        }
+        long size = file.getSize();
+        boolean ranged = isRanged(headers, file);
+        String encoding = encodingOf(file, headers, ranged);
+        if (isNotModified(headers, etagOf(file, encoding), file.getLastModified())) {
+            return false;
+        }
+        if (ranged) {
+            long[] bounds = parseRange(headers.get("range"), size);
+            if (bounds == UNSATISFIABLE_RANGE) {
+                return false;
+            }
+            if (bounds != null) {
+                return !file.isPreloaded() && file.getFile() == null;
+            }
+        }
+        if (encoding == null && file.isPreloaded()) {
+            return false;
+        }
+        if (size > zeroCopyThreshold) {
+            return file.getFile() == null;
+        }
+        return !fileCache.contains(cacheKey(uri, encoding), file.getLastModified(), size);
+    }
+
+    private static boolean isRanged(Map<String, String> headers, StaticManifest.Entry file) {
+        String ifRange = headers.get("if-range");
+        return headers.get("range") != null && (ifRange == null || ifRange.equals(file.getEtag()));
+    }
+
+    /**
+     * Picks the content coding of a whole file: only textual files small enough to be cached are compressed.
+     */
+    private String encodingOf(StaticManifest.Entry file, Map<String, String> headers, boolean ranged) {
+        return Compression.isCompressible(file.getContentType()) && !ranged && file.getSize() <= zeroCopyThreshold
+                ? Compression.negotiate(headers.get("accept-encoding")) : null;
+    }
+
+    /**
+     * Returns the entity tag of a file as sent with the given coding; each coding is a different representation.
+     */
+    private static String etagOf(StaticManifest.Entry file, String encoding) {
+        String etag = file.getEtag();
+        return encoding == null ? etag : etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    private static String cacheKey(String filePath, String encoding) {
+        return encoding == null ? filePath : filePath + ";" + encoding;
+    }
+
+    /**
+     * Returns the compressed content of a file.
+     * A precompressed ".gz" sibling is used for gzip when it is at least as recent as the file,
+     * otherwise the file is compressed in memory. The result is kept in the static file cache
+     * by the caller, so each file version is compressed once.
+     * @param filePath the URL path of the file
+     * @param file the file to compress
+     * @param encoding {@link Compression#GZIP} or {@link Compression#DEFLATE}
+     * @param lastModified the last-modified time of the file in milliseconds
+     * @return the compressed body
+     * @throws IOException if the file cannot be read
+     */
+    private byte[] compressedFile(String filePath, StaticManifest.Entry file, String encoding, long lastModified) throws IOException {
+        if (encoding.equals(Compression.GZIP)) {
+            StaticManifest.Entry precompressed = server.manifest().lookup(filePath + ".gz");
+            if (precompressed != null && precompressed.getLastModified() >= lastModified) {
+                return precompressed.readAll();
+            }
+        }
+        return Compression.compress(file.readAll(), encoding);
+    }
+
+    /**
+     * Sends part of a static file after its head: from memory when it is preloaded, straight from disk
+     * when it is a file, or copied from its source, such as an entry of the application JAR, one buffer at a
+     * time. Copying blocks, so on the {@link ServerEngine#NIO} engine it runs on a worker thread, whose output
+     * holds a bounded number of chunks.
+     * @param outData the output of the connection
+     * @param file the manifest entry of the file
+     * @param position the offset of the first byte to send
+     * @param count the number of bytes to send
+     * @throws IOException if an I/O error occurs when reading the file or writing to the client
+     */
+    private static void sendRegion(ResponseOutput outData, StaticManifest.Entry file, long position, long count) throws IOException {
+        if (file.isPreloaded()) {
+            outData.write(file.getBundle(), file.getOffset() + (int) position, (int) count);
+        } else if (file.getFile() != null) {
+            outData.transferFile(file.getFile(), position, count);
+        } else {
+            try (InputStream in = file.open()) {
+                in.skipNBytes(position);
+                byte[] buffer = new byte[READ_BUFFER_SIZE];
+                while (count > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+                    if (read < 0) {
+                        throw new IOException("Static resource truncated while sending");
+                    }
+                    outData.write(buffer, 0, read);
+                    count -= read;
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the status line and headers of a whole file, up to but excluding Content-Length.
+     */
+    private void writeFileHead(ResponseWriter writer, String filePath, String contentType, String etag,
+                                      long lastModified, boolean compressible) {
+        writer.status(200).header("Content-Type", contentType).append(ResponseWriter.ACCEPT_RANGES);
+        writeValidators(writer, filePath, etag, lastModified, compressible);
+    }
+
+    /**
+     * Appends the ETag, Last-Modified and, if configured for the path, Cache-Control headers of a file,
+     * plus Vary when the response depends on the accepted encodings.
+     * @param writer the writer of the response head
+     * @param filePath the requested path of the file
+     * @param etag the entity tag of the file
+     * @param lastModified the last-modified time of the file in milliseconds
+     * @param compressible whether the file may be sent compressed
+     */
+    private void writeValidators(ResponseWriter writer, String filePath, String etag, long lastModified, boolean compressible) {
+        writer.header("ETag", etag).header("Last-Modified", HTTP_DATE.format(Instant.ofEpochMilli(lastModified)));
+        String cacheControl = cacheControlFor(filePath);
+        if (cacheControl != null) {
+            writer.header("Cache-Control", cacheControl);
+        }
+        if (compressible) {
+            writer.append(ResponseWriter.VARY_ENCODING);
+        }
+    }
+
+    /**
+     * Finds the Cache-Control value configured for the longest prefix of the path.
+     * @param filePath the requested path of the file
+     * @return the header value, or null if no prefix matches
+     */
+    private String cacheControlFor(String filePath) {
+        String match = null;
+        int matchLength = -1;
+        for (Map.Entry<String, String> entry : cacheControls.entrySet()) {
+            if (entry.getKey().length() > matchLength && filePath.startsWith(entry.getKey())) {
+                match = entry.getValue();
+                matchLength = entry.getKey().length();
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Evaluates If-None-Match, or If-Modified-Since when the former is absent.
+     * @param headers the request headers keyed by lower-case name
+     * @param etag the current entity tag of the file
+     * @param lastModified the current last-modified time of the file in milliseconds
+     * @return true if the client copy is still valid
+     */
+    static boolean isNotModified(Map<String, String> headers, String etag, long lastModified) {
+        String ifNoneMatch = headers.get("if-none-match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = headers.get("if-modified-since");
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, HTTP_DATE).toEpochSecond();
+            return lastModified / 1000 <= since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a single byte range of a Range header.
+     * Multiple ranges and malformed values are ignored, so the whole file is sent instead.
+     * @param range the value of the Range header
+     * @param size the size of the file
+     * @return the first and last byte positions, {@link #UNSATISFIABLE_RANGE} if the range
+     * lies outside the file, or null if the header should be ignored
+     */
+    static long[] parseRange(String range, long size) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = range.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = range.substring(6, dash).trim();
+        String last = range.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+            if (start >= size) {
+                return UNSATISFIABLE_RANGE;
+            }
+            if (start < 0 || end < start) {
+                return null;
+            }
+            return new long[]{start, Math.min(end, size - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ETagCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Index of the files under the static root, built once so requests resolve without touching the file system.
+ * Every regular file is recorded under its URL path with its size, last-modified time, content type and entity tag.
+ * Entity tags hash the content of files up to a size limit; larger files get one built from their size and
+ * last-modified time, so scanning a tree of large media files does not read them.
+ * The index is an immutable map replaced as a whole, so lookups are a single hash lookup without locking.
+ * When watched, changes under the root are applied incrementally by a background thread.
+ * Symbolic links are not followed and paths with {@code ..} segments never resolve, so nothing outside the root is served.
+ * A manifest can also be built from resources packaged with the application, see {@link ClasspathStaticFiles};
+ * it is fixed for the life of the server and is not watched.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class StaticManifest implements Closeable {
+    private static final Logger logger = Logger.getLogger(StaticManifest.class.getName());
+
+    private final Path root;
+    private final long hashLimit;
+    private final Closeable resources;
+    private final ETagCache etags = new ETagCache();
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private volatile Map<String, Entry> entries;
+    private WatchService watcher;
+
+    private StaticManifest(Path root, long hashLimit, Closeable resources) {
+        this.root = root;
+        this.hashLimit = hashLimit;
+        this.resources = resources;
+    }
+
+    /**
+     * Scans a directory tree. Files that cannot be read are left out.
+     * @param root the static root
+     * @param hashLimit the largest file whose entity tag hashes its content, e.g. the zero-copy threshold
+     * @return the manifest of the files under the root, empty if the root does not exist
+     */
+    static StaticManifest scan(Path root, long hashLimit) {
+        Path realRoot;
+        try {
+            realRoot = root.toRealPath();
+        } catch (IOException e) {
+            realRoot = root.toAbsolutePath().normalize();
+        }
+        StaticManifest manifest = new StaticManifest(realRoot, hashLimit, null);
+        Map<String, Entry> scanned = new HashMap<>();
+        manifest.scanTree(realRoot, scanned);
+        manifest.entries = Collections.unmodifiableMap(scanned);
+        return manifest;
+    }
+
+    /**
+     * Creates a manifest that never changes, e.g. of the resources packaged in the application JAR.
+     * @param entries the files keyed by URL path
+     * @param resources what the entries read from, such as open JAR files, closed with the manifest
+     * @return the manifest
+     */
+    static StaticManifest of(Map<String, Entry> entries, Closeable resources) {
+        StaticManifest manifest = new StaticManifest(null, 0, resources);
+        manifest.entries = Collections.unmodifiableMap(new HashMap<>(entries));
+        return manifest;
+    }
+
+    /**
+     * Finds a file by the path of the request.
+     * @param path the request path, e.g. "/images/img.png"; percent-encoded characters are decoded
+     * @return the file entry, or null if there is no such file or the path tries to leave the root
+     */
+    Entry lookup(String path) {
+        Entry entry = entries.get(path);
+        if (entry != null || path.indexOf('%') < 0) {
+            return entry;
+        }
+        String decoded;
+        try {
+            decoded = URLDecoder.decode(path.replace("+", "%2B"), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return isTraversal(decoded) ? null : entries.get(decoded);
+    }
+
+    /**
+     * Checks whether a request path tries to reach outside the static root.
+     * @param path the request path, decoded or not
+     * @return true if the path has a {@code ..} segment, a backslash or a NUL character, in plain or percent-encoded form
+     */
+    static boolean isTraversal(String path) {
+        String lower = path.indexOf('%') < 0 ? path : path.replace("%2e", ".").replace("%2E", ".")
+                .replace("%2f", "/").replace("%2F", "/").replace("%5c", "\\").replace("%5C", "\\").replace("%00", "\0");
+        if (lower.indexOf('\\') >= 0 || lower.indexOf('\0') >= 0) {
+            return true;
+        }
+        int start = 0;
+        while (start <= lower.length()) {
+            int end = lower.indexOf('/', start);
+            if (end < 0) {
+                end = lower.length();
+            }
+            if (end - start == 2 && lower.charAt(start) == '.' && lower.charAt(start + 1) == '.') {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Starts applying the changes made under the root to the manifest, on a daemon thread.
+     * @throws IOException if the watch service cannot be created
+     */
+    synchronized void watch() throws IOException {
+        if (watcher != null || root == null || !Files.isDirectory(root)) {
+            return;
+        }
+        watcher = FileSystems.getDefault().newWatchService();
+        registerTree(root);
+        Thread thread = new Thread(this::processEvents, "static-manifest-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the root and closes what the entries read from.
+     */
+    @Override
+    public synchronized void close() {
+        if (resources != null) {
+            try {
+                resources.close();
+            } catch (IOException e) {
+                logger.warning("Could not close the static resources: " + e.getMessage());
+            }
+        }
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            logger.warning("Could not close the static file watcher.");
+        }
+    }
+
+    private void processEvents() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                Path directory = watchedDirectories.get(key);
+                Map<String, Entry> next = new HashMap<>(entries);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                        next.clear();
+                        registerTree(root);
+                        scanTree(root, next);
+                    } else {
+                        update(directory.resolve((Path) event.context()), next);
+                    }
+                }
+                entries = Collections.unmodifiableMap(next);
+                if (!key.reset()) {
+                    watchedDirectories.remove(key);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.fine("Static file watcher closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Static file watcher stopped: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies the change of one path: a new or modified file is recorded again, a new directory is
+     * scanned and watched, and a deleted path is removed together with everything below it.
+     */
+    private void update(Path path, Map<String, Entry> next) throws IOException {
+        String key = keyOf(path);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            next.remove(key);
+            next.keySet().removeIf(name -> name.startsWith(key + "/"));
+            return;
+        }
+        if (attributes.isDirectory()) {
+            // registered before the scan, so files created in between are not missed
+            registerTree(path);
+            scanTree(path, next);
+        } else if (attributes.isRegularFile()) {
+            add(path, attributes, next);
+        } else {
+            next.remove(key);
+        }
+    }
+
+    private void scanTree(Path start, Map<String, Entry> into) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        add(file, attributes, into);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.fine("Skipping unreadable static file: " + file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warning("Could not scan static files under " + start + ": " + e.getMessage());
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                WatchKey key = directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key, directory);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void add(Path file, BasicFileAttributes attributes, Map<String, Entry> into) {
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        try {
+            String etag = size > hashLimit ? ETagCache.ofVersion(lastModified, size) : etags.get(file, lastModified, size);
+            into.put(keyOf(file), new Entry(file, size, lastModified,
+                    MimeTypes.forName(file.getFileName().toString()), etag));
+        } catch (IOException e) {
+            logger.fine("Skipping unreadable static file: " + file);
+        }
+    }
+
+    private String keyOf(Path file) {
+        return "/" + root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Opens the content of a file that is neither on the file system nor preloaded.
+     */
+    interface Source {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * A static file as it was when last scanned. Its content is a file on disk, a region of a shared
+     * preloaded bundle, or a {@link Source} opened on demand.
+     */
+    static final class Entry {
+        private final Path file;
+        private final long size;
+        private final long lastModified;
+        private final String contentType;
+        private final String etag;
+        private final byte[] bundle;
+        private final int offset;
+        private final Source source;
+
+        Entry(Path file, long size, long lastModified, String contentType, String etag) {
+            this(file, size, lastModified, contentType, etag, null, 0, null);
+        }
+
+        /**
+         * Creates the entry of a file whose content is held in memory.
+         * @param bundle the array shared by the preloaded files, never modified
+         * @param offset the position of the content in the bundle
+         */
+        Entry(byte[] bundle, int offset, long size, long lastModified, String contentType, String etag) {
+            this(null, size, lastModified, contentType, etag, bundle, offset, null);
+        }
+
+        /**
+         * Creates the entry of a file read from its source on every request.
+         */
+        Entry(Source source, long size, long lastModified, String contentType, String etag) {
+            this(null, size, lastModified, contentType, etag, null, 0, source);
+        }
+
+        private Entry(Path file, long size, long lastModified, String contentType, String etag,
+                      byte[] bundle, int offset, Source source) {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.bundle = bundle;
+            this.offset = offset;
+            this.source = source;
+        }
+
+        /**
+         * Returns the file on disk.
+         * @return the file, or null if the content is preloaded or comes from a {@link Source}
+         */
+        Path getFile() {
+            return file;
+        }
+
+        boolean isPreloaded() {
+            return bundle != null;
+        }
+
+        byte[] getBundle() {
+            return bundle;
+        }
+
+        int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Opens the content, wherever it is.
+         * @return a stream over the content
+         * @throws IOException if the content cannot be read
+         */
+        InputStream open() throws IOException {
+            if (bundle != null) {
+                return new ByteArrayInputStream(bundle, offset, (int) size);
+            }
+            return file != null ? Files.newInputStream(file) : source.open();
+        }
+
+        /**
+         * Reads the whole content.
+         * @return a copy of the content
+         * @throws IOException if the content cannot be read
+         */
+        byte[] readAll() throws IOException {
+            if (bundle != null) {
+                return Arrays.copyOfRange(bundle, offset, offset + (int) size);
+            }
+            if (file != null) {
+                return Files.readAllBytes(file);
+            }
+            try (InputStream in = source.open()) {
+                return in.readAllBytes();
+            }
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Encodes the messages written to stream connections: Server-Sent Events and server to client
+ * WebSocket frames (RFC 6455), which are never masked. A broadcast encodes each message once per
+ * protocol and writes the same array to every subscriber.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class StreamFrames {
+    static final int TEXT = 0x1;
+    static final int BINARY = 0x2;
+    static final int CLOSE = 0x8;
+    static final int PING = 0x9;
+    static final int PONG = 0xA;
+    static final int CONTINUATION = 0x0;
+    static final int NORMAL_CLOSURE = 1000;
+    static final int PROTOCOL_ERROR = 1002;
+    static final int UNSUPPORTED_DATA = 1003;
+    static final int INVALID_DATA = 1007;
+    static final int MESSAGE_TOO_BIG = 1009;
+    static final int INTERNAL_ERROR = 1011;
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private StreamFrames() {
+    }
+
+    /**
+     * Encodes a Server-Sent Event: every line of the message becomes a data field and a blank line ends the event.
+     * @param message the message, which may span several lines
+     * @return the encoded event
+     */
+    static byte[] event(String message) {
+        StringBuilder event = new StringBuilder(message.length() + 16);
+        int start = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\r' || c == '\n') {
+                event.append("data: ").append(message, start, i).append('\n');
+                if (c == '\r' && i + 1 < message.length() && message.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        event.append("data: ").append(message, start, message.length()).append("\n\n");
+        return event.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a WebSocket text message in a single frame.
+     * @param message the message
+     * @return the encoded frame
+     */
+    static byte[] text(String message) {
+        return frame(TEXT, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encodes a WebSocket close frame.
+     * @param code the close status code
+     * @return the encoded frame
+     */
+    static byte[] close(int code) {
+        return frame(CLOSE, new byte[] {(byte) (code >> 8), (byte) code});
+    }
+
+    /**
+     * Encodes the WebSocket pong that answers a ping.
+     * @param payload the payload of the ping
+     * @return the encoded frame
+     */
+    static byte[] pong(byte[] payload) {
+        return frame(PONG, payload);
+    }
+
+    private static byte[] frame(int opcode, byte[] payload) {
+        int length = payload.length;
+        int headerLength = length < 126 ? 2 : length <= 0xFFFF ? 4 : 10;
+        byte[] frame = new byte[headerLength + length];
+        frame[0] = (byte) (0x80 | opcode);
+        if (length < 126) {
+            frame[1] = (byte) length;
+        } else if (length <= 0xFFFF) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >> 8);
+            frame[3] = (byte) length;
+        } else {
+            frame[1] = 127;
+            for (int i = 0; i < 8; i++) {
+                frame[2 + i] = (byte) ((long) length >> (56 - 8 * i));
+            }
+        }
+        System.arraycopy(payload, 0, frame, headerLength, length);
+        return frame;
+    }
+
+    /**
+     * Computes the Sec-WebSocket-Accept value of a handshake.
+     * @param key the Sec-WebSocket-Key sent by the client
+     * @return the value that proves the server understood the handshake
+     */
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
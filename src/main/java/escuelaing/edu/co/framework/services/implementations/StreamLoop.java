@@ -0,0 +1,287 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.metrics.ServerMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Selector thread that owns connections upgraded to event streams or WebSockets, whichever engine accepted them.
+ * Threads that send messages only queue them on the subscriber and schedule it; the loop writes each queued
+ * array without copying it and waits for the socket to become writable when a client is slow. WebSocket
+ * frames sent by clients are parsed here and their handlers called on this thread.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class StreamLoop implements Runnable {
+    private static final Logger logger = Logger.getLogger(StreamLoop.class.getName());
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    private final HTTPServer server;
+    private final Selector selector;
+    private final Queue<Registration> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<StreamSubscriber> ready = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final Thread thread;
+    private volatile boolean open = true;
+
+    /**
+     * Creates and starts the loop.
+     * @param server the server whose metrics count the connections
+     * @param name the name of the loop thread
+     * @throws IOException if the selector cannot be opened
+     */
+    StreamLoop(HTTPServer server, String name) throws IOException {
+        this.server = server;
+        selector = Selector.open();
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    /**
+     * Hands an upgraded connection to the loop, whose response head has already been written.
+     * @param channel the channel connected to the client
+     * @param subscriber the subscriber of the connection
+     * @param leftover bytes the client sent after the upgrade request, or null
+     */
+    void register(SocketChannel channel, StreamSubscriber subscriber, ByteBuffer leftover) {
+        Registration registration = new Registration(channel, subscriber, leftover);
+        if (!open) {
+            discard(registration);
+            return;
+        }
+        pending.add(registration);
+        selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to write the messages queued on a subscriber. Called by {@link StreamSubscriber}.
+     */
+    void schedule(StreamSubscriber subscriber) {
+        ready.add(subscriber);
+        selector.wakeup();
+    }
+
+    /**
+     * Closes the connections of the loop and waits for it to finish.
+     */
+    void shutdown() {
+        open = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Registration registration;
+        while ((registration = pending.poll()) != null) {
+            discard(registration);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (open) {
+                selector.select();
+                registerPending();
+                writeReady();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            logger.severe("Stream loop failed: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void registerPending() {
+        Registration registration;
+        while ((registration = pending.poll()) != null) {
+            StreamSubscriber subscriber = registration.subscriber;
+            try {
+                registration.channel.configureBlocking(false);
+                subscriber.attach(this, registration.channel.register(selector, SelectionKey.OP_READ, subscriber));
+            } catch (IOException e) {
+                logger.fine("Stream closed before registration: " + e.getMessage());
+                discard(registration);
+                continue;
+            }
+            if (registration.leftover != null) {
+                received(subscriber, registration.leftover);
+            }
+            flush(subscriber);
+        }
+    }
+
+    private void writeReady() {
+        StreamSubscriber subscriber;
+        while ((subscriber = ready.poll()) != null) {
+            subscriber.unschedule();
+            flush(subscriber);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        StreamSubscriber subscriber = (StreamSubscriber) key.attachment();
+        if (key.isReadable()) {
+            read(key, subscriber);
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush(subscriber);
+        }
+    }
+
+    /**
+     * Reads what the client sent: frames of a WebSocket, or nothing worth keeping on an event stream.
+     */
+    private void read(SelectionKey key, StreamSubscriber subscriber) {
+        readBuffer.clear();
+        int read;
+        try {
+            read = ((SocketChannel) key.channel()).read(readBuffer);
+        } catch (IOException e) {
+            logger.fine("Stream error: " + e.getMessage());
+            close(key);
+            return;
+        }
+        if (read < 0) {
+            close(key);
+            return;
+        }
+        readBuffer.flip();
+        received(subscriber, readBuffer);
+        flush(subscriber);
+    }
+
+    private void received(StreamSubscriber subscriber, ByteBuffer bytes) {
+        if (!subscriber.isWebSocket()) {
+            bytes.position(bytes.limit());
+            return;
+        }
+        int code;
+        try {
+            code = subscriber.reader.read(bytes, subscriber);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "WebSocket handler failed: " + e.getMessage(), e);
+            code = StreamFrames.INTERNAL_ERROR;
+        }
+        if (code != 0) {
+            logger.fine("Closing WebSocket with code " + code);
+            subscriber.close(code);
+        }
+    }
+
+    /**
+     * Writes the queued messages until the socket is full, then waits for it to become writable.
+     * A subscriber that fell behind is closed without writing the rest of its queue.
+     */
+    private void flush(StreamSubscriber subscriber) {
+        SelectionKey key = subscriber.key;
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        if (subscriber.isAborted()) {
+            close(key);
+            return;
+        }
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            while (true) {
+                if (subscriber.current == null) {
+                    byte[] frame = subscriber.poll();
+                    if (frame == null) {
+                        break;
+                    }
+                    if (frame == StreamSubscriber.END) {
+                        close(key);
+                        return;
+                    }
+                    subscriber.current = ByteBuffer.wrap(frame);
+                }
+                channel.write(subscriber.current);
+                if (subscriber.current.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                subscriber.current = null;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            logger.fine("Stream error: " + e.getMessage());
+            close(key);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        closeChannel((SocketChannel) key.channel(), (StreamSubscriber) key.attachment());
+    }
+
+    private void discard(Registration registration) {
+        closeChannel(registration.channel, registration.subscriber);
+    }
+
+    /**
+     * Closes the connection of a subscriber once and tells its handler.
+     */
+    private void closeChannel(SocketChannel channel, StreamSubscriber subscriber) {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.fine("Could not close stream: " + e.getMessage());
+        }
+        ServerMetrics metrics = server.getMetrics();
+        if (metrics != null) {
+            metrics.connectionClosed();
+        }
+        try {
+            subscriber.closed();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "WebSocket handler failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            close(key);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.warning("Could not close the selector.");
+        }
+    }
+
+    private static final class Registration {
+        private final SocketChannel channel;
+        private final StreamSubscriber subscriber;
+        private final ByteBuffer leftover;
+
+        Registration(SocketChannel channel, StreamSubscriber subscriber, ByteBuffer leftover) {
+            this.channel = channel;
+            this.subscriber = subscriber;
+            this.leftover = leftover;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import escuelaing.edu.co.framework.services.interfaces.EventStreamHandler;
+import escuelaing.edu.co.framework.services.interfaces.HTTPServerHandler;
+import escuelaing.edu.co.framework.services.interfaces.WebSocketHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Route entry of an event stream or a WebSocket, stored in the route table next to the GET handlers.
+ * {@link #serve} answers the request that opens the stream, writing the 200 text/event-stream head or the
+ * 101 Switching Protocols handshake, and marks the output as upgraded so the engine hands the connection
+ * to a {@link StreamLoop} instead of reading another request.
+ * The handler is called before the head is written, so it can refuse the stream by throwing {@link HttpServerErrors}.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class StreamRoute implements HTTPServerHandler {
+    private static final byte[] CONTENT_TYPE_EVENT_STREAM = "Content-Type: text/event-stream; charset=UTF-8\r\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final String WEBSOCKET_VERSION = "13";
+
+    private final EventStreamHandler events;
+    private final WebSocketHandler socket;
+    private final int maxQueued;
+    private final int maxMessageBytes;
+
+    /**
+     * Creates the entry of an event stream.
+     * @param events the handler called for every client that opens the stream
+     * @param maxQueued the number of messages queued on a client before it is dropped
+     */
+    StreamRoute(EventStreamHandler events, int maxQueued) {
+        this(events, null, maxQueued, 0);
+    }
+
+    /**
+     * Creates the entry of a WebSocket.
+     * @param socket the handler of the connections
+     * @param maxQueued the number of messages queued on a client before it is dropped
+     * @param maxMessageBytes the largest message a client may send
+     */
+    StreamRoute(WebSocketHandler socket, int maxQueued, int maxMessageBytes) {
+        this(null, socket, maxQueued, maxMessageBytes);
+    }
+
+    private StreamRoute(EventStreamHandler events, WebSocketHandler socket, int maxQueued, int maxMessageBytes) {
+        this.events = events;
+        this.socket = socket;
+        this.maxQueued = maxQueued;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /**
+     * Answers a caller that runs the route as a plain handler, outside the server that opens the stream.
+     * A WebSocket route asks for the upgrade with 426 Upgrade Required and an event stream is refused with 400.
+     * @param request the request
+     * @param response the response to fill
+     * @return the response, which never opens the stream
+     */
+    @Override
+    public HTTPFrameworkResponse handleRequest(HTTPFrameworkRequest request, HTTPFrameworkResponse response) {
+        HttpServerErrors error = socket != null ? HttpServerErrors.UPGRADE_REQUIRED_426 : HttpServerErrors.BAD_REQUEST_400;
+        if (socket != null) {
+            response.setHeader("Upgrade", "websocket");
+        }
+        response.setStatus(error.CODE);
+        response.setBody(error.getMessage());
+        return response;
+    }
+
+    /**
+     * Opens the stream of a request.
+     * @param request the request
+     * @param outData the output that receives the response head
+     * @param keepAlive whether the connection could stay open, which only a HEAD request keeps
+     * @return true if the connection should stay open for another request
+     * @throws IOException if an I/O error occurs when writing the head
+     * @throws HttpServerErrors 426 or 400 for a request that is not a valid WebSocket handshake, or the error thrown by the handler
+     */
+    boolean serve(HTTPFrameworkRequest request, ResponseOutput outData, boolean keepAlive) throws IOException {
+        boolean head = request.getMethod().equals("HEAD");
+        if (socket != null) {
+            if (head) {
+                throw HttpServerErrors.UPGRADE_REQUIRED_426;
+            }
+            return handshake(request, outData);
+        }
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.status(200).append(CONTENT_TYPE_EVENT_STREAM).header("Cache-Control", "no-cache").cors();
+            if (head) {
+                writer.end(keepAlive).send(outData);
+                outData.flush();
+                return keepAlive;
+            }
+            StreamSubscriber subscriber = new StreamSubscriber(null, false, request.getRemoteAddress(), maxQueued, 0);
+            open(subscriber, () -> events.onOpen(request, subscriber));
+            writer.end(false).send(outData);
+            outData.upgrade(subscriber);
+            outData.flush();
+        }
+        return false;
+    }
+
+    private boolean handshake(HTTPFrameworkRequest request, ResponseOutput outData) throws IOException {
+        Map<String, String> headers = request.getHeaders();
+        if (!contains(headers.get("upgrade"), "websocket") || !contains(headers.get("connection"), "upgrade")) {
+            throw HttpServerErrors.UPGRADE_REQUIRED_426;
+        }
+        String key = headers.get("sec-websocket-key");
+        if (key == null || key.isBlank() || !WEBSOCKET_VERSION.equals(headers.get("sec-websocket-version"))) {
+            throw HttpServerErrors.BAD_REQUEST_400;
+        }
+        StreamSubscriber subscriber = new StreamSubscriber(socket, true, request.getRemoteAddress(), maxQueued, maxMessageBytes);
+        open(subscriber, () -> socket.onOpen(request, subscriber));
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.status(101).header("Sec-WebSocket-Accept", StreamFrames.acceptKey(key.trim())).upgrade().send(outData);
+        }
+        outData.upgrade(subscriber);
+        outData.flush();
+        return false;
+    }
+
+    /**
+     * Calls the handler, leaving the broadcasters it may have joined if it refuses the stream.
+     */
+    private static void open(StreamSubscriber subscriber, Runnable onOpen) {
+        try {
+            onOpen.run();
+        } catch (RuntimeException | HttpServerErrors e) {
+            subscriber.close();
+            throw e;
+        }
+    }
+
+    private static boolean contains(String value, String token) {
+        return value != null && value.toLowerCase().contains(token);
+    }
+}
@@ -0,0 +1,240 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.services.interfaces.StreamConnection;
+import escuelaing.edu.co.framework.services.interfaces.WebSocketHandler;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * A connection upgraded to an event stream or a WebSocket. Any thread may send to it: encoded messages go
+ * into a bounded lock-free queue that the owning {@link StreamLoop} drains into the socket. A subscriber whose
+ * queue is full has fallen behind and is dropped, so a slow client never holds up a broadcast or grows the heap.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class StreamSubscriber implements StreamConnection, WebSocketReader.Listener {
+    private static final Logger logger = Logger.getLogger(StreamSubscriber.class.getName());
+    /**
+     * Queued after the last message of a connection that is closed by the server.
+     */
+    static final byte[] END = new byte[0];
+
+    private final WebSocketHandler handler;
+    private final boolean webSocket;
+    private final InetAddress remoteAddress;
+    private final int maxQueued;
+    private final int maxMessageBytes;
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Set<Broadcaster> broadcasters = ConcurrentHashMap.newKeySet();
+    private volatile boolean open = true;
+    private volatile boolean aborted;
+    private volatile StreamLoop loop;
+    // owned by the loop thread
+    SelectionKey key;
+    ByteBuffer current;
+    WebSocketReader reader;
+
+    /**
+     * Creates the subscriber of an upgraded connection.
+     * @param handler the WebSocket handler, or null for an event stream
+     * @param remoteAddress the address of the client
+     * @param maxQueued the number of messages queued before the subscriber is dropped
+     * @param maxMessageBytes the largest message a WebSocket client may send
+     */
+    StreamSubscriber(WebSocketHandler handler, boolean webSocket, InetAddress remoteAddress, int maxQueued, int maxMessageBytes) {
+        this.handler = handler;
+        this.webSocket = webSocket;
+        this.remoteAddress = remoteAddress;
+        this.maxQueued = maxQueued;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    @Override
+    public boolean send(String message) {
+        return offer(webSocket ? StreamFrames.text(message) : StreamFrames.event(message));
+    }
+
+    /**
+     * Queues an encoded message, which may be shared with other subscribers and must not be modified.
+     * @param frame the encoded message
+     * @return true if it was queued, false if the connection is closed or has just been dropped for falling behind
+     */
+    boolean offer(byte[] frame) {
+        if (!open) {
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            logger.fine("Dropping a stream client that fell behind: " + remoteAddress);
+            aborted = true;
+            open = false;
+            leaveAll();
+            wake();
+            return false;
+        }
+        queue.add(frame);
+        wake();
+        return true;
+    }
+
+    /**
+     * Closes the connection once the messages already queued have been written.
+     * A WebSocket is closed with a normal closure frame.
+     */
+    @Override
+    public void close() {
+        close(StreamFrames.NORMAL_CLOSURE);
+    }
+
+    /**
+     * Closes the connection once the messages already queued have been written.
+     * @param code the WebSocket close status code
+     */
+    void close(int code) {
+        if (!open) {
+            return;
+        }
+        open = false;
+        leaveAll();
+        if (webSocket) {
+            control(StreamFrames.close(code));
+        }
+        control(END);
+    }
+
+    /**
+     * Queues a control frame or the end marker, which are not subject to the queue limit.
+     */
+    void control(byte[] frame) {
+        queued.incrementAndGet();
+        queue.add(frame);
+        wake();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public InetAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * Takes the next message to write.
+     * @return the encoded message, {@link #END}, or null if nothing is queued
+     */
+    byte[] poll() {
+        byte[] frame = queue.poll();
+        if (frame != null) {
+            queued.decrementAndGet();
+        }
+        return frame;
+    }
+
+    /**
+     * Moves the subscriber to the loop that writes its messages.
+     * @param loop the loop that owns the connection from now on
+     * @param key the key of the connection in the loop selector
+     */
+    void attach(StreamLoop loop, SelectionKey key) {
+        this.key = key;
+        if (webSocket) {
+            reader = new WebSocketReader(maxMessageBytes);
+        }
+        this.loop = loop;
+    }
+
+    /**
+     * Asks the loop to write the queued messages; at most one request is pending at a time.
+     */
+    private void wake() {
+        StreamLoop owner = loop;
+        if (owner != null && scheduled.compareAndSet(false, true)) {
+            owner.schedule(this);
+        }
+    }
+
+    /**
+     * Called by the loop before it writes, so that messages queued from now on wake it again.
+     */
+    void unschedule() {
+        scheduled.set(false);
+    }
+
+    /**
+     * Tells whether the subscriber was dropped for falling behind, so its connection is closed without writing.
+     * @return true if the subscriber fell behind
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    boolean isWebSocket() {
+        return webSocket;
+    }
+
+    @Override
+    public void onText(String message) {
+        if (open) {
+            handler.onMessage(this, message);
+        }
+    }
+
+    @Override
+    public void onPing(byte[] payload) {
+        if (open) {
+            control(StreamFrames.pong(payload));
+        }
+    }
+
+    @Override
+    public void onClose(int code) {
+        // answer the close handshake; the connection is closed once the answer is written
+        close(StreamFrames.NORMAL_CLOSURE);
+    }
+
+    /**
+     * Records a broadcaster the subscriber joined, so it leaves it when the connection closes.
+     * @return false if the connection is already closed
+     */
+    boolean join(Broadcaster broadcaster) {
+        broadcasters.add(broadcaster);
+        return open;
+    }
+
+    void leave(Broadcaster broadcaster) {
+        broadcasters.remove(broadcaster);
+    }
+
+    private void leaveAll() {
+        for (Broadcaster broadcaster : broadcasters) {
+            broadcaster.remove(this);
+        }
+        broadcasters.clear();
+    }
+
+    /**
+     * Called by the loop once the connection is closed, whoever closed it.
+     */
+    void closed() {
+        open = false;
+        leaveAll();
+        if (handler != null) {
+            handler.onClose(this);
+        }
+    }
+}
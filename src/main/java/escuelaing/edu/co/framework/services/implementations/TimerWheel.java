@@ -0,0 +1,145 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timer wheel shared by every connection of the server, driven by a single daemon thread.
+ * Scheduling only appends to a lock-free queue; the wheel thread moves new timeouts into the slot of their
+ * due tick, and on every tick checks the timeouts of the current slot. A timeout is not cancelled or moved
+ * when its connection makes progress: its check decides, when it comes due, whether it expired or when to
+ * look again, so the request path never touches the wheel after scheduling.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class TimerWheel {
+    private static final Logger logger = Logger.getLogger(TimerWheel.class.getName());
+
+    private final long tickMillis;
+    private final List<List<Timeout>> slots;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * Creates the wheel and starts its thread.
+     * @param tickMillis the resolution of the wheel
+     * @param size the number of slots, rounded up to a power of two
+     * @param name the name of the wheel thread
+     */
+    TimerWheel(long tickMillis, int size, String name) {
+        int slotCount = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.mask = slotCount - 1;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds a timeout, to be checked at the time it returns from {@link Timeout#firstCheck(long)}.
+     * @param timeout the timeout
+     */
+    void schedule(Timeout timeout) {
+        timeout.due = timeout.firstCheck(System.currentTimeMillis());
+        added.add(timeout);
+    }
+
+    /**
+     * Stops the wheel thread. Pending timeouts are discarded.
+     */
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        while (running) {
+            long next = start + (tick + 1) * tickMillis;
+            long sleep = next - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            tick++;
+            long now = System.currentTimeMillis();
+            Timeout timeout;
+            while ((timeout = added.poll()) != null) {
+                place(timeout, now);
+            }
+            List<Timeout> slot = slots.get((int) tick & mask);
+            if (slot.isEmpty()) {
+                continue;
+            }
+            slots.set((int) tick & mask, new ArrayList<>(slot.size()));
+            for (Timeout due : slot) {
+                if (due.cancelled) {
+                    continue;
+                }
+                if (due.due > now) {
+                    // more laps to go
+                    place(due, now);
+                    continue;
+                }
+                try {
+                    due.due = due.check(now);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Timeout check failed: " + e.getMessage(), e);
+                    continue;
+                }
+                if (due.due > 0) {
+                    place(due, now);
+                }
+            }
+        }
+    }
+
+    private void place(Timeout timeout, long now) {
+        long ticks = Math.max(1, (timeout.due - now + tickMillis - 1) / tickMillis);
+        slots.get((int) (tick + Math.min(ticks, mask + 1)) & mask).add(timeout);
+    }
+
+    /**
+     * An entry of the wheel.
+     */
+    abstract static class Timeout {
+        private long due;
+        private volatile boolean cancelled;
+
+        /**
+         * Returns when the timeout is first checked.
+         * @param now the current time in milliseconds
+         * @return the time of the first check in milliseconds
+         */
+        abstract long firstCheck(long now);
+
+        /**
+         * Checks the timeout once it is due.
+         * @param now the current time in milliseconds
+         * @return the time of the next check in milliseconds, or 0 to remove the timeout
+         */
+        abstract long check(long now);
+
+        /**
+         * Removes the timeout from the wheel the next time its slot comes up.
+         */
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
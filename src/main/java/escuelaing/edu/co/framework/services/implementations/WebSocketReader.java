@@ -0,0 +1,201 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Incremental parser of the frames a WebSocket client sends. Bytes are fed as they arrive; every complete
+ * frame is unmasked and delivered to a {@link Listener}, and fragmented text messages are reassembled.
+ * A frame that breaks the protocol, a binary message or a message above the size limit stops the parser
+ * with the close code to answer, and so does the close frame of the client; the bytes after it are discarded.
+ * @author Miguel Angel Motta
+ * @version 1.0
+ * @since 2025-08-22
+ */
+final class WebSocketReader {
+    private static final int MAX_CONTROL_PAYLOAD = 125;
+
+    private final int maxMessageBytes;
+    private byte[] pending = new byte[256];
+    private int pendingLength;
+    private byte[] message;
+    private int messageLength;
+    private boolean stopped;
+
+    /**
+     * Creates the parser of one connection.
+     * @param maxMessageBytes the largest message accepted, reassembled from its fragments
+     */
+    WebSocketReader(int maxMessageBytes) {
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /**
+     * Consumes the bytes received and delivers every complete frame.
+     * @param in the bytes received, in read mode; all of them are consumed
+     * @param listener receives the frames
+     * @return 0 to keep reading, or the close code to answer a frame that cannot be accepted or the close frame
+     *         of the client, after which the rest of the input is discarded
+     */
+    int read(ByteBuffer in, Listener listener) {
+        if (stopped) {
+            in.position(in.limit());
+            return 0;
+        }
+        // an incomplete frame is at most a header and a payload of the maximum size, checked once its header is in
+        int count = in.remaining();
+        if (pendingLength + count > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + count));
+        }
+        in.get(pending, pendingLength, count);
+        pendingLength += count;
+        int offset = 0;
+        int result = 0;
+        while (result == 0) {
+            int consumed = frame(offset, listener);
+            if (consumed < 0) {
+                result = -consumed;
+            } else if (consumed == 0) {
+                break;
+            } else {
+                offset += consumed;
+            }
+        }
+        if (result != 0) {
+            stopped = true;
+            pendingLength = 0;
+            message = null;
+            return result;
+        }
+        pendingLength -= offset;
+        System.arraycopy(pending, offset, pending, 0, pendingLength);
+        return result;
+    }
+
+    /**
+     * Delivers the frame at the given offset.
+     * @return the size of the frame, 0 if it is not complete yet, or a negated close code
+     */
+    private int frame(int offset, Listener listener) {
+        int available = pendingLength - offset;
+        if (available < 2) {
+            return 0;
+        }
+        int first = pending[offset] & 0xFF;
+        int second = pending[offset + 1] & 0xFF;
+        boolean fin = (first & 0x80) != 0;
+        int opcode = first & 0x0F;
+        if ((first & 0x70) != 0 || (second & 0x80) == 0) {
+            // reserved bits need an extension, and clients must mask their frames
+            return -StreamFrames.PROTOCOL_ERROR;
+        }
+        long length = second & 0x7F;
+        int headerLength = 2;
+        if (length == 126) {
+            headerLength = 4;
+        } else if (length == 127) {
+            headerLength = 10;
+        }
+        headerLength += 4;
+        if (available < headerLength) {
+            return 0;
+        }
+        if (length == 126) {
+            length = ((pending[offset + 2] & 0xFF) << 8) | (pending[offset + 3] & 0xFF);
+        } else if (length == 127) {
+            length = 0;
+            for (int i = 0; i < 8; i++) {
+                length = (length << 8) | (pending[offset + 2 + i] & 0xFF);
+            }
+        }
+        if (length < 0 || length > maxMessageBytes) {
+            return -StreamFrames.MESSAGE_TOO_BIG;
+        }
+        if (available < headerLength + length) {
+            return 0;
+        }
+        int payload = offset + headerLength;
+        int maskOffset = payload - 4;
+        for (int i = 0; i < length; i++) {
+            pending[payload + i] ^= pending[maskOffset + (i & 3)];
+        }
+        int code = deliver(fin, opcode, payload, (int) length, listener);
+        return code != 0 ? -code : headerLength + (int) length;
+    }
+
+    private int deliver(boolean fin, int opcode, int payload, int length, Listener listener) {
+        switch (opcode) {
+            case StreamFrames.TEXT:
+            case StreamFrames.CONTINUATION:
+                if ((opcode == StreamFrames.TEXT) == (message != null)) {
+                    return StreamFrames.PROTOCOL_ERROR;
+                }
+                if (message == null) {
+                    if (fin) {
+                        return text(pending, payload, length, listener);
+                    }
+                    message = new byte[Math.max(256, length)];
+                    messageLength = 0;
+                }
+                if (messageLength + length > maxMessageBytes) {
+                    return StreamFrames.MESSAGE_TOO_BIG;
+                }
+                if (messageLength + length > message.length) {
+                    message = Arrays.copyOf(message, Math.max(message.length * 2, messageLength + length));
+                }
+                System.arraycopy(pending, payload, message, messageLength, length);
+                messageLength += length;
+                if (!fin) {
+                    return 0;
+                }
+                byte[] complete = message;
+                message = null;
+                return text(complete, 0, messageLength, listener);
+            case StreamFrames.BINARY:
+                return StreamFrames.UNSUPPORTED_DATA;
+            case StreamFrames.CLOSE:
+            case StreamFrames.PING:
+            case StreamFrames.PONG:
+                if (!fin || length > MAX_CONTROL_PAYLOAD) {
+                    return StreamFrames.PROTOCOL_ERROR;
+                }
+                if (opcode == StreamFrames.CLOSE) {
+                    listener.onClose(length >= 2
+                            ? ((pending[payload] & 0xFF) << 8) | (pending[payload + 1] & 0xFF)
+                            : StreamFrames.NORMAL_CLOSURE);
+                    // nothing the client sends after its close frame is delivered
+                    return StreamFrames.NORMAL_CLOSURE;
+                }
+                if (opcode == StreamFrames.PING) {
+                    listener.onPing(Arrays.copyOfRange(pending, payload, payload + length));
+                }
+                return 0;
+            default:
+                return StreamFrames.PROTOCOL_ERROR;
+        }
+    }
+
+    private static int text(byte[] bytes, int off, int len, Listener listener) {
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes, off, len)).toString();
+        } catch (CharacterCodingException e) {
+            return StreamFrames.INVALID_DATA;
+        }
+        listener.onText(text);
+        return 0;
+    }
+
+    /**
+     * Receives the frames of a connection.
+     */
+    interface Listener {
+        void onText(String message);
+
+        void onPing(byte[] payload);
+
+        void onClose(int code);
+    }
+}
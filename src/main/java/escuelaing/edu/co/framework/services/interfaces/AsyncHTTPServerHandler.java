@@ -0,0 +1,10 @@
+package escuelaing.edu.co.framework.services.interfaces;
+
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+
+import java.util.concurrent.CompletionStage;
+
+public interface AsyncHTTPServerHandler {
+    CompletionStage<HTTPFrameworkResponse> handleRequest(HTTPFrameworkRequest request, HTTPFrameworkResponse response);
+}
@@ -0,0 +1,7 @@
+package escuelaing.edu.co.framework.services.interfaces;
+
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+
+public interface EventStreamHandler {
+    void onOpen(HTTPFrameworkRequest request, StreamConnection stream);
+}
@@ -0,0 +1,17 @@
+package escuelaing.edu.co.framework.services.interfaces;
+
+import java.net.InetAddress;
+
+/**
+ * A long-lived connection opened by an event stream or a WebSocket route.
+ * Messages are queued and written by the server; a connection whose queue fills up is dropped.
+ */
+public interface StreamConnection {
+    boolean send(String message);
+
+    void close();
+
+    boolean isOpen();
+
+    InetAddress getRemoteAddress();
+}
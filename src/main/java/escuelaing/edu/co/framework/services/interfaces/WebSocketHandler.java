@@ -0,0 +1,18 @@
+package escuelaing.edu.co.framework.services.interfaces;
+
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+
+/**
+ * Callbacks of a WebSocket route. {@code onOpen} is called on a worker thread before the handshake is
+ * answered, so it may block. Messages and closes are delivered on the thread that owns the connection,
+ * so they must not block.
+ */
+public interface WebSocketHandler {
+    void onOpen(HTTPFrameworkRequest request, StreamConnection socket);
+
+    default void onMessage(StreamConnection socket, String message) {
+    }
+
+    default void onClose(StreamConnection socket) {
+    }
+}
@@ -0,0 +1,38 @@
+package escuelaing.edu.co.framework.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private static ResponseCache.Entry entry() {
+        return new ResponseCache.Entry(new byte[10], 5);
+    }
+
+    @Test
+    void get_returnsEntryUntilItExpires() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(50, 10);
+        ResponseCache.Entry stored = entry();
+        cache.put("/pi", stored);
+        assertSame(stored, cache.get("/pi"), "La entrada vigente debe devolverse.");
+        Thread.sleep(60);
+        assertNull(cache.get("/pi"), "La entrada vencida no debe devolverse.");
+        assertEquals(0, cache.size(), "La entrada vencida debe eliminarse.");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedEntry() {
+        ResponseCache cache = new ResponseCache(60_000, 2);
+        cache.put("/a", entry());
+        cache.put("/b", entry());
+        cache.get("/a");
+        cache.put("/c", entry());
+        assertNotNull(cache.get("/a"), "La entrada usada recientemente debe conservarse.");
+        assertNull(cache.get("/b"), "La entrada menos usada debe desalojarse.");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+}
@@ -0,0 +1,53 @@
+package escuelaing.edu.co.framework.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticFileCacheTest {
+
+    private static StaticFileCache.Entry entry(int bytes, long lastModified) {
+        return new StaticFileCache.Entry(new byte[bytes], 0, lastModified, bytes);
+    }
+
+    @Test
+    void get_returnsEntryForSameVersion() {
+        StaticFileCache cache = new StaticFileCache(1000, 100);
+        StaticFileCache.Entry stored = entry(10, 1L);
+        cache.put("/a.css", stored);
+        assertSame(stored, cache.get("/a.css", 1L, 10), "La entrada debe devolverse si el archivo no cambió.");
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void get_invalidatesWhenFileChanges() {
+        StaticFileCache cache = new StaticFileCache(1000, 100);
+        cache.put("/a.css", entry(10, 1L));
+        assertNull(cache.get("/a.css", 2L, 10), "Un mtime distinto debe invalidar la entrada.");
+        assertEquals(0, cache.size(), "La entrada obsoleta debe eliminarse.");
+        assertEquals(0, cache.getTotalBytes());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void put_rejectsEntriesLargerThanLimit() {
+        StaticFileCache cache = new StaticFileCache(1000, 100);
+        assertFalse(cache.put("/big.png", entry(101, 1L)), "No se deben cachear entradas mayores al límite.");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsed() {
+        StaticFileCache cache = new StaticFileCache(30, 30);
+        cache.put("/a", entry(10, 1L));
+        cache.put("/b", entry(10, 1L));
+        cache.put("/c", entry(10, 1L));
+        cache.get("/a", 1L, 10);
+        cache.put("/d", entry(10, 1L));
+        assertNull(cache.get("/b", 1L, 10), "La entrada menos usada debe ser desalojada.");
+        assertNotNull(cache.get("/a", 1L, 10), "La entrada usada recientemente debe conservarse.");
+        assertEquals(1, cache.getEvictions());
+        assertEquals(30, cache.getTotalBytes());
+    }
+}
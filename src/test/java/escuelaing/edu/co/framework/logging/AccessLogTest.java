@@ -0,0 +1,140 @@
+package escuelaing.edu.co.framework.logging;
+
+import escuelaing.edu.co.framework.config.LogOverflowPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void log_writesOneLinePerRequest() throws Exception {
+        Path file = directory.resolve("access.log");
+        AccessLog log = new AccessLog(file, 16, 1024 * 1024, 2, LogOverflowPolicy.BLOCK);
+        log.log(InetAddress.getLoopbackAddress(), "GET", "/hello \"x\"", 200, 154, 412_000);
+        log.log(null, "POST", "/api/users", 503, 20, 5_000_000);
+        log.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("time=\\S+Z remote=127\\.0\\.0\\.1 method=GET path=\"/hello \\\\\"x\\\\\"\" "
+                + "status=200 bytes=154 duration_ms=0\\.412"), lines.get(0));
+        assertTrue(lines.get(1).endsWith("remote=- method=POST path=\"/api/users\" status=503 bytes=20 duration_ms=5.000"), lines.get(1));
+        assertEquals(2, log.getWritten());
+        log.log(null, "GET", "/late", 200, 0, 0);
+        assertEquals(1, log.getDropped(), "Los registros posteriores al cierre se descartan.");
+    }
+
+    @Test
+    void log_accountsForEveryRecordUnderContention() throws Exception {
+        for (LogOverflowPolicy policy : LogOverflowPolicy.values()) {
+            Path file = directory.resolve(policy + ".log");
+            AccessLog log = new AccessLog(file, 8, 1024 * 1024 * 1024, 0, policy);
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                pool.execute(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        log.log(null, "GET", "/pi", 200, 10, 1_000);
+                    }
+                });
+            }
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+            log.close();
+
+            assertEquals(20_000, log.getWritten() + log.getDropped(), "Cada registro se escribe o se cuenta como descartado.");
+            assertEquals(log.getWritten(), Files.readAllLines(file).size());
+            if (policy == LogOverflowPolicy.BLOCK) {
+                assertEquals(0, log.getDropped(), "Con BLOCK no se pierde ningún registro.");
+            }
+        }
+    }
+
+    @Test
+    void log_rotatesTheFileAtItsSizeLimit() throws Exception {
+        Path file = directory.resolve("access.log");
+        AccessLog log = new AccessLog(file, 4, 300, 2, LogOverflowPolicy.BLOCK);
+        for (int i = 0; i < 20; i++) {
+            log.log(null, "GET", "/item/" + i, 200, 10, 1_000);
+            Thread.sleep(15);
+        }
+        log.close();
+
+        assertTrue(Files.size(file) <= 300, "El archivo actual no debe superar el límite.");
+        assertTrue(Files.exists(directory.resolve("access.log.1")));
+        assertTrue(Files.exists(directory.resolve("access.log.2")));
+        assertFalse(Files.exists(directory.resolve("access.log.3")), "Solo se conservan los archivos configurados.");
+        assertTrue(Files.readString(file).contains("path=\"/item/19\""), "El último registro va en el archivo actual.");
+    }
+
+    @Test
+    void log_writesADashForMissingValues() throws Exception {
+        Path file = directory.resolve("access.log");
+        AccessLog log = new AccessLog(file, 2, 1024 * 1024, 0, LogOverflowPolicy.BLOCK);
+        log.log(null, null, null, 400, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            log.log(null, "GET", "/ok", 200, 0, 0);
+        }
+        log.close();
+        assertEquals(11, log.getWritten(), "Un registro sin ruta ni dirección también se escribe.");
+        assertEquals(0, log.getDropped());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(11, lines.size());
+        assertTrue(lines.get(0).matches("time=\\S+ remote=- method=- path=- status=400 bytes=0 duration_ms=0\\.000"),
+                lines.get(0));
+        assertTrue(lines.get(1).contains(" remote=- method=GET path=\"/ok\" status=200 "), lines.get(1));
+    }
+
+    @Test
+    void log_dropsInsteadOfWaitingWhenTheCallerMayNotBlock() throws Exception {
+        Path file = directory.resolve("access.log");
+        AccessLog log = new AccessLog(file, 2, 1024 * 1024 * 1024, 0, LogOverflowPolicy.BLOCK);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    log.log(null, "GET", "/pi", 200, 10, 1_000, false);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        log.close();
+        assertEquals(20_000, log.getWritten() + log.getDropped());
+    }
+
+    @Test
+    void close_accountsForRecordsLoggedWhileClosing() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path file = directory.resolve("closing-" + round + ".log");
+            AccessLog log = new AccessLog(file, 4, 1024 * 1024 * 1024, 0, LogOverflowPolicy.BLOCK);
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                pool.execute(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        log.log(null, "GET", "/pi", 200, 10, 1_000);
+                    }
+                });
+            }
+            Thread.sleep(round % 5);
+            log.close();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS), "Nadie debe quedar esperando después del cierre.");
+            assertEquals(8_000, log.getWritten() + log.getDropped(),
+                    "Los registros reservados durante el cierre se escriben o se cuentan como descartados.");
+            assertEquals(log.getWritten(), Files.readAllLines(file).size());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package escuelaing.edu.co.framework.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerMetricsTest {
+
+    @Test
+    void histogram_reportsPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500, histogram.getSum());
+        long p50 = histogram.getPercentile(0.5);
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.07, "El percentil 50 debe estar cerca de 500: " + p50);
+        assertTrue(p99 >= 990 && p99 <= 990 * 1.07, "El percentil 99 debe estar cerca de 990: " + p99);
+        assertEquals(0, new LatencyHistogram().getPercentile(0.99), "Un histograma vacío reporta cero.");
+    }
+
+    @Test
+    void histogram_bucketsCoverTheirValues() {
+        long[] values = {0, 15, 16, 17, 31, 32, 1000, 123_456, 1L << 40};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBound(index) >= value, "El cubo debe contener el valor " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.upperBound(index - 1) < value, "El cubo anterior no debe contener " + value);
+            }
+        }
+    }
+
+    @Test
+    void writePrometheus_groupsByRouteMethodAndStatusClass() {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.connectionOpened();
+        metrics.connectionOpened();
+        metrics.connectionClosed();
+        metrics.record("GET", "/users/{id}", 200, 100, 500, 2_000_000);
+        metrics.record("GET", "/users/{id}", 204, 100, 80, 1_000_000);
+        metrics.record("GET", "/users/{id}", 404, 90, 60, 500_000);
+        StringBuilder text = new StringBuilder();
+        metrics.writePrometheus(text);
+        String output = text.toString();
+        assertTrue(output.contains("http_connections_accepted_total 2\n"));
+        assertTrue(output.contains("http_connections_active 1\n"));
+        assertTrue(output.contains("http_requests_total{method=\"GET\",route=\"/users/{id}\",status=\"2xx\"} 2\n"),
+                "Los códigos 200 y 204 se agrupan en 2xx.");
+        assertTrue(output.contains("http_response_bytes_total{method=\"GET\",route=\"/users/{id}\",status=\"2xx\"} 580\n"));
+        assertTrue(output.contains("http_request_duration_seconds_count{method=\"GET\",route=\"/users/{id}\",status=\"4xx\"} 1\n"));
+        assertFalse(output.contains("status=\"5xx\""), "Solo se exportan las clases de estado usadas.");
+    }
+
+    @Test
+    void record_groupsUnknownMethodsUnderOther() {
+        ServerMetrics metrics = new ServerMetrics();
+        for (int i = 0; i < 100; i++) {
+            metrics.record("FOO" + i, "static", 404, 10, 10, 1000);
+        }
+        metrics.record("PATCH", "static", 404, 10, 10, 1000);
+        StringBuilder text = new StringBuilder();
+        metrics.writePrometheus(text);
+        String output = text.toString();
+        assertTrue(output.contains("http_requests_total{method=\"OTHER\",route=\"static\",status=\"4xx\"} 100\n"),
+                "Los métodos desconocidos no deben crear series nuevas.");
+        assertTrue(output.contains("method=\"PATCH\""));
+        assertFalse(output.contains("FOO"));
+    }
+}
@@ -0,0 +1,30 @@
+package escuelaing.edu.co.framework.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HTTPFrameworkResponseTest {
+
+    @Test
+    void setHeader_replacesValuesIgnoringCase() {
+        HTTPFrameworkResponse response = new HTTPFrameworkResponse();
+        response.setHeader("X-Trace", "a");
+        response.setHeader("x-trace", "b");
+        assertEquals("b", response.getHeader("X-TRACE"));
+        assertEquals(1, response.getHeaders().size());
+    }
+
+    @Test
+    void setHeader_rejectsHeadersThatWouldSplitTheResponse() {
+        HTTPFrameworkResponse response = new HTTPFrameworkResponse();
+        assertThrows(IllegalArgumentException.class, () -> response.setHeader("Location", "/a\r\nSet-Cookie: x=1"),
+                "Un salto de línea en el valor permitiría inyectar cabeceras.");
+        assertThrows(IllegalArgumentException.class, () -> response.setHeader("Location", "/a\nb"));
+        assertThrows(IllegalArgumentException.class, () -> response.setHeader("Location", "/a\0"));
+        assertThrows(IllegalArgumentException.class, () -> response.setHeader("X Name", "v"));
+        assertThrows(IllegalArgumentException.class, () -> response.setHeader("X-Name:", "v"));
+        assertThrows(IllegalArgumentException.class, () -> response.setHeader("", "v"));
+        assertTrue(response.getHeaders().isEmpty(), "Las cabeceras inválidas no deben guardarse.");
+    }
+}
@@ -0,0 +1,52 @@
+package escuelaing.edu.co.framework.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTrieTest {
+
+    @Test
+    void find_prefersStaticSegmentsOverParametersAndWildcards() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/users/{id}", "user");
+        trie.add("GET", "/users/me", "me");
+        trie.add("GET", "/users/*", "any");
+        assertEquals("me", trie.find("/users/me").getHandlers().get("GET"), "El segmento estático tiene prioridad.");
+        RouteTrie.Match<String> user = trie.find("/users/42");
+        assertEquals("user", user.getHandlers().get("GET"));
+        assertEquals(Map.of("id", "42"), user.getParams());
+        RouteTrie.Match<String> any = trie.find("/users/42/posts");
+        assertEquals("any", any.getHandlers().get("GET"), "El comodín captura el resto de la ruta.");
+        assertEquals("42/posts", any.getParams().get(RouteTrie.WILDCARD));
+    }
+
+    @Test
+    void find_backtracksAndDecodesParameters() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/files/latest/meta", "latest");
+        trie.add("GET", "/files/{name}/raw", "raw");
+        trie.add("POST", "/files/{name}/raw", "upload");
+        RouteTrie.Match<String> match = trie.find("/files/latest/raw");
+        assertNotNull(match, "Si la rama estática no coincide se prueba el parámetro.");
+        assertEquals("latest", match.getParams().get("name"));
+        assertEquals(2, match.getHandlers().size(), "Los métodos de la misma ruta se agrupan.");
+        assertEquals("a b+c", trie.find("/files/a%20b+c/raw").getParams().get("name"));
+        assertNull(trie.find("/files/x"));
+        assertNull(trie.find("/files//raw"), "Un parámetro no coincide con un segmento vacío.");
+    }
+
+    @Test
+    void add_rejectsInvalidRoutesAndChangesAfterFreeze() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/users/{id}", "user");
+        assertThrows(IllegalArgumentException.class, () -> trie.add("GET", "/users/{name}/x", "x"));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("GET", "/a/*/b", "x"));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("GET", "sin-barra", "x"));
+        trie.freeze();
+        assertThrows(IllegalStateException.class, () -> trie.add("GET", "/nueva", "x"));
+        assertNotNull(trie.find("/users/1"), "La tabla sigue siendo legible tras congelarse.");
+    }
+}
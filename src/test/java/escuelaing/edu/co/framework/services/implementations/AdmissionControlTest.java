@@ -0,0 +1,70 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    @Test
+    void tryEnter_refusesAboveTheLimitAndAdmitsAfterExit() {
+        AdmissionControl gate = new AdmissionControl(2, 0, 0);
+        assertTrue(gate.tryEnter());
+        assertTrue(gate.tryEnter());
+        assertFalse(gate.tryEnter(), "No se admiten más solicitudes que el límite.");
+        assertEquals(2, gate.getInFlight());
+        gate.exit();
+        assertTrue(gate.tryEnter(), "Al liberar un cupo se admite la siguiente solicitud.");
+    }
+
+    @Test
+    void enter_waitsInTheQueueUntilASlotIsFreed() throws InterruptedException {
+        AdmissionControl gate = new AdmissionControl(1, 1, 5000);
+        assertTrue(gate.enter());
+        AtomicBoolean admitted = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            admitted.set(gate.enter());
+            done.countDown();
+        });
+        waiter.start();
+        while (gate.getQueued() == 0) {
+            Thread.sleep(5);
+        }
+        assertFalse(gate.enter(), "Con la cola llena la solicitud se rechaza de inmediato.");
+        gate.exit();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(admitted.get(), "La solicitud en cola toma el cupo liberado.");
+        assertEquals(0, gate.getQueued());
+    }
+
+    @Test
+    void enter_givesUpAfterTheMaximumWait() {
+        AdmissionControl gate = new AdmissionControl(1, 4, 50);
+        assertTrue(gate.enter());
+        long start = System.nanoTime();
+        assertFalse(gate.enter(), "Sin cupo, la espera termina con un rechazo.");
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void rateLimiter_allowsTheBurstThenRefillsOverTime() throws Exception {
+        RateLimiter limiter = new RateLimiter(50, 3);
+        InetAddress client = InetAddress.getByName("10.0.0.1");
+        InetAddress other = InetAddress.getByName("10.0.0.2");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(client), "La ráfaga permitida debe aceptarse.");
+        }
+        assertFalse(limiter.tryAcquire(client), "Sin fichas la solicitud se rechaza.");
+        assertTrue(limiter.tryAcquire(other), "Cada cliente tiene su propio balde.");
+        Thread.sleep(60);
+        assertTrue(limiter.tryAcquire(client), "El balde se recarga con el tiempo.");
+        assertTrue(limiter.tryAcquire(null), "Sin dirección no se limita.");
+        assertEquals(2, new RateLimiter(0.5, 1).secondsPerToken(), "Retry-After cubre el tiempo de recarga de una ficha.");
+    }
+}
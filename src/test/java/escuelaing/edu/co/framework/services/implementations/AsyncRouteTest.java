@@ -0,0 +1,43 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRouteTest {
+
+    @Test
+    void handleRequest_returnsTheCompletedResponse() {
+        AsyncRoute route = new AsyncRoute((request, response) -> {
+            response.setBody("async " + request.getValue("id"));
+            return CompletableFuture.completedFuture(response);
+        }, 1000);
+        HTTPFrameworkResponse response = route.handleRequest(new HTTPFrameworkRequest("/a?id=7"), new HTTPFrameworkResponse());
+        assertEquals("async 7", response.getBody());
+    }
+
+    @Test
+    void handleRequest_mapsTimeoutsAndRejectionsToErrors() {
+        AsyncRoute slow = new AsyncRoute((request, response) -> new CompletableFuture<>(), 50);
+        HttpServerErrors timeout = assertThrows(HttpServerErrors.class,
+                () -> slow.handleRequest(new HTTPFrameworkRequest("/a"), new HTTPFrameworkResponse()));
+        assertEquals(504, timeout.CODE, "Un handler que no responde a tiempo debe producir 504.");
+
+        AsyncRoute rejected = new AsyncRoute((request, response) -> CompletableFuture.failedFuture(new RejectedExecutionException()), 1000);
+        HttpServerErrors unavailable = assertThrows(HttpServerErrors.class,
+                () -> rejected.handleRequest(new HTTPFrameworkRequest("/a"), new HTTPFrameworkResponse()));
+        assertEquals(503, unavailable.CODE, "Una tarea rechazada debe producir 503.");
+
+        AsyncRoute failing = new AsyncRoute((request, response) -> {
+            throw HttpServerErrors.NOT_FOUND_404;
+        }, 1000);
+        assertSame(HttpServerErrors.NOT_FOUND_404,
+                assertThrows(HttpServerErrors.class, () -> failing.handleRequest(new HTTPFrameworkRequest("/a"), new HTTPFrameworkResponse())));
+    }
+}
@@ -0,0 +1,42 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Response output that keeps the bytes written to it, for tests that call the server without a socket.
+ */
+final class BufferOutput extends ResponseOutput {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    @Override
+    public void write(int b) {
+        bytes.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        bytes.write(b, off, len);
+    }
+
+    @Override
+    void transferFile(Path file, long position, long count) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            in.skipNBytes(position);
+            bytes.write(in.readNBytes((int) count));
+        }
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
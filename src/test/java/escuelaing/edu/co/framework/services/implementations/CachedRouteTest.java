@@ -0,0 +1,125 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ResponseCache;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedRouteTest {
+
+    private static HTTPFrameworkRequest get(String target) {
+        return new HTTPFrameworkRequest("GET", target, "HTTP/1.1", Collections.emptyMap(), InputStream.nullInputStream());
+    }
+
+    private static String serve(CachedRoute route, String target, boolean keepAlive) throws Exception {
+        BufferOutput out = new BufferOutput();
+        route.serve(get(target), out, null, keepAlive, true);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void keyOf_ignoresQueryParameterOrder() {
+        assertEquals(CachedRoute.keyOf(get("/hello?b=2&a=1&a=3"), null), CachedRoute.keyOf(get("/hello?a=1&b=2&a=3"), null),
+                "El orden de los parámetros no debe cambiar la llave.");
+        assertNotEquals(CachedRoute.keyOf(get("/hello?a=1"), null), CachedRoute.keyOf(get("/hello?a=1"), "gzip"),
+                "Cada codificación tiene su propia entrada.");
+        assertNotEquals(CachedRoute.keyOf(get("/hello?a=1%262"), null), CachedRoute.keyOf(get("/hello?a=1&2"), null));
+    }
+
+    @Test
+    void serve_answersRepeatedRequestsFromTheCache() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CachedRoute route = new CachedRoute(new ResponseEncoder(), (request, response) -> {
+            response.setBody("Hello " + request.getValue("name") + " " + calls.incrementAndGet());
+            return response;
+        }, new ResponseCache(60_000, 10));
+        String first = serve(route, "/hello?name=Ana", true);
+        String second = serve(route, "/hello?name=Ana", false);
+        assertEquals(1, calls.get(), "El segundo acceso no debe ejecutar el manejador.");
+        assertTrue(first.endsWith("Connection: keep-alive\r\n\r\nHello Ana 1"));
+        assertTrue(second.endsWith("Connection: close\r\n\r\nHello Ana 1"), "La cabecera Connection depende de cada solicitud.");
+        serve(route, "/hello?name=Luis", true);
+        assertEquals(2, calls.get(), "Otra consulta es otra entrada.");
+    }
+
+    @Test
+    void serve_doesNotCacheErrorResponses() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CachedRoute route = new CachedRoute(new ResponseEncoder(), (request, response) -> {
+            calls.incrementAndGet();
+            response.setStatus(404);
+            return response;
+        }, new ResponseCache(60_000, 10));
+        assertTrue(serve(route, "/item", true).startsWith("HTTP/1.1 404"));
+        serve(route, "/item", true);
+        assertEquals(2, calls.get(), "Las respuestas de error no se guardan.");
+        assertEquals(0, route.getCache().size());
+    }
+
+    @Test
+    void serve_coalescesConcurrentMisses() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CachedRoute route = new CachedRoute(new ResponseEncoder(), (request, response) -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setBody("Pi is approximately " + Math.PI);
+            return response;
+        }, new ResponseCache(60_000, 10));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = pool.submit(() -> serve(route, "/pi", true));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<?> result : results) {
+                assertTrue(((String) result.get()).endsWith("Pi is approximately " + Math.PI));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get(), "Las solicitudes simultáneas deben ejecutar el manejador una sola vez.");
+    }
+
+    private static final class BufferOutput extends ResponseOutput {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        void transferFile(Path file, long position, long count) {
+            throw new UnsupportedOperationException();
+        }
+
+        String toString(Charset charset) {
+            return bytes.toString(charset);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedOutputStreamTest {
+
+    @Test
+    void write_groupsBytesIntoChunksAndEndsWithLastChunk() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        ChunkedOutputStream chunked = new ChunkedOutputStream(sink, 4);
+        chunked.write("ab".getBytes(StandardCharsets.US_ASCII));
+        chunked.write('c');
+        chunked.flush();
+        chunked.write("0123456789".getBytes(StandardCharsets.US_ASCII));
+        chunked.close();
+        chunked.close();
+        assertEquals("3\r\nabc\r\na\r\n0123456789\r\n0\r\n\r\n", sink.toString(StandardCharsets.US_ASCII),
+                "Cada flush envía un chunk y close envía el chunk final una sola vez.");
+        assertThrows(IOException.class, () -> chunked.write('x'), "No se puede escribir tras cerrar el cuerpo.");
+    }
+}
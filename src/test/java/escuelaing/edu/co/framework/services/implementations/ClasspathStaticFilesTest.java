@@ -0,0 +1,162 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.config.ServerEngine;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClasspathStaticFilesTest {
+
+    @TempDir
+    Path dir;
+
+    private Path jar(String... namesAndContents) throws Exception {
+        Path jar = dir.resolve("app.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("webroot/"));
+            out.closeEntry();
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                out.putNextEntry(new JarEntry(namesAndContents[i]));
+                out.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    /**
+     * Sends a request and reads the response head and its Content-Length body.
+     */
+    private static byte[][] fetch(int port, String request) throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            while (!head.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+                int b = in.read();
+                assertTrue(b >= 0, "La conexión no debe cerrarse antes de la cabecera.");
+                head.write(b);
+            }
+            String text = head.toString(StandardCharsets.US_ASCII);
+            int start = text.indexOf("Content-Length: ") + "Content-Length: ".length();
+            int length = Integer.parseInt(text.substring(start, text.indexOf("\r\n", start)));
+            return new byte[][] {head.toByteArray(), in.readNBytes(length)};
+        }
+    }
+
+    private static String read(StaticManifest.Entry entry) throws Exception {
+        try (InputStream in = entry.open()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void index_preloadsSmallJarEntriesIntoOneBundle() throws Exception {
+        String large = "x".repeat(4096);
+        Path jar = jar("webroot/index.html", "<h1>hola</h1>", "webroot/css/app.css", "body{}",
+                "webroot/big.txt", large, "other/secret.txt", "no");
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null);
+             StaticManifest manifest = ClasspathStaticFiles.index(loader, "/webroot/", 1024)) {
+            assertEquals(3, manifest.size());
+            StaticManifest.Entry index = manifest.lookup("/index.html");
+            StaticManifest.Entry css = manifest.lookup("/css/app.css");
+            assertTrue(index.isPreloaded() && css.isPreloaded());
+            assertSame(index.getBundle(), css.getBundle(), "Los archivos pequeños deben compartir un único arreglo.");
+            assertEquals("<h1>hola</h1>", read(index));
+            assertEquals("text/html", index.getContentType());
+            assertEquals("body{}", new String(css.readAll(), StandardCharsets.UTF_8));
+
+            StaticManifest.Entry big = manifest.lookup("/big.txt");
+            assertFalse(big.isPreloaded(), "Los archivos grandes se leen del JAR al pedirlos.");
+            assertNull(big.getFile());
+            assertEquals(4096, big.getSize());
+            assertEquals(large, read(big));
+            assertNull(manifest.lookup("/../other/secret.txt"));
+        }
+    }
+
+    @Test
+    void index_servesClasspathDirectoriesAndKeepsTheFirstMatch() throws Exception {
+        Path classes = Files.createDirectories(dir.resolve("classes/webroot"));
+        Files.writeString(classes.resolve("index.html"), "directorio");
+        Files.writeString(classes.resolve("big.txt"), "y".repeat(2048));
+        Path jar = jar("webroot/index.html", "jar", "webroot/only-jar.txt", "jar");
+        URL[] classpath = {dir.resolve("classes").toUri().toURL(), jar.toUri().toURL()};
+        try (URLClassLoader loader = new URLClassLoader(classpath, null);
+             StaticManifest manifest = ClasspathStaticFiles.index(loader, "webroot", 1024)) {
+            assertEquals("directorio", read(manifest.lookup("/index.html")), "Gana la primera entrada del classpath.");
+            assertEquals("jar", read(manifest.lookup("/only-jar.txt")));
+            assertEquals(classes.resolve("big.txt"), manifest.lookup("/big.txt").getFile(),
+                    "Los archivos grandes de un directorio se envían desde el disco.");
+        }
+    }
+
+    @Test
+    void index_isEmptyWhenTheFolderIsMissing() throws Exception {
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, null)) {
+            assertEquals(0, ClasspathStaticFiles.index(loader, "/webroot", 1024).size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> ClasspathStaticFiles.normalize("/"));
+        assertThrows(IllegalArgumentException.class, () -> ClasspathStaticFiles.normalize("/../etc"));
+    }
+
+    @Test
+    void nio_streamsLargeJarEntriesFromAWorker() throws Exception {
+        byte[] large = new byte[3 * 1024 * 1024];
+        new Random(7).nextBytes(large);
+        Path jar = dir.resolve("media.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("webroot/"));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("webroot/video.bin"));
+            out.write(large);
+            out.closeEntry();
+        }
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            HTTPServer server = new HTTPServer();
+            server.zeroCopyThreshold(64 * 1024);
+            server.classpathFiles(loader, "/webroot");
+            server.listen("127.0.0.1", 0);
+            Thread thread = new Thread(() -> server.start(ServerEngine.NIO), "test-server");
+            thread.start();
+            try {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (server.getLocalAddresses().isEmpty()) {
+                    assertTrue(System.currentTimeMillis() < deadline, "El servidor debe quedar escuchando.");
+                    Thread.sleep(10);
+                }
+                assertFalse(server.manifest().lookup("/video.bin").isPreloaded());
+                assertTrue(server.mayBlock(new HTTPFrameworkRequest("GET", "/video.bin", "HTTP/1.1", Map.of(),
+                        InputStream.nullInputStream())), "Las entradas grandes del JAR se copian en un worker.");
+                int port = server.getLocalAddresses().get(0).getPort();
+                byte[][] whole = fetch(port, "GET /video.bin HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+                assertTrue(new String(whole[0], StandardCharsets.US_ASCII).startsWith("HTTP/1.1 200"));
+                assertArrayEquals(large, whole[1], "La entrada del JAR debe llegar completa.");
+                byte[][] part = fetch(port, "GET /video.bin HTTP/1.1\r\nHost: localhost\r\nRange: bytes=1000000-1000099\r\n"
+                        + "Connection: close\r\n\r\n");
+                assertTrue(new String(part[0], StandardCharsets.US_ASCII).startsWith("HTTP/1.1 206"));
+                assertArrayEquals(Arrays.copyOfRange(large, 1_000_000, 1_000_100), part[1]);
+            } finally {
+                server.stop();
+                thread.join(5000);
+            }
+        }
+    }
+}
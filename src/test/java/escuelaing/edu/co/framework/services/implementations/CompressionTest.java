@@ -0,0 +1,59 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ResponseCache;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    @Test
+    void negotiate_prefersGzipAndHonoursZeroQuality() {
+        assertEquals("gzip", Compression.negotiate("deflate, gzip;q=0.5"));
+        assertEquals("deflate", Compression.negotiate("gzip;q=0, deflate"), "gzip con q=0 no debe usarse.");
+        assertEquals("gzip", Compression.negotiate("*"));
+        assertEquals("deflate", Compression.negotiate("*, gzip;q=0"), "Un q=0 explícito prevalece sobre el comodín.");
+        assertEquals("deflate", Compression.negotiate("gzip;q=0, *;q=0.5"));
+        assertNull(Compression.negotiate("gzip;q=0, deflate;q=0, *"), "El comodín no reactiva codificaciones rechazadas.");
+        assertEquals("gzip", Compression.negotiate("*;q=0, gzip"));
+        assertNull(Compression.negotiate("br"));
+        assertNull(Compression.negotiate(null));
+    }
+
+    @Test
+    void isCompressible_skipsCompressedFormats() {
+        assertTrue(Compression.isCompressible("text/css"));
+        assertTrue(Compression.isCompressible("application/javascript"));
+        assertFalse(Compression.isCompressible("image/png"), "Las imágenes PNG ya están comprimidas.");
+    }
+
+    @Test
+    void compress_producesValidGzip() throws Exception {
+        byte[] data = "hola ".repeat(200).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = Compression.compress(data, Compression.GZIP);
+        assertTrue(compressed.length < data.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void encodeCacheable_sendsTheLengthOfTheCompressedBody() throws Exception {
+        byte[] data = "hola ".repeat(400).getBytes(StandardCharsets.UTF_8);
+        HTTPFrameworkResponse response = new HTTPFrameworkResponse();
+        response.setHeader("content-length", String.valueOf(data.length));
+        response.setBody(data);
+        ResponseCache.Entry entry = new ResponseEncoder().encodeCacheable(response, Compression.GZIP);
+        byte[] encoded = entry.getData();
+        String head = new String(encoded, 0, entry.getHeaderLength(), StandardCharsets.ISO_8859_1);
+        int bodyLength = encoded.length - entry.getHeaderLength();
+        assertTrue(bodyLength < data.length);
+        assertTrue(head.contains("Content-Length: " + bodyLength + "\r\n"), head);
+        assertFalse(head.toLowerCase().contains("content-length: " + data.length + "\r\n"), "No se debe enviar la longitud puesta por el handler.");
+    }
+}
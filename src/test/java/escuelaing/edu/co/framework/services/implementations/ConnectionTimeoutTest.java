@@ -0,0 +1,92 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionTimeoutTest {
+    private static final ConnectionTimeout.Limits LIMITS = new ConnectionTimeout.Limits(1000, 2000, 500, 3000, 100, 1000);
+
+    private final AtomicInteger expired = new AtomicInteger(-1);
+
+    private ConnectionTimeout timeout() {
+        return new ConnectionTimeout(LIMITS, expired::set);
+    }
+
+    @Test
+    void check_sendsTimeoutToAConnectionThatNeverCompletesItsHead() {
+        ConnectionTimeout timeout = timeout();
+        long start = System.currentTimeMillis();
+        assertTrue(timeout.check(start + 900) > 0, "Antes del límite la conexión sigue abierta.");
+        timeout.headReceived();
+        assertEquals(0, timeout.check(start + 1100), "Recibir bytes no reinicia el tiempo de la cabecera.");
+        assertEquals(ConnectionTimeout.HEAD, expired.get());
+        assertTrue(timeout.isRequestTimeout(), "Se debe responder 408.");
+    }
+
+    @Test
+    void check_closesIdleConnectionsQuietly() {
+        ConnectionTimeout timeout = timeout();
+        timeout.awaitRequest(false);
+        long start = System.currentTimeMillis();
+        assertEquals(0, timeout.check(start + 600));
+        assertEquals(ConnectionTimeout.IDLE, expired.get());
+        assertFalse(timeout.isRequestTimeout(), "Una conexión inactiva se cierra sin 408.");
+    }
+
+    @Test
+    void check_doesNotCountTimeSpentInTheHandler() {
+        ConnectionTimeout timeout = timeout();
+        timeout.pause();
+        long start = System.currentTimeMillis();
+        assertTrue(timeout.check(start + 60_000) > 0, "El tiempo del manejador no cuenta.");
+        assertEquals(-1, expired.get());
+    }
+
+    @Test
+    void check_enforcesTheMinimumDataRateAfterTheGracePeriod() {
+        ConnectionTimeout timeout = timeout();
+        timeout.await(ConnectionTimeout.BODY);
+        long start = System.currentTimeMillis();
+        timeout.progress(50);
+        assertTrue(timeout.check(start + 900) > 0, "Durante el periodo de gracia no se mide la tasa.");
+        assertEquals(0, timeout.check(start + 1500), "50 bytes en 1.5 s está por debajo de 100 B/s.");
+        assertEquals(ConnectionTimeout.BODY, expired.get());
+        assertTrue(timeout.isRequestTimeout());
+    }
+
+    @Test
+    void check_closesAClientThatStopsReadingTheResponse() {
+        ConnectionTimeout timeout = timeout();
+        timeout.await(ConnectionTimeout.WRITE);
+        timeout.progress(1_000_000);
+        long start = System.currentTimeMillis();
+        assertTrue(timeout.check(start + 2900) > 0);
+        assertEquals(0, timeout.check(start + 3100), "Sin progreso durante el límite de escritura se cierra.");
+        assertEquals(ConnectionTimeout.WRITE, expired.get());
+        assertFalse(timeout.isRequestTimeout(), "No se puede enviar 408 en medio de una respuesta.");
+    }
+
+    @Test
+    void timerWheel_expiresScheduledTimeouts() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel(10, 64, "test-timeouts");
+        try {
+            CountDownLatch closed = new CountDownLatch(1);
+            ConnectionTimeout.Limits limits = new ConnectionTimeout.Limits(100, 100, 100, 100, 0, 0);
+            ConnectionTimeout stalled = new ConnectionTimeout(limits, phase -> closed.countDown());
+            AtomicInteger finishedExpired = new AtomicInteger();
+            ConnectionTimeout finished = new ConnectionTimeout(limits, phase -> finishedExpired.incrementAndGet());
+            wheel.schedule(stalled);
+            wheel.schedule(finished);
+            finished.close();
+            assertTrue(closed.await(2, TimeUnit.SECONDS), "La rueda debe cerrar la conexión detenida.");
+            assertEquals(0, finishedExpired.get(), "Una conexión cerrada no debe expirar.");
+        } finally {
+            wheel.stop();
+        }
+    }
+}
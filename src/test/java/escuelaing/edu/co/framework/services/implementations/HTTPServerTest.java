@@ -0,0 +1,465 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.config.ExecutionMode;
+import escuelaing.edu.co.framework.config.ServerEngine;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import escuelaing.edu.co.framework.services.interfaces.StreamConnection;
+import escuelaing.edu.co.framework.services.interfaces.WebSocketHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HTTPServerTest {
+
+    @TempDir
+    Path root;
+
+    private Thread run(HTTPServer server, ServerEngine engine) throws InterruptedException {
+        server.staticRoot(root);
+        Thread thread = new Thread(() -> server.start(engine), "test-server");
+        thread.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getLocalAddresses().isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "El servidor debe quedar escuchando.");
+            Thread.sleep(10);
+        }
+        return thread;
+    }
+
+    private static String get(int port, String path) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void stop(HTTPServer server, Thread thread) throws InterruptedException {
+        server.stop();
+        thread.join(5000);
+        assertFalse(thread.isAlive(), "start() debe terminar después de stop().");
+        assertTrue(server.getLocalAddresses().isEmpty());
+    }
+
+    private static String readHead(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+            int b = in.read();
+            assertTrue(b >= 0, "La conexión no debe cerrarse antes de la cabecera.");
+            head.write(b);
+        }
+        return head.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static Socket open(int port, String request) throws IOException {
+        Socket socket = new Socket("127.0.0.1", port);
+        socket.setSoTimeout(5000);
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    @Test
+    void streams_broadcastWebSocketMessagesToEventStreamsAndWebSockets() throws Exception {
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = new HTTPServer();
+            Broadcaster broadcaster = new Broadcaster();
+            server.eventStream("/events", (request, stream) -> broadcaster.add(stream));
+            server.webSocket("/ws", new WebSocketHandler() {
+                @Override
+                public void onOpen(HTTPFrameworkRequest request, StreamConnection socket) {
+                    broadcaster.add(socket);
+                }
+
+                @Override
+                public void onMessage(StreamConnection socket, String message) {
+                    broadcaster.publish(message);
+                }
+            });
+            server.listen("127.0.0.1", 0);
+            Thread thread = run(server, engine);
+            int port = server.getLocalAddresses().get(0).getPort();
+            try (Socket events = open(port, "GET /events HTTP/1.1\r\nHost: localhost\r\n\r\n");
+                 Socket socket = open(port, "GET /ws HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\n"
+                         + "Connection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n")) {
+                String streamHead = readHead(events);
+                assertTrue(streamHead.startsWith("HTTP/1.1 200") && streamHead.contains("text/event-stream"), streamHead);
+                String handshake = readHead(socket);
+                assertTrue(handshake.startsWith("HTTP/1.1 101"), handshake);
+                assertTrue(handshake.contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="));
+                long deadline = System.currentTimeMillis() + 5000;
+                while (broadcaster.size() < 2) {
+                    assertTrue(System.currentTimeMillis() < deadline, "Ambas conexiones deben suscribirse.");
+                    Thread.sleep(10);
+                }
+                byte[] frame = {(byte) 0x81, (byte) 0x84, 1, 2, 3, 4, 'h' ^ 1, 'o' ^ 2, 'l' ^ 3, 'a' ^ 4};
+                socket.getOutputStream().write(frame);
+                byte[] expected = "data: hola\n\n".getBytes(StandardCharsets.UTF_8);
+                assertArrayEquals(expected, events.getInputStream().readNBytes(expected.length),
+                        "El mensaje debe llegar al stream de eventos con " + engine + ".");
+                assertArrayEquals(new byte[] {(byte) 0x81, 4, 'h', 'o', 'l', 'a'}, socket.getInputStream().readNBytes(6),
+                        "El mensaje debe llegar al WebSocket con " + engine + ".");
+                assertTrue(get(port, "/ws").startsWith("HTTP/1.1 426"), "Un GET sin Upgrade debe recibir 426.");
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void start_runsIndependentServersInTheSameJvm() throws Exception {
+        HTTPServer first = new HTTPServer();
+        HTTPServer second = new HTTPServer();
+        first.get("/name", (request, response) -> {
+            response.setBody("first");
+            return response;
+        });
+        second.get("/name", (request, response) -> {
+            response.setBody("second");
+            return response;
+        });
+        first.listen("127.0.0.1", 0);
+        second.listen("127.0.0.1", 0);
+        Thread firstThread = run(first, ServerEngine.BLOCKING);
+        Thread secondThread = run(second, ServerEngine.NIO);
+        try {
+            assertTrue(get(first.getLocalAddresses().get(0).getPort(), "/name").endsWith("\r\n\r\nfirst"));
+            assertTrue(get(second.getLocalAddresses().get(0).getPort(), "/name").endsWith("\r\n\r\nsecond"),
+                    "Cada servidor debe tener su propia tabla de rutas.");
+        } finally {
+            stop(first, firstThread);
+            stop(second, secondThread);
+        }
+    }
+
+    @Test
+    void start_servesEveryListenerWithSeveralAcceptors() throws Exception {
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = new HTTPServer();
+            server.get("/ping", (request, response) -> {
+                response.setBody("pong");
+                return response;
+            });
+            server.listen(0);
+            server.listen("127.0.0.1", 0);
+            server.acceptors(3);
+            Thread thread = run(server, engine);
+            try {
+                List<InetSocketAddress> addresses = server.getLocalAddresses();
+                assertEquals(2, addresses.size(), "Debe haber una dirección por listener.");
+                assertNotEquals(addresses.get(0).getPort(), addresses.get(1).getPort());
+                for (InetSocketAddress address : addresses) {
+                    for (int i = 0; i < 10; i++) {
+                        assertTrue(get(address.getPort(), "/ping").startsWith("HTTP/1.1 200"),
+                                "Todos los acceptors de " + address + " deben atender conexiones con " + engine + ".");
+                    }
+                }
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void start_failsWhenTheAddressIsTaken() throws Exception {
+        HTTPServer owner = new HTTPServer();
+        owner.listen("127.0.0.1", 0);
+        Thread thread = run(owner, ServerEngine.BLOCKING);
+        try {
+            HTTPServer other = new HTTPServer();
+            other.staticRoot(root);
+            assertThrows(UncheckedIOException.class,
+                    () -> other.start(owner.getLocalAddresses().get(0).getPort(), ServerEngine.BLOCKING),
+                    "Un puerto ocupado no debe terminar el proceso.");
+        } finally {
+            stop(owner, thread);
+        }
+    }
+
+    @Test
+    void staticRoot_servesNothingFromAMissingFolderWithoutCreatingIt() throws Exception {
+        Path missing = root.resolve("missing");
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = new HTTPServer();
+            server.listen("127.0.0.1", 0);
+            Thread thread = run(server, engine);
+            try {
+                server.staticRoot(missing);
+                assertTrue(get(server.getLocalAddresses().get(0).getPort(), "/index.html").startsWith("HTTP/1.1 404"),
+                        "Una carpeta inexistente no sirve archivos con " + engine + ".");
+                assertFalse(Files.exists(missing), "staticRoot no debe crear la carpeta.");
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void nio_runsBlockingHandlersOffTheEventLoop() throws Exception {
+        HTTPServer server = new HTTPServer();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.get("/slow", (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setBody("slow");
+            return response;
+        });
+        server.get("/fast", (request, response) -> {
+            response.setBody("fast");
+            return response;
+        });
+        server.listen("127.0.0.1", 0);
+        server.eventLoops(1);
+        Thread thread = run(server, ServerEngine.NIO);
+        int port = server.getLocalAddresses().get(0).getPort();
+        try (Socket slow = open(port, "GET /slow HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")) {
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            try (Socket fast = open(port, "GET /fast HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")) {
+                fast.setSoTimeout(2000);
+                assertTrue(new String(fast.getInputStream().readAllBytes(), StandardCharsets.UTF_8).endsWith("\r\n\r\nfast"),
+                        "Un handler bloqueado no debe detener las demás conexiones del event loop.");
+            }
+            release.countDown();
+            assertTrue(new String(slow.getInputStream().readAllBytes(), StandardCharsets.UTF_8).endsWith("\r\n\r\nslow"));
+        } finally {
+            release.countDown();
+            stop(server, thread);
+        }
+    }
+
+    @Test
+    void nio_opensStreamsOffTheEventLoop() throws Exception {
+        HTTPServer server = new HTTPServer();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.webSocket("/ws", new WebSocketHandler() {
+            @Override
+            public void onOpen(HTTPFrameworkRequest request, StreamConnection socket) {
+                entered.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onMessage(StreamConnection socket, String message) {
+                socket.send("eco " + message);
+            }
+        });
+        server.get("/fast", (request, response) -> {
+            response.setBody("fast");
+            return response;
+        });
+        server.listen("127.0.0.1", 0);
+        server.eventLoops(1);
+        Thread thread = run(server, ServerEngine.NIO);
+        int port = server.getLocalAddresses().get(0).getPort();
+        // the first frame travels with the handshake, so it must survive the hand-off to the stream loop
+        byte[] frame = {(byte) 0x81, (byte) 0x84, 1, 2, 3, 4, 'h' ^ 1, 'o' ^ 2, 'l' ^ 3, 'a' ^ 4};
+        try (Socket socket = open(port, "GET /ws HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\n"
+                + "Connection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n")) {
+            socket.getOutputStream().write(frame);
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            try (Socket fast = open(port, "GET /fast HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")) {
+                fast.setSoTimeout(2000);
+                assertTrue(new String(fast.getInputStream().readAllBytes(), StandardCharsets.UTF_8).endsWith("\r\n\r\nfast"),
+                        "Un onOpen bloqueado no debe detener el event loop.");
+            }
+            release.countDown();
+            assertTrue(readHead(socket).startsWith("HTTP/1.1 101"));
+            byte[] expected = "eco hola".getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(new byte[] {(byte) 0x81, (byte) expected.length}, socket.getInputStream().readNBytes(2));
+            assertArrayEquals(expected, socket.getInputStream().readNBytes(expected.length),
+                    "El frame enviado junto al handshake debe entregarse.");
+        } finally {
+            release.countDown();
+            stop(server, thread);
+        }
+    }
+
+    @Test
+    void nio_sendsStreamedBodiesWhileTheyAreWritten() throws Exception {
+        HTTPServer server = new HTTPServer();
+        Semaphore release = new Semaphore(0);
+        HTTPFrameworkResponse.BodyWriter body = out -> {
+            out.write("first".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            try {
+                release.tryAcquire(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("second".getBytes(StandardCharsets.US_ASCII));
+        };
+        server.get("/sync", (request, response) -> {
+            response.setBodyWriter(body);
+            return response;
+        });
+        server.getAsync("/async", (request, response) -> {
+            response.setBodyWriter(body);
+            return CompletableFuture.completedFuture(response);
+        });
+        server.listen("127.0.0.1", 0);
+        server.eventLoops(1);
+        Thread thread = run(server, ServerEngine.NIO);
+        int port = server.getLocalAddresses().get(0).getPort();
+        try {
+            for (String path : List.of("/sync", "/async")) {
+                try (Socket socket = open(port, "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")) {
+                    socket.setSoTimeout(2000);
+                    assertTrue(readHead(socket).contains("Transfer-Encoding: chunked"));
+                    byte[] first = "5\r\nfirst\r\n".getBytes(StandardCharsets.US_ASCII);
+                    assertArrayEquals(first, socket.getInputStream().readNBytes(first.length),
+                            "El primer fragmento de " + path + " debe llegar antes de que termine el writer.");
+                    release.release();
+                    assertEquals("6\r\nsecond\r\n0\r\n\r\n",
+                            new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII));
+                }
+            }
+        } finally {
+            release.release(2);
+            stop(server, thread);
+        }
+    }
+
+    @Test
+    void blocking_handlesConnectionsConcurrentlyInEveryExecutionMode() throws Exception {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            HTTPServer server = new HTTPServer();
+            CyclicBarrier barrier = new CyclicBarrier(3);
+            server.get("/meet", (request, response) -> {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    response.setBody("met");
+                } catch (Exception e) {
+                    response.setStatus(500);
+                }
+                return response;
+            });
+            server.listen("127.0.0.1", 0);
+            server.executionMode(mode, 3);
+            Thread thread = run(server, ServerEngine.BLOCKING);
+            int port = server.getLocalAddresses().get(0).getPort();
+            List<CompletableFuture<String>> responses = new ArrayList<>();
+            try {
+                for (int i = 0; i < 3; i++) {
+                    responses.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return get(port, "/meet");
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                }
+                for (CompletableFuture<String> response : responses) {
+                    assertTrue(response.get(10, TimeUnit.SECONDS).endsWith("\r\n\r\nmet"),
+                            "Las tres conexiones deben atenderse a la vez con " + mode + ".");
+                }
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void metrics_mustBeEnabledBeforeTheServerStarts() throws Exception {
+        HTTPServer server = new HTTPServer();
+        server.listen("127.0.0.1", 0);
+        Thread thread = run(server, ServerEngine.BLOCKING);
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> server.metrics("/metrics"));
+            assertTrue(error.getMessage().contains("before the server starts"), error.getMessage());
+            assertNull(server.getMetrics(), "Las métricas no se activan si su ruta no se registra.");
+            assertTrue(get(server.getLocalAddresses().get(0).getPort(), "/metrics").startsWith("HTTP/1.1 404"));
+        } finally {
+            stop(server, thread);
+        }
+    }
+
+    @Test
+    void virtualThreads_fallBackToTheBoundedPoolWithoutVirtualThreads() throws Exception {
+        HTTPServer server = new HTTPServer();
+        server.executionMode(ExecutionMode.VIRTUAL_THREADS, 3);
+        ExecutorService workers = server.createWorkers();
+        try {
+            if (Runtime.version().feature() >= 21) {
+                assertFalse(workers instanceof ThreadPoolExecutor, "Con Java 21+ se usan hilos virtuales.");
+            } else {
+                assertTrue(workers instanceof ThreadPoolExecutor, "Sin hilos virtuales se usa el pool acotado.");
+                assertEquals(3, ((ThreadPoolExecutor) workers).getMaximumPoolSize(),
+                        "El pool de respaldo no puede crecer sin límite.");
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void nio_reassemblesSplitRequestsAndFinishesLargeResponses() throws Exception {
+        byte[] large = new byte[4 * 1024 * 1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) ('a' + i % 26);
+        }
+        Files.write(root.resolve("large.txt"), large);
+        HTTPServer server = new HTTPServer();
+        server.post("/echo", (request, response) -> {
+            response.setBody(request.getBody());
+            return response;
+        });
+        server.listen("127.0.0.1", 0);
+        server.eventLoops(1);
+        Thread thread = run(server, ServerEngine.NIO);
+        int port = server.getLocalAddresses().get(0).getPort();
+        try (Socket split = new Socket("127.0.0.1", port); Socket reader = open(port, "")) {
+            split.setSoTimeout(5000);
+            OutputStream out = split.getOutputStream();
+            for (String part : new String[] {"POST /ec", "ho HTTP/1.1\r\nHost: local", "host\r\nContent-Length: 4\r\nConnection: close\r\n\r\nh", "ola"}) {
+                out.write(part.getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                Thread.sleep(20);
+            }
+            assertTrue(new String(split.getInputStream().readAllBytes(), StandardCharsets.UTF_8).endsWith("\r\n\r\nhola"),
+                    "Una petición que llega en varios fragmentos debe reconstruirse.");
+            reader.getOutputStream().write("GET /large.txt HTTP/1.1\r\nHost: localhost\r\nAccept-Encoding: identity\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            readHead(reader);
+            Thread.sleep(200);
+            assertTrue(get(port, "/large.txt").startsWith("HTTP/1.1 200"),
+                    "Un cliente que lee despacio no debe bloquear el event loop.");
+            assertArrayEquals(large, reader.getInputStream().readAllBytes(), "La respuesta grande debe llegar completa.");
+        } finally {
+            stop(server, thread);
+        }
+    }
+}
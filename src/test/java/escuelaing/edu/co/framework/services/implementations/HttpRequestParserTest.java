@@ -0,0 +1,87 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.errors.HttpServerErrors;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpRequestParserTest {
+
+    private static ByteBuffer bytes(String raw) {
+        return ByteBuffer.wrap(raw.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void parse_readsRequestLineHeadersAndQuery() {
+        HttpRequestParser parser = new HttpRequestParser(8192, 100, 1024, false);
+        assertTrue(parser.parse(bytes("GET /hello?name=Jos%C3%A9&tag=a&tag=b+c HTTP/1.1\r\nHost: x\r\nAccept: a\r\nAccept: b\r\n\r\n")));
+        HTTPFrameworkRequest request = parser.request();
+        assertEquals("GET", request.getMethod());
+        assertEquals("/hello", request.getUrl());
+        assertEquals("HTTP/1.1", request.getVersion());
+        assertEquals("x", request.getHeader("HOST"), "Los nombres de cabecera no distinguen mayúsculas.");
+        assertEquals("a, b", request.getHeader("accept"), "Las cabeceras repetidas se combinan.");
+        assertEquals("José", request.getValue("name"));
+        assertEquals(List.of("a", "b c"), request.getValues("tag"));
+    }
+
+    @Test
+    void parse_handlesSplitInputAndPipelinedRequests() {
+        HttpRequestParser parser = new HttpRequestParser(8192, 100, 1024, false);
+        assertFalse(parser.parse(bytes("POST /p HTTP/1.1\r\nContent-Le")));
+        assertTrue(parser.inProgress());
+        ByteBuffer rest = bytes("ngth: 5\r\n\r\nhelloGET /next HTTP/1.1\r\n\r\n");
+        assertTrue(parser.parse(rest));
+        assertArrayEquals("hello".getBytes(StandardCharsets.ISO_8859_1), parser.request().getBody());
+        parser.reset();
+        assertTrue(parser.parse(rest), "La petición en pipeline debe quedar en el buffer.");
+        assertEquals("/next", parser.request().getUrl());
+    }
+
+    @Test
+    void parse_decodesChunkedBodies() {
+        HttpRequestParser parser = new HttpRequestParser(8192, 100, 1024, false);
+        assertTrue(parser.parse(bytes("PUT /p HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n4;ext=1\r\nWiki\r\n5\r\npedia\r\n0\r\nX-Trailer: 1\r\n\r\n")));
+        assertEquals("Wikipedia", new String(parser.request().getBody(), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void readBody_streamsBodyAcrossBuffers() throws Exception {
+        HttpRequestParser parser = new HttpRequestParser(8192, 100, 1024, true);
+        ByteBuffer head = bytes("POST /p HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n4\r\nWi");
+        assertTrue(parser.parse(head), "En modo streaming la petición está lista al terminar las cabeceras.");
+        InputStream socket = new ByteArrayInputStream("ki\r\n5\r\npedia\r\n0\r\n\r\nGET /next HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(head).flip();
+        RequestBodyStream body = new RequestBodyStream(socket, buffer, parser);
+        assertEquals("Wikipedia", new String(parser.request(body).getBody(), StandardCharsets.ISO_8859_1));
+        parser.reset();
+        while (!parser.parse(buffer)) {
+            int read = socket.read(buffer.array(), 0, buffer.capacity());
+            buffer.clear();
+            buffer.limit(read);
+        }
+        assertEquals("/next", parser.request().getUrl(), "Tras el cuerpo debe leerse la siguiente petición.");
+    }
+
+    @Test
+    void parse_enforcesLimits() {
+        assertThrows(HttpServerErrors.class, () -> new HttpRequestParser(8192, 100, 1024, false).parse(bytes("NOT A REQUEST\r\n\r\n")));
+        HttpServerErrors tooLarge = assertThrows(HttpServerErrors.class,
+                () -> new HttpRequestParser(8192, 100, 10, false).parse(bytes("POST / HTTP/1.1\r\nContent-Length: 11\r\n\r\n")));
+        assertEquals(413, tooLarge.CODE);
+        HttpServerErrors tooMany = assertThrows(HttpServerErrors.class,
+                () -> new HttpRequestParser(8192, 1, 10, false).parse(bytes("GET / HTTP/1.1\r\nA: 1\r\nB: 2\r\n\r\n")));
+        assertEquals(431, tooMany.CODE);
+        HttpServerErrors tooLong = assertThrows(HttpServerErrors.class,
+                () -> new HttpRequestParser(64, 100, 10, false).parse(bytes("GET / HTTP/1.1\r\nA: " + "x".repeat(100) + "\r\n\r\n")));
+        assertEquals(431, tooLong.CODE);
+    }
+}
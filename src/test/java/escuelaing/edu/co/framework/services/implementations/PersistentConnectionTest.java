@@ -0,0 +1,199 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.config.ServerEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentConnectionTest {
+
+    @TempDir
+    Path root;
+
+    private HTTPServer server() throws IOException {
+        Files.writeString(root.resolve("a.txt"), "static");
+        HTTPServer server = new HTTPServer();
+        server.get("/items/{id}", (request, response) -> {
+            response.setBody("item " + request.getPathParam("id"));
+            return response;
+        });
+        server.get("/slow", (request, response) -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setBody("slow");
+            return response;
+        });
+        server.getAsync("/async", (request, response) -> CompletableFuture.supplyAsync(() -> {
+            response.setBody("async");
+            return response;
+        }));
+        server.listen("127.0.0.1", 0);
+        server.staticRoot(root);
+        return server;
+    }
+
+    private static Thread run(HTTPServer server, ServerEngine engine) throws InterruptedException {
+        Thread thread = new Thread(() -> server.start(engine), "test-server");
+        thread.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getLocalAddresses().isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "El servidor debe quedar escuchando.");
+            Thread.sleep(10);
+        }
+        return thread;
+    }
+
+    private static void stop(HTTPServer server, Thread thread) throws InterruptedException {
+        server.stop();
+        thread.join(5000);
+        assertFalse(thread.isAlive(), "start() debe terminar después de stop().");
+    }
+
+    private static Socket connect(HTTPServer server) throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.getLocalAddresses().get(0).getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String requests) throws IOException {
+        socket.getOutputStream().write(requests.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    private static String request(String path, String connection) {
+        return "GET " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                + (connection != null ? "Connection: " + connection + "\r\n" : "") + "\r\n";
+    }
+
+    /**
+     * Reads one response delimited by its Content-Length and returns its head and body.
+     */
+    private static String[] readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.US_ASCII).endsWith("\r\n\r\n")) {
+            int b = in.read();
+            assertTrue(b >= 0, "La conexión no debe cerrarse antes de la respuesta.");
+            head.write(b);
+        }
+        String text = head.toString(StandardCharsets.US_ASCII);
+        int start = text.indexOf("Content-Length: ") + "Content-Length: ".length();
+        int length = Integer.parseInt(text.substring(start, text.indexOf("\r\n", start)));
+        return new String[] {text, new String(in.readNBytes(length), StandardCharsets.UTF_8)};
+    }
+
+    @Test
+    void keepAlive_servesSeveralRequestsOnOneConnection() throws Exception {
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = server();
+            Thread thread = run(server, engine);
+            try (Socket socket = connect(server)) {
+                InputStream in = socket.getInputStream();
+                for (int i = 1; i <= 3; i++) {
+                    send(socket, request("/items/" + i, null));
+                    String[] response = readResponse(in);
+                    assertTrue(response[0].startsWith("HTTP/1.1 200"), response[0]);
+                    assertTrue(response[0].contains("Connection: keep-alive"), "HTTP/1.1 es persistente por defecto.");
+                    assertEquals("item " + i, response[1], "Petición " + i + " en la misma conexión con " + engine + ".");
+                }
+                send(socket, request("/a.txt", null));
+                assertEquals("static", readResponse(in)[1]);
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void pipelining_answersABurstInOrder() throws Exception {
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = server();
+            Thread thread = run(server, engine);
+            try (Socket socket = connect(server)) {
+                send(socket, request("/slow", null) + request("/a.txt", null) + request("/items/3", null)
+                        + request("/async", null) + request("/items/5", "close"));
+                InputStream in = socket.getInputStream();
+                String[] expected = {"slow", "static", "item 3", "async", "item 5"};
+                for (String body : expected) {
+                    assertEquals(body, readResponse(in)[1],
+                            "Las respuestas deben seguir el orden de las peticiones con " + engine + ".");
+                }
+                assertEquals(-1, in.read(), "La conexión se cierra después de la petición con Connection: close.");
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void keepAlive_closesAfterTheMaximumNumberOfRequests() throws Exception {
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = server();
+            server.keepAlive(2, 5000);
+            Thread thread = run(server, engine);
+            try (Socket socket = connect(server)) {
+                send(socket, request("/items/1", null) + request("/items/2", null) + request("/items/3", null));
+                InputStream in = socket.getInputStream();
+                String[] first = readResponse(in);
+                String[] second = readResponse(in);
+                assertTrue(first[0].contains("Connection: keep-alive"));
+                assertTrue(second[0].contains("Connection: close"), "La segunda respuesta es la última con " + engine + ".");
+                assertEquals("item 2", second[1]);
+                assertEquals(-1, in.read(), "La tercera petición no debe responderse.");
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void connectionClose_closesTheSocketAfterTheResponse() throws Exception {
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = server();
+            Thread thread = run(server, engine);
+            try (Socket socket = connect(server)) {
+                send(socket, request("/items/7", "close"));
+                InputStream in = socket.getInputStream();
+                String[] response = readResponse(in);
+                assertTrue(response[0].contains("Connection: close"));
+                assertEquals("item 7", response[1]);
+                assertEquals(-1, in.read(), "El servidor debe cerrar la conexión con " + engine + ".");
+            } finally {
+                stop(server, thread);
+            }
+            HTTPServer legacy = server();
+            thread = run(legacy, engine);
+            try (Socket socket = connect(legacy)) {
+                send(socket, "GET /items/8 HTTP/1.0\r\n\r\n");
+                InputStream in = socket.getInputStream();
+                assertTrue(readResponse(in)[0].contains("Connection: close"));
+                assertEquals(-1, in.read(), "HTTP/1.0 sin keep-alive no es persistente.");
+            } finally {
+                stop(legacy, thread);
+            }
+        }
+    }
+
+    @Test
+    void isPersistent_comparesWholeConnectionOptions() {
+        assertTrue(HTTPServer.isPersistent("HTTP/1.1", null));
+        assertFalse(HTTPServer.isPersistent("HTTP/1.1", "Close"));
+        assertFalse(HTTPServer.isPersistent("HTTP/1.1", "keep-alive, close"), "close gana aunque venga después.");
+        assertTrue(HTTPServer.isPersistent("HTTP/1.1", "x-closed-captions"), "Una opción que contiene close no cierra.");
+        assertTrue(HTTPServer.isPersistent("HTTP/1.0", "Upgrade , Keep-Alive"));
+        assertFalse(HTTPServer.isPersistent("HTTP/1.0", "x-keep-alive-hint"), "Una opción que contiene keep-alive no es keep-alive.");
+        assertFalse(HTTPServer.isPersistent("HTTP/1.0", null));
+    }
+}
@@ -0,0 +1,38 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseWriterTest {
+
+    @Test
+    void writer_encodesHeadWithCrlfLineEndings() {
+        try (ResponseWriter writer = ResponseWriter.acquire()) {
+            writer.status(206).header("Content-Type", "text/html").contentRange(0, 9, 1234).contentLength(10).end(false);
+            assertEquals("HTTP/1.1 206 Partial Content\r\n"
+                            + "Content-Type: text/html\r\n"
+                            + "Content-Range: bytes 0-9/1234\r\n"
+                            + "Content-Length: 10\r\n"
+                            + "Connection: close\r\n\r\n",
+                    new String(writer.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void writer_handlesUnknownStatusesAndIsClearedWhenReused() {
+        ResponseWriter writer = ResponseWriter.acquire();
+        writer.status(299).unsatisfiedRange(5);
+        assertEquals("HTTP/1.1 299 \r\nContent-Range: bytes */5\r\n", new String(writer.toByteArray(), StandardCharsets.US_ASCII),
+                "Un código desconocido lleva una frase vacía en lugar de una inventada.");
+        writer.reset();
+        writer.status(599);
+        assertEquals("HTTP/1.1 599 \r\n", new String(writer.toByteArray(), StandardCharsets.US_ASCII));
+        writer.close();
+        try (ResponseWriter reused = ResponseWriter.acquire()) {
+            assertEquals(0, reused.toByteArray().length, "Un writer recuperado del pool debe estar vacío.");
+        }
+    }
+}
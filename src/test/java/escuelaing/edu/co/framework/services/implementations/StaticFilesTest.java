@@ -0,0 +1,251 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.config.ServerEngine;
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticFilesTest {
+
+    @TempDir
+    Path root;
+
+    private static HTTPFrameworkRequest get(String target, Map<String, String> headers) {
+        return new HTTPFrameworkRequest("GET", target, "HTTP/1.1", headers, InputStream.nullInputStream());
+    }
+
+    private Thread run(HTTPServer server, ServerEngine engine) throws InterruptedException {
+        server.staticRoot(root);
+        server.listen("127.0.0.1", 0);
+        Thread thread = new Thread(() -> server.start(engine), "test-server");
+        thread.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getLocalAddresses().isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "El servidor debe quedar escuchando.");
+            Thread.sleep(10);
+        }
+        return thread;
+    }
+
+    private static void stop(HTTPServer server, Thread thread) throws InterruptedException {
+        server.stop();
+        thread.join(5000);
+        assertFalse(thread.isAlive(), "start() debe terminar después de stop().");
+    }
+
+    /**
+     * Sends a GET with the given extra header lines on its own connection and reads the whole response.
+     */
+    private static Reply fetch(HTTPServer server, String path, String headers) throws IOException {
+        int port = server.getLocalAddresses().get(0).getPort();
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n" + headers
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            byte[] response = socket.getInputStream().readAllBytes();
+            String text = new String(response, StandardCharsets.ISO_8859_1);
+            int end = text.indexOf("\r\n\r\n");
+            assertTrue(end > 0, "La respuesta debe tener cabecera.");
+            return new Reply(text.substring(0, end + 2), Arrays.copyOfRange(response, end + 4, response.length));
+        }
+    }
+
+    private static byte[] pattern(int size) {
+        byte[] data = new byte[size];
+        new Random(5).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    void mayBlock_onlyForFilesThatMustBeReadOrCompressed() throws Exception {
+        Files.writeString(root.resolve("a.txt"), "a".repeat(2048));
+        Files.write(root.resolve("big.bin"), new byte[4096]);
+        HTTPServer server = new HTTPServer();
+        server.staticRoot(root);
+        server.zeroCopyThreshold(3000);
+        HTTPFrameworkRequest plain = get("/a.txt", Map.of());
+        HTTPFrameworkRequest gzip = get("/a.txt", Map.of("accept-encoding", "gzip"));
+        assertTrue(server.mayBlock(plain), "Un archivo que no está en la caché se lee en un worker.");
+        assertTrue(server.mayBlock(gzip), "Comprimir un archivo no se hace en el event loop.");
+
+        server.processRequest(plain, 1, new BufferOutput(), 0);
+        assertFalse(server.mayBlock(plain), "Un acierto de la caché se responde en el event loop.");
+        assertTrue(server.mayBlock(gzip), "Cada codificación tiene su propia entrada en la caché.");
+        server.processRequest(gzip, 1, new BufferOutput(), 0);
+        assertFalse(server.mayBlock(gzip));
+        long hits = server.getStaticFileCache().getHits();
+        server.mayBlock(plain);
+        assertEquals(hits, server.getStaticFileCache().getHits(), "Consultar la caché no cuenta aciertos.");
+
+        assertFalse(server.mayBlock(get("/big.bin", Map.of())), "Los archivos grandes se envían con transferTo.");
+        assertFalse(server.mayBlock(get("/big.bin", Map.of("range", "bytes=0-9"))));
+        assertFalse(server.mayBlock(get("/missing.txt", Map.of())), "Un 404 se responde en el event loop.");
+    }
+
+    @Test
+    void parseRange_resolvesSingleByteRanges() {
+        assertArrayEquals(new long[]{10, 19}, StaticFiles.parseRange("bytes=10-19", 100));
+        assertArrayEquals(new long[]{90, 99}, StaticFiles.parseRange("bytes=90-", 100));
+        assertArrayEquals(new long[]{80, 99}, StaticFiles.parseRange("bytes=-20", 100));
+        assertArrayEquals(new long[]{50, 99}, StaticFiles.parseRange("bytes=50-500", 100),
+                "El final del rango debe recortarse al tamaño del archivo.");
+    }
+
+    @Test
+    void parseRange_ignoresOrRejectsInvalidRanges() {
+        assertNull(StaticFiles.parseRange("bytes=0-1,5-6", 100), "Los rangos múltiples se ignoran.");
+        assertNull(StaticFiles.parseRange("bytes=abc", 100), "Un rango mal formado se ignora.");
+        assertNull(StaticFiles.parseRange("items=0-1", 100), "Solo se soportan rangos en bytes.");
+        assertEquals(0, StaticFiles.parseRange("bytes=100-", 100).length,
+                "Un rango fuera del archivo no es satisfacible.");
+    }
+
+    @Test
+    void range_sendsPartialContentOnEveryEngine() throws Exception {
+        byte[] large = pattern(200_000);
+        byte[] small = pattern(5_000);
+        Files.write(root.resolve("large.bin"), large);
+        Files.write(root.resolve("small.bin"), small);
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = new HTTPServer();
+            server.zeroCopyThreshold(64 * 1024);
+            Thread thread = run(server, engine);
+            try {
+                Reply whole = fetch(server, "/large.bin", "");
+                assertTrue(whole.head.startsWith("HTTP/1.1 200 OK\r\n"), whole.head);
+                assertEquals("200000", whole.header("Content-Length"));
+                assertEquals("bytes", whole.header("Accept-Ranges"));
+                assertArrayEquals(large, whole.body, "El archivo grande se envía completo con transferTo en " + engine + ".");
+
+                Reply part = fetch(server, "/large.bin", "Range: bytes=100000-100999\r\n");
+                assertTrue(part.head.startsWith("HTTP/1.1 206 Partial Content\r\n"), part.head);
+                assertEquals("bytes 100000-100999/200000", part.header("Content-Range"));
+                assertEquals("1000", part.header("Content-Length"));
+                assertArrayEquals(Arrays.copyOfRange(large, 100_000, 101_000), part.body,
+                        "El rango debe salir del archivo sin copiarse en memoria en " + engine + ".");
+
+                Reply suffix = fetch(server, "/small.bin", "Range: bytes=-10\r\n");
+                assertTrue(suffix.head.startsWith("HTTP/1.1 206 "), suffix.head);
+                assertEquals("bytes 4990-4999/5000", suffix.header("Content-Range"));
+                assertEquals("10", suffix.header("Content-Length"));
+                assertArrayEquals(Arrays.copyOfRange(small, 4990, 5000), suffix.body);
+
+                Reply unsatisfiable = fetch(server, "/large.bin", "Range: bytes=300000-\r\n");
+                assertTrue(unsatisfiable.head.startsWith("HTTP/1.1 416 "), unsatisfiable.head);
+                assertEquals("bytes */200000", unsatisfiable.header("Content-Range"));
+                assertEquals("0", unsatisfiable.header("Content-Length"));
+                assertEquals(0, unsatisfiable.body.length, "Un 416 no lleva cuerpo.");
+
+                Reply multiple = fetch(server, "/small.bin", "Range: bytes=0-1,5-6\r\n");
+                assertTrue(multiple.head.startsWith("HTTP/1.1 200 "), "Los rangos múltiples se ignoran.");
+                assertArrayEquals(small, multiple.body);
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    @Test
+    void isNotModified_evaluatesValidators() {
+        String etag = "\"abc\"";
+        long lastModified = 1_000_000_000_000L;
+        assertTrue(StaticFiles.isNotModified(Map.of("if-none-match", "\"x\", W/\"abc\""), etag, lastModified),
+                "Un ETag coincidente debe producir 304.");
+        assertFalse(StaticFiles.isNotModified(Map.of("if-none-match", "\"x\"",
+                "if-modified-since", "Fri, 01 Jan 2100 00:00:00 GMT"), etag, lastModified),
+                "If-None-Match tiene prioridad sobre If-Modified-Since.");
+        assertTrue(StaticFiles.isNotModified(Map.of("if-modified-since", "Fri, 01 Jan 2100 00:00:00 GMT"), etag, lastModified));
+        assertFalse(StaticFiles.isNotModified(Map.of("if-modified-since", "Sat, 01 Jan 2000 00:00:00 GMT"), etag, lastModified));
+        assertFalse(StaticFiles.isNotModified(Map.of("if-modified-since", "ayer"), etag, lastModified),
+                "Una fecha inválida se ignora.");
+    }
+
+    @Test
+    void conditionalGet_answersNotModifiedOnEveryEngine() throws Exception {
+        String text = "hola mundo ".repeat(500);
+        byte[] large = pattern(200_000);
+        Files.writeString(root.resolve("page.html"), text);
+        Files.write(root.resolve("large.bin"), large);
+        for (ServerEngine engine : ServerEngine.values()) {
+            HTTPServer server = new HTTPServer();
+            server.zeroCopyThreshold(64 * 1024);
+            Thread thread = run(server, engine);
+            try {
+                Reply page = fetch(server, "/page.html", "");
+                String etag = page.header("ETag");
+                assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+                assertEquals(text, new String(page.body, StandardCharsets.UTF_8));
+
+                Reply notModified = fetch(server, "/page.html", "If-None-Match: " + etag + "\r\n");
+                assertTrue(notModified.head.startsWith("HTTP/1.1 304 Not Modified\r\n"), notModified.head);
+                assertEquals(etag, notModified.header("ETag"), "El 304 repite el ETag.");
+                assertEquals(page.header("Last-Modified"), notModified.header("Last-Modified"));
+                assertEquals(0, notModified.body.length, "Un 304 no lleva cuerpo en " + engine + ".");
+                Reply sinceDate = fetch(server, "/page.html", "If-Modified-Since: " + page.header("Last-Modified") + "\r\n");
+                assertTrue(sinceDate.head.startsWith("HTTP/1.1 304 "), sinceDate.head);
+                assertTrue(fetch(server, "/page.html", "If-None-Match: \"otro\"\r\n").head.startsWith("HTTP/1.1 200 "),
+                        "Un ETag distinto recibe el archivo.");
+
+                Reply gzip = fetch(server, "/page.html", "Accept-Encoding: gzip\r\n");
+                assertEquals("gzip", gzip.header("Content-Encoding"));
+                assertEquals("Accept-Encoding", gzip.header("Vary"));
+                assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", gzip.header("ETag"),
+                        "La versión comprimida tiene su propio ETag.");
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body))) {
+                    assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                Reply gzipNotModified = fetch(server, "/page.html",
+                        "Accept-Encoding: gzip\r\nIf-None-Match: " + gzip.header("ETag") + "\r\n");
+                assertTrue(gzipNotModified.head.startsWith("HTTP/1.1 304 "), gzipNotModified.head);
+                assertEquals(gzip.header("ETag"), gzipNotModified.header("ETag"));
+                Reply otherRepresentation = fetch(server, "/page.html", "If-None-Match: " + gzip.header("ETag") + "\r\n");
+                assertTrue(otherRepresentation.head.startsWith("HTTP/1.1 200 "),
+                        "El ETag comprimido no valida la versión sin comprimir.");
+
+                Reply file = fetch(server, "/large.bin", "");
+                Reply fileNotModified = fetch(server, "/large.bin", "If-None-Match: " + file.header("ETag") + "\r\n");
+                assertTrue(fileNotModified.head.startsWith("HTTP/1.1 304 "), "Los archivos enviados con transferTo también se validan.");
+                assertEquals(0, fileNotModified.body.length);
+            } finally {
+                stop(server, thread);
+            }
+        }
+    }
+
+    /**
+     * A response read from a socket, split into its head and body.
+     */
+    private static final class Reply {
+        private final String head;
+        private final byte[] body;
+
+        private Reply(String head, byte[] body) {
+            this.head = head;
+            this.body = body;
+        }
+
+        String header(String name) {
+            for (String line : head.split("\r\n")) {
+                int colon = line.indexOf(':');
+                if (colon > 0 && line.substring(0, colon).equalsIgnoreCase(name)) {
+                    return line.substring(colon + 1).trim();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.cache.ETagCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticManifestTest {
+
+    @TempDir
+    Path root;
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void scan_recordsEveryFileWithItsValidators() throws Exception {
+        Files.createDirectories(root.resolve("images"));
+        Files.writeString(root.resolve("index.html"), "<h1>Hola</h1>");
+        Files.write(root.resolve("images/photo.jpg"), new byte[] {1, 2, 3});
+        Files.writeString(root.resolve("app.json.css"), "body {}");
+
+        StaticManifest manifest = StaticManifest.scan(root, Long.MAX_VALUE);
+
+        assertEquals(3, manifest.size());
+        StaticManifest.Entry page = manifest.lookup("/index.html");
+        assertNotNull(page, "El archivo debe encontrarse por su ruta.");
+        assertEquals(13, page.getSize());
+        assertEquals("text/html", page.getContentType());
+        assertTrue(page.getEtag().startsWith("\""), "La etiqueta debe calcularse al construir el manifiesto.");
+        assertEquals("image/jpeg", manifest.lookup("/images/photo.jpg").getContentType());
+        assertEquals("text/css", manifest.lookup("/app.json.css").getContentType(), "Solo cuenta la última extensión.");
+        assertNotNull(manifest.lookup("/images%2Fphoto.jpg"), "Los caracteres codificados deben decodificarse.");
+        assertNull(manifest.lookup("/images"), "Los directorios no se sirven.");
+        assertNull(manifest.lookup("/missing.png"));
+    }
+
+    @Test
+    void scan_hashesOnlyFilesUpToTheLimit() throws Exception {
+        Files.writeString(root.resolve("small.txt"), "pequeño");
+        Files.write(root.resolve("large.bin"), new byte[4096]);
+
+        StaticManifest manifest = StaticManifest.scan(root, 1024);
+
+        assertEquals(ETagCache.of(new ByteArrayInputStream(Files.readAllBytes(root.resolve("small.txt")))), manifest.lookup("/small.txt").getEtag(),
+                "Los archivos pequeños se identifican por su contenido.");
+        StaticManifest.Entry large = manifest.lookup("/large.bin");
+        assertEquals(ETagCache.ofVersion(large.getLastModified(), 4096), large.getEtag(),
+                "Los archivos grandes no se leen para calcular su etiqueta.");
+    }
+
+    @Test
+    void lookup_rejectsPathsOutsideTheRoot() throws Exception {
+        Files.createDirectories(root.resolve("webroot/images"));
+        Files.writeString(root.resolve("secret.txt"), "secreto");
+        Files.writeString(root.resolve("webroot/images/img.png"), "png");
+
+        StaticManifest manifest = StaticManifest.scan(root.resolve("webroot"), Long.MAX_VALUE);
+
+        assertNull(manifest.lookup("/../secret.txt"), "No se debe salir de la raíz.");
+        assertNull(manifest.lookup("/images/%2e%2e/%2E%2E/secret.txt"), "Tampoco con puntos codificados.");
+        assertTrue(StaticManifest.isTraversal("/images/../img.png"));
+        assertTrue(StaticManifest.isTraversal("/%2e%2e/secret.txt"));
+        assertTrue(StaticManifest.isTraversal("/images%5c..%5csecret.txt"));
+        assertFalse(StaticManifest.isTraversal("/images/img..png"));
+        assertFalse(StaticManifest.isTraversal("/.well-known/security.txt"));
+    }
+
+    @Test
+    void watch_appliesChangesUnderTheRoot() throws Exception {
+        Files.writeString(root.resolve("index.html"), "v1");
+        StaticManifest manifest = StaticManifest.scan(root, Long.MAX_VALUE);
+        manifest.watch();
+        try {
+            String before = manifest.lookup("/index.html").getEtag();
+            Files.writeString(root.resolve("index.html"), "version 2");
+            await(() -> manifest.lookup("/index.html").getSize() == 9);
+            assertNotEquals(before, manifest.lookup("/index.html").getEtag(), "La etiqueta debe cambiar con el contenido.");
+
+            Files.createDirectories(root.resolve("css"));
+            Files.writeString(root.resolve("css/site.css"), "body {}");
+            await(() -> manifest.lookup("/css/site.css") != null);
+            assertNotNull(manifest.lookup("/css/site.css"), "Los directorios nuevos deben vigilarse.");
+
+            Files.delete(root.resolve("index.html"));
+            await(() -> manifest.lookup("/index.html") == null);
+            assertNull(manifest.lookup("/index.html"), "Los archivos borrados deben salir del manifiesto.");
+        } finally {
+            manifest.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package escuelaing.edu.co.framework.services.implementations;
+
+import escuelaing.edu.co.framework.models.HTTPFrameworkRequest;
+import escuelaing.edu.co.framework.models.HTTPFrameworkResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamFramesTest {
+
+    private static byte[] masked(int first, byte[] payload) {
+        byte[] mask = {0x37, (byte) 0xfa, 0x21, 0x3d};
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(first);
+        if (payload.length < 126) {
+            frame.write(0x80 | payload.length);
+        } else {
+            frame.write(0x80 | 126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length);
+        }
+        frame.write(mask, 0, 4);
+        for (int i = 0; i < payload.length; i++) {
+            frame.write(payload[i] ^ mask[i & 3]);
+        }
+        return frame.toByteArray();
+    }
+
+    private static final class Recorder implements WebSocketReader.Listener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onText(String message) {
+            events.add("text:" + message);
+        }
+
+        @Override
+        public void onPing(byte[] payload) {
+            events.add("ping:" + new String(payload, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onClose(int code) {
+            events.add("close:" + code);
+        }
+    }
+
+    @Test
+    void event_writesOneDataFieldPerLine() {
+        assertEquals("data: hola\n\n", new String(StreamFrames.event("hola"), StandardCharsets.UTF_8));
+        assertEquals("data: a\ndata: b\ndata: \ndata: c\n\n", new String(StreamFrames.event("a\r\nb\n\rc"), StandardCharsets.UTF_8),
+                "Cada salto de línea debe abrir un nuevo campo data.");
+    }
+
+    @Test
+    void text_usesTheShortestLengthEncoding() {
+        assertEquals(2 + 125, StreamFrames.text("x".repeat(125)).length);
+        byte[] medium = StreamFrames.text("x".repeat(126));
+        assertEquals(126, medium[1]);
+        assertEquals(4 + 126, medium.length);
+        byte[] large = StreamFrames.text("x".repeat(70_000));
+        assertEquals(127, large[1]);
+        assertEquals(10 + 70_000, large.length);
+        assertEquals((byte) 0x81, large[0], "El servidor envía un único frame de texto sin máscara.");
+    }
+
+    @Test
+    void acceptKey_matchesTheRfcExample() {
+        assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", StreamFrames.acceptKey("dGhlIHNhbXBsZSBub25jZQ=="));
+    }
+
+    @Test
+    void read_reassemblesFragmentsSplitAcrossReads() {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        wire.writeBytes(masked(0x01, "ho".getBytes(StandardCharsets.UTF_8)));
+        wire.writeBytes(masked(0x89, "p".getBytes(StandardCharsets.UTF_8)));
+        wire.writeBytes(masked(0x80, "la".getBytes(StandardCharsets.UTF_8)));
+        wire.writeBytes(masked(0x88, new byte[] {0x03, (byte) 0xe8}));
+        byte[] bytes = wire.toByteArray();
+        WebSocketReader reader = new WebSocketReader(1024);
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < bytes.length - 1; i++) {
+            assertEquals(0, reader.read(ByteBuffer.wrap(new byte[] {bytes[i]}), recorder));
+        }
+        assertEquals(StreamFrames.NORMAL_CLOSURE, reader.read(ByteBuffer.wrap(new byte[] {bytes[bytes.length - 1]}), recorder),
+                "El frame de cierre termina la lectura.");
+        assertEquals(List.of("ping:p", "text:hola", "close:1000"), recorder.events,
+                "Los frames de control pueden llegar entre fragmentos.");
+    }
+
+    @Test
+    void read_discardsFramesAfterTheCloseFrame() {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        wire.writeBytes(masked(0x81, "antes".getBytes(StandardCharsets.UTF_8)));
+        wire.writeBytes(masked(0x88, new byte[] {0x03, (byte) 0xe8}));
+        wire.writeBytes(masked(0x81, "después".getBytes(StandardCharsets.UTF_8)));
+        wire.writeBytes(masked(0x89, new byte[0]));
+        WebSocketReader reader = new WebSocketReader(1024);
+        Recorder recorder = new Recorder();
+        assertEquals(StreamFrames.NORMAL_CLOSURE, reader.read(ByteBuffer.wrap(wire.toByteArray()), recorder));
+        ByteBuffer late = ByteBuffer.wrap(masked(0x81, "tarde".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(0, reader.read(late, recorder));
+        assertFalse(late.hasRemaining(), "Los bytes posteriores al cierre se consumen y se descartan.");
+        assertEquals(List.of("text:antes", "close:1000"), recorder.events,
+                "Ningún frame posterior al cierre debe entregarse.");
+    }
+
+    @Test
+    void handleRequest_answersWithoutOpeningTheStream() {
+        HTTPFrameworkRequest request = new HTTPFrameworkRequest("/chat");
+        HTTPFrameworkResponse socket = new StreamRoute((r, s) -> { }, 16, 1024)
+                .handleRequest(request, new HTTPFrameworkResponse());
+        assertEquals(426, socket.getStatus(), "Una ruta WebSocket usada como manejador pide el upgrade.");
+        assertEquals("websocket", socket.getHeader("Upgrade"));
+        HTTPFrameworkResponse events = new StreamRoute((r, s) -> { }, 16)
+                .handleRequest(request, new HTTPFrameworkResponse());
+        assertEquals(400, events.getStatus());
+    }
+
+    @Test
+    void read_rejectsFramesThatBreakTheProtocol() {
+        Recorder recorder = new Recorder();
+        byte[] unmasked = {(byte) 0x81, 0x01, 'a'};
+        assertEquals(StreamFrames.PROTOCOL_ERROR, new WebSocketReader(1024).read(ByteBuffer.wrap(unmasked), recorder),
+                "Los clientes deben enmascarar sus frames.");
+        assertEquals(StreamFrames.MESSAGE_TOO_BIG,
+                new WebSocketReader(100).read(ByteBuffer.wrap(masked(0x81, new byte[200])), recorder));
+        assertEquals(StreamFrames.UNSUPPORTED_DATA,
+                new WebSocketReader(100).read(ByteBuffer.wrap(masked(0x82, new byte[2])), recorder));
+        assertEquals(StreamFrames.INVALID_DATA,
+                new WebSocketReader(100).read(ByteBuffer.wrap(masked(0x81, new byte[] {(byte) 0xc3})), recorder));
+        assertTrue(recorder.events.isEmpty());
+    }
+
+    @Test
+    void publish_dropsSubscribersThatFallBehind() {
+        Broadcaster broadcaster = new Broadcaster();
+        StreamSubscriber slow = new StreamSubscriber(null, false, null, 2, 0);
+        StreamSubscriber other = new StreamSubscriber(null, false, null, 10, 0);
+        broadcaster.add(slow);
+        broadcaster.add(other);
+        assertEquals(2, broadcaster.publish("1"));
+        assertEquals(2, broadcaster.publish("2"));
+        assertEquals(1, broadcaster.publish("3"), "Un suscriptor con la cola llena no debe recibir más mensajes.");
+        assertFalse(slow.isOpen());
+        assertTrue(slow.isAborted());
+        assertEquals(1, broadcaster.size());
+        byte[] first = slow.poll();
+        assertSame(first, other.poll(), "El mensaje se codifica una vez para todos los suscriptores.");
+    }
+}